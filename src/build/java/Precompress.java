@@ -0,0 +1,37 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes file.gz next to each file given (paths separated by the platform's
+ * path separator), like gzip -k -f -n -9 but without a native gzip binary.
+ * Run from pom.xml (precompress-static) as a single-file source program.
+ */
+public class Precompress {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args[0].isEmpty()) {
+            return;
+        }
+        for (String name : args[0].split(File.pathSeparator)) {
+            Path file = Path.of(name);
+            Path gzipped = file.resolveSibling(file.getFileName() + ".gz");
+            // No file name or modification time in the header, so builds are reproducible
+            try (OutputStream out = new BestGzipOutputStream(Files.newOutputStream(gzipped))) {
+                Files.copy(file, out);
+            }
+        }
+    }
+
+    private static final class BestGzipOutputStream extends GZIPOutputStream {
+
+        BestGzipOutputStream(OutputStream out) throws IOException {
+            super(out);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+}
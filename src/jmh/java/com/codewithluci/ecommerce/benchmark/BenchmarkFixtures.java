@@ -0,0 +1,119 @@
+package com.codewithluci.ecommerce.benchmark;
+
+import com.codewithluci.ecommerce.entity.*;
+import com.codewithluci.ecommerce.security.JwtUtil;
+import com.codewithluci.ecommerce.sharding.Shards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Object graphs shaped like what the services see after a repository call.
+ * Sizes follow the seed data: ~200 char descriptions, 2 decimal prices.
+ */
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long-for-hs256";
+
+    private static final String DESCRIPTION =
+            "Lightweight breathable running shoe with a knit upper, cushioned midsole " +
+            "and a rubber outsole for grip on wet roads. Suitable for daily training, " +
+            "tempo runs and long distances. Machine washable, available in six colours.";
+
+    private BenchmarkFixtures() {
+    }
+
+    // sharding.enabled=false: every id is on the main database. Only the
+    // routing methods work; there are no transactions to run.
+    static Shards singleShard() {
+        return new Shards(null, null, new SimpleMeterRegistry(), false, List.of(), 128, 1, 5000);
+    }
+
+    static Category category(long id) {
+        Category category = Category.builder()
+                .name("Running Shoes " + id)
+                .description("Road and trail running shoes")
+                .slug("running-shoes-" + id)
+                .isActive(true)
+                .build();
+        category.setId(id);
+        category.setCreatedAt(LocalDateTime.now());
+        return category;
+    }
+
+    static Product product(long id, Category category) {
+        Product product = Product.builder()
+                .name("Trail Runner " + id)
+                .description(DESCRIPTION)
+                .price(new BigDecimal("89.99").add(BigDecimal.valueOf(id % 100, 2)))
+                .stockQuantity(100 + (int) (id % 50))
+                .imageUrl("https://cdn.example.com/products/" + id + ".jpg")
+                .sku("SKU-" + id)
+                .isActive(true)
+                .category(category)
+                .build();
+        product.setId(id);
+        product.setCreatedAt(LocalDateTime.now());
+        return product;
+    }
+
+    static User user(long id) {
+        User user = User.builder()
+                .username("user" + id)
+                .email("user" + id + "@example.com")
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z2VvS7lQm6PqAfZb4mJbJcV.")
+                .fullName("Benchmark User " + id)
+                .role(Role.USER)
+                .isActive(true)
+                .build();
+        user.setId(id);
+        return user;
+    }
+
+    static Order order(long id, User user, int items) {
+        Category category = category(1);
+        Order order = Order.builder()
+                .user(user)
+                .status(OrderStatus.PENDING)
+                .shippingAddress("221B Baker Street, London NW1 6XE")
+                .notes("Leave at the door")
+                .totalAmount(BigDecimal.ZERO)
+                .build();
+        order.setId(id);
+        order.setCreatedAt(LocalDateTime.now());
+        order.setUpdatedAt(LocalDateTime.now());
+        for (int i = 0; i < items; i++) {
+            OrderItem item = OrderItem.fromProduct(product(i + 1, category), 1 + i % 3);
+            item.setId(id * 1000 + i);
+            order.addOrderItem(item);
+        }
+        order.calculateTotalAmount();
+        return order;
+    }
+
+    static JwtUtil jwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET_KEY", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "JWT_EXPIRATION", 900_000L);
+        return jwtUtil;
+    }
+
+    /**
+     * Handle to a private instance method (the mappers are private), resolved once
+     * so the benchmark pays a direct call, not a reflective lookup.
+     */
+    static MethodHandle privateMethod(Class<?> owner, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            return MethodHandles.privateLookupIn(owner, MethodHandles.lookup())
+                    .findVirtual(owner, name, MethodType.methodType(returnType, params));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot access " + owner.getSimpleName() + "." + name, e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.codewithluci.ecommerce.benchmark;
+
+import com.codewithluci.ecommerce.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue on login/refresh and the single-parse validation done per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private Map<String, Object> claims;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = BenchmarkFixtures.jwtUtil();
+        claims = Map.of(
+                JwtUtil.CLAIM_USER_ID, 42L,
+                JwtUtil.CLAIM_ROLE, "USER",
+                JwtUtil.CLAIM_SESSION_ID, UUID.randomUUID().toString()
+        );
+        token = jwtUtil.generateToken("user42", claims);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken("user42", claims);
+    }
+
+    @Benchmark
+    public Claims parse() {
+        return jwtUtil.parseToken(token);
+    }
+}
@@ -0,0 +1,58 @@
+package com.codewithluci.ecommerce.benchmark;
+
+import com.codewithluci.ecommerce.dto.respone.OrderResponse;
+import com.codewithluci.ecommerce.dto.respone.ProductResponse;
+import com.codewithluci.ecommerce.entity.Order;
+import com.codewithluci.ecommerce.entity.Product;
+import com.codewithluci.ecommerce.service.impl.OrderServiceImpl;
+import com.codewithluci.ecommerce.service.impl.ProductServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping. The mappers never touch the repositories, so the
+ * services are built with nulls; the order mapper asks Shards which
+ * database an order is on, so it gets a real single-shard one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    private static final MethodHandle PRODUCT_MAPPER = BenchmarkFixtures.privateMethod(
+            ProductServiceImpl.class, "mapToResponse", ProductResponse.class, Product.class);
+    private static final MethodHandle ORDER_MAPPER = BenchmarkFixtures.privateMethod(
+            OrderServiceImpl.class, "mapToResponse", OrderResponse.class, Order.class);
+
+    // Typical cart size; larger orders are covered by OrderTotalBenchmark
+    @Param({"3", "20"})
+    public int orderItems;
+
+    private ProductServiceImpl productService;
+    private OrderServiceImpl orderService;
+    private Product product;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        productService = new ProductServiceImpl(null, null);
+        orderService = new OrderServiceImpl(null, null, null, null, null, BenchmarkFixtures.singleShard());
+        product = BenchmarkFixtures.product(7, BenchmarkFixtures.category(1));
+        order = BenchmarkFixtures.order(1, BenchmarkFixtures.user(42), orderItems);
+    }
+
+    @Benchmark
+    public ProductResponse productMapToResponse() throws Throwable {
+        return (ProductResponse) PRODUCT_MAPPER.invokeExact(productService, product);
+    }
+
+    @Benchmark
+    public OrderResponse orderMapToResponse() throws Throwable {
+        return (OrderResponse) ORDER_MAPPER.invokeExact(orderService, order);
+    }
+}
@@ -0,0 +1,35 @@
+package com.codewithluci.ecommerce.benchmark;
+
+import com.codewithluci.ecommerce.entity.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order.calculateTotalAmount over item lists from a normal cart up to bulk orders.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderTotalBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int items;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        order = BenchmarkFixtures.order(1, BenchmarkFixtures.user(42), items);
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalAmount() {
+        order.calculateTotalAmount();
+        return order.getTotalAmount();
+    }
+}
@@ -0,0 +1,68 @@
+package com.codewithluci.ecommerce.benchmark;
+
+import com.codewithluci.ecommerce.dto.respone.ApiResponse;
+import com.codewithluci.ecommerce.dto.respone.PageResponse;
+import com.codewithluci.ecommerce.dto.respone.ProductResponse;
+import com.codewithluci.ecommerce.entity.Category;
+import com.codewithluci.ecommerce.entity.Product;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body of GET /api/products: ApiResponse wrapping a PageResponse of ProductResponse,
+ * written to bytes the way the message converter does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductPageSerializationBenchmark {
+
+    // Default page size and the largest one the UI asks for
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<PageResponse<ProductResponse>> response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+
+        Category category = BenchmarkFixtures.category(1);
+        List<ProductResponse> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Product product = BenchmarkFixtures.product(i + 1, category);
+            content.add(ProductResponse.builder()
+                    .id(product.getId())
+                    .name(product.getName())
+                    .description(product.getDescription())
+                    .price(product.getPrice())
+                    .stockQuantity(product.getStockQuantity())
+                    .imageUrl(product.getImageUrl())
+                    .sku(product.getSku())
+                    .isActive(product.getIsActive())
+                    .inStock(product.isInStock())
+                    .categoryId(category.getId())
+                    .categoryName(category.getName())
+                    .createdAt(product.getCreatedAt())
+                    .build());
+        }
+        PageResponse<ProductResponse> page = PageResponse.of(new SliceImpl<>(content, PageRequest.of(0, pageSize), true));
+        response = ApiResponse.success("Products retrieved successfully", page);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,38 @@
+package com.codewithluci.ecommerce.benchmark;
+
+import com.codewithluci.ecommerce.service.impl.CategoryServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CategoryServiceImpl.generateSlug on a plain ASCII name and on one that
+ * needs accent stripping and whitespace collapsing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlugBenchmark {
+
+    private static final MethodHandle SLUG = BenchmarkFixtures.privateMethod(
+            CategoryServiceImpl.class, "generateSlug", String.class, String.class);
+
+    @Param({"Men's Clothing!", "Électronique & Accessoires   Haut-de-Gamme"})
+    public String name;
+
+    private CategoryServiceImpl categoryService;
+
+    @Setup
+    public void setUp() {
+        categoryService = new CategoryServiceImpl(null, null);
+    }
+
+    @Benchmark
+    public String generateSlug() throws Throwable {
+        return (String) SLUG.invokeExact(categoryService, name);
+    }
+}
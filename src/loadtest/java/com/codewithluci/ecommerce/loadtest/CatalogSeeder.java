@@ -0,0 +1,111 @@
+package com.codewithluci.ecommerce.loadtest;
+
+import com.codewithluci.ecommerce.entity.*;
+import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import com.codewithluci.ecommerce.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the embedded database with a catalog and a pool of login-ready users.
+ *
+ * Every seeded user shares one password hash - BCrypt-encoding thousands of
+ * passwords would dominate seeding time without changing what login costs.
+ */
+@Slf4j
+class CatalogSeeder {
+
+    static final String USER_PREFIX = "lt_user_";
+    static final String PASSWORD = "LoadTest123";
+
+    private static final int BATCH = 500;
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate tx;
+
+    CatalogSeeder(ApplicationContext context) {
+        this.categoryRepository = context.getBean(CategoryRepository.class);
+        this.productRepository = context.getBean(ProductRepository.class);
+        this.userRepository = context.getBean(UserRepository.class);
+        this.passwordEncoder = context.getBean(PasswordEncoder.class);
+        this.tx = context.getBean(TransactionTemplate.class);
+    }
+
+    /**
+     * @return ids of the seeded products
+     */
+    List<Long> seed(int categories, int products, int users) {
+        long start = System.nanoTime();
+
+        List<Category> savedCategories = tx.execute(status -> {
+            List<Category> batch = new ArrayList<>(categories);
+            for (int c = 0; c < categories; c++) {
+                batch.add(Category.builder()
+                        .name("Load Category " + c)
+                        .description("Seeded category " + c)
+                        .slug("load-category-" + c)
+                        .isActive(true)
+                        .build());
+            }
+            return categoryRepository.saveAll(batch);
+        });
+
+        List<Long> productIds = new ArrayList<>(products);
+        for (int from = 0; from < products; from += BATCH) {
+            int to = Math.min(products, from + BATCH);
+            int offset = from;
+            tx.executeWithoutResult(status -> {
+                List<Product> batch = new ArrayList<>(to - offset);
+                for (int p = offset; p < to; p++) {
+                    batch.add(Product.builder()
+                            .name("Load Product " + p)
+                            .description("Seeded product " + p + " for load testing. " +
+                                    "Long enough to look like a real catalog description.")
+                            .price(BigDecimal.valueOf(500 + p % 20_000, 2))
+                            .stockQuantity(1_000_000)
+                            .imageUrl("https://cdn.example.com/products/" + p + ".jpg")
+                            .sku("LOAD-" + p)
+                            .isActive(true)
+                            .category(savedCategories.get(p % categories))
+                            .build());
+                }
+                productRepository.saveAll(batch).forEach(product -> productIds.add(product.getId()));
+            });
+        }
+
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        for (int from = 0; from < users; from += BATCH) {
+            int to = Math.min(users, from + BATCH);
+            int offset = from;
+            tx.executeWithoutResult(status -> {
+                List<User> batch = new ArrayList<>(to - offset);
+                for (int u = offset; u < to; u++) {
+                    batch.add(User.builder()
+                            .username(USER_PREFIX + u)
+                            .email(USER_PREFIX + u + "@example.com")
+                            .password(passwordHash)
+                            .fullName("Load User " + u)
+                            .role(Role.USER)
+                            .isActive(true)
+                            .isEmailVerified(true)
+                            .build());
+                }
+                userRepository.saveAll(batch);
+            });
+        }
+
+        log.info("Seeded {} categories, {} products, {} users in {} ms",
+                categories, products, users, (System.nanoTime() - start) / 1_000_000);
+        return productIds;
+    }
+}
@@ -0,0 +1,159 @@
+package com.codewithluci.ecommerce.loadtest;
+
+import com.codewithluci.ecommerce.EcommerceApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bytes on the wire and latency per endpoint for HTTP/1.1 and h2c, with and
+ * without gzip. Unlike LoadTestRunner this goes through a real socket, so the
+ * embedded server's compression and HTTP/2 are part of what is measured.
+ *
+ * Requests are sequential from one client per mode: latency here is the
+ * per-request cost (including compressing the body), not behaviour under load.
+ * Bytes are the response body as sent; HTTP/2 also compresses headers (HPACK),
+ * which java.net.http does not expose.
+ */
+@Slf4j
+public class CompressionBenchmark {
+
+    private record Mode(String protocol, HttpClient.Version version, String encoding) {
+    }
+
+    private static final List<Mode> MODES = List.of(
+            new Mode("http/1.1", HttpClient.Version.HTTP_1_1, "identity"),
+            new Mode("http/1.1", HttpClient.Version.HTTP_1_1, "gzip"),
+            new Mode("h2c", HttpClient.Version.HTTP_2, "identity"),
+            new Mode("h2c", HttpClient.Version.HTTP_2, "gzip"));
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // The loadtest profile starts no server; this benchmark needs one.
+        // System properties override the profile file, program arguments override these.
+        System.setProperty("server.port", "0");
+        System.setProperty("server.http2.enabled", "true");
+        System.setProperty("server.compression.enabled", "true");
+        System.setProperty("server.compression.min-response-size", "1KB");
+        System.setProperty("server.compression.mime-types", "application/json,text/html,text/css,text/javascript");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EcommerceApplication.class)
+                .profiles("loadtest")
+                .run(args);
+        try {
+            new CompressionBenchmark().run(context);
+        } finally {
+            context.close();
+        }
+        System.exit(0);
+    }
+
+    private void run(ConfigurableApplicationContext context) throws Exception {
+        Environment env = context.getEnvironment();
+        int categories = env.getProperty("loadtest.seed.categories", Integer.class, 20);
+        int products = env.getProperty("loadtest.seed.products", Integer.class, 5000);
+        int users = env.getProperty("loadtest.seed.users", Integer.class, 1000);
+        int warmup = env.getProperty("loadtest.compression.warmup-requests", Integer.class, 500);
+        int requests = env.getProperty("loadtest.compression.requests", Integer.class, 2000);
+        List<String> paths = List.of(env.getProperty("loadtest.compression.paths", String[].class,
+                new String[]{"/api/products?size=20", "/products"}));
+        String resultFile = env.getProperty("loadtest.compression.result-file", "target/compression-result.json");
+        int port = env.getRequiredProperty("local.server.port", Integer.class);
+
+        new CatalogSeeder(context).seed(categories, products, users);
+
+        EndpointStats stats = new EndpointStats();
+        stats.start();
+        Map<String, Map<String, Object>> wire = new LinkedHashMap<>();
+        for (Mode mode : MODES) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(mode.version())
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            for (String path : paths) {
+                String name = path + " " + mode.protocol() + " " + mode.encoding();
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .header("Accept-Encoding", mode.encoding())
+                        .GET()
+                        .build();
+
+                // warm-up responses are not recorded
+                for (int i = 0; i < warmup; i++) {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                }
+
+                HttpResponse<byte[]> last = null;
+                for (int i = 0; i < requests; i++) {
+                    long start = System.nanoTime();
+                    last = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                    stats.record(name, System.nanoTime() - start, last.statusCode() < 400);
+                }
+
+                Map<String, Object> sample = new LinkedHashMap<>();
+                sample.put("status", last.statusCode());
+                sample.put("negotiated", last.version() == HttpClient.Version.HTTP_2 ? "h2c" : "http/1.1");
+                sample.put("contentEncoding", last.headers().firstValue("Content-Encoding").orElse("identity"));
+                sample.put("bodyBytes", last.body().length);
+                wire.put(name, sample);
+            }
+        }
+
+        stats.stop();
+        // elapsed only feeds req/s, which is meaningless for sequential requests
+        Map<String, EndpointStats.Result> latency = stats.results(1.0);
+        print(wire, latency);
+        write(resultFile, requests, wire, latency);
+    }
+
+    private void print(Map<String, Map<String, Object>> wire, Map<String, EndpointStats.Result> latency) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%n%-40s %6s %9s %9s %10s %9s %9s %9s%n",
+                "endpoint / protocol / accept", "status", "sent as", "encoding", "body bytes", "p50 ms", "p99 ms", "max ms"));
+        wire.forEach((name, sample) -> {
+            EndpointStats.Result r = latency.get(name);
+            out.append(String.format("%-40s %6s %9s %9s %10s %9.2f %9.2f %9.2f%n",
+                    name, sample.get("status"), sample.get("negotiated"), sample.get("contentEncoding"),
+                    sample.get("bodyBytes"), r.p50(), r.p99(), r.max()));
+        });
+        System.out.println(out);
+    }
+
+    private void write(String resultFile, int requests, Map<String, Map<String, Object>> wire,
+                       Map<String, EndpointStats.Result> latency) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        wire.forEach((name, sample) -> {
+            Map<String, Object> entry = new LinkedHashMap<>(sample);
+            EndpointStats.Result r = latency.get(name);
+            entry.put("errors", r.errors());
+            entry.put("p50", r.p50());
+            entry.put("p90", r.p90());
+            entry.put("p99", r.p99());
+            entry.put("max", r.max());
+            endpoints.put(name, entry);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requestsPerMode", requests);
+        report.put("endpoints", endpoints);
+
+        File file = new File(resultFile);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build().writeValue(file, report);
+        log.info("Compression benchmark result written to {}", file.getAbsolutePath());
+    }
+}
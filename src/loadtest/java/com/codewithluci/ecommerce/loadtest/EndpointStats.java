@@ -0,0 +1,112 @@
+package com.codewithluci.ecommerce.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and error counts keyed by endpoint name.
+ *
+ * Recording goes through HdrHistogram Recorders, so worker threads never
+ * contend on a lock. Latencies are recorded in microseconds up to one minute.
+ *
+ * Open-loop runs record by arrival time: a warm-up flow that only completes
+ * after start() (it was still queued for a worker) is not measured.
+ */
+class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+    private volatile long measuredFrom;
+
+    void start() {
+        start(System.nanoTime());
+    }
+
+    /**
+     * Measures flows arriving at or after arrivalNanos (System.nanoTime())
+     */
+    void start(long arrivalNanos) {
+        endpoints.values().forEach(Endpoint::reset);
+        measuredFrom = arrivalNanos;
+        recording = true;
+    }
+
+    void stop() {
+        recording = false;
+    }
+
+    void record(String endpoint, long arrivalNanos, long latencyNanos, boolean success) {
+        if (arrivalNanos - measuredFrom < 0) {
+            return;  // arrived during warm-up
+        }
+        record(endpoint, latencyNanos, success);
+    }
+
+    void record(String endpoint, long latencyNanos, boolean success) {
+        if (!recording) {
+            return;  // warm-up traffic
+        }
+        Endpoint e = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+        e.recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        if (!success) {
+            e.errors.increment();
+        }
+    }
+
+    /**
+     * Snapshot of everything recorded since start(), ordered by endpoint name
+     */
+    Map<String, Result> results(double elapsedSeconds) {
+        Map<String, Result> results = new LinkedHashMap<>();
+        endpoints.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Histogram h = entry.getValue().snapshot();
+                    results.put(entry.getKey(), new Result(
+                            h.getTotalCount(),
+                            entry.getValue().errors.sum(),
+                            h.getTotalCount() / elapsedSeconds,
+                            millis(h.getValueAtPercentile(50)),
+                            millis(h.getValueAtPercentile(90)),
+                            millis(h.getValueAtPercentile(99)),
+                            millis(h.getValueAtPercentile(99.9)),
+                            millis(h.getMaxValue())
+                    ));
+                });
+        return results;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    record Result(long count, long errors, double throughput,
+                  double p50, double p90, double p99, double p999, double max) {
+    }
+
+    private static class Endpoint {
+
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        private final Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+
+        synchronized void reset() {
+            recorder.reset();
+            total.reset();
+            errors.reset();
+        }
+
+        synchronized Histogram snapshot() {
+            total.add(recorder.getIntervalHistogram());
+            return total.copy();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.codewithluci.ecommerce.loadtest;
+
+import com.codewithluci.ecommerce.EcommerceApplication;
+import com.codewithluci.ecommerce.entity.Product;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.tools.Server;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Cost of loading a product list page with and without Product.description,
+ * on a catalog whose descriptions are realistically long.
+ *
+ * Both variants run the list query (active products, newest first) with a
+ * fetch graph: "lazy" fetches the category like the repository list queries
+ * do, "eager" fetches the description too, which is what every list page
+ * loaded before description became lazy. Each page is loaded in a fresh
+ * EntityManager, as in a request. Pages cycle through the first page-span
+ * pages, where list traffic goes; deeper offsets mostly measure H2 skipping
+ * rows.
+ *
+ * The database is reached through H2's TCP server rather than embedded,
+ * so rows are serialized and copied the way a real database sends them;
+ * embedded H2 hands out its stored Strings, and a skipped column costs
+ * nothing to transfer.
+ *
+ * Reported per variant: list latency, and bytes allocated by the loading
+ * thread per page (the transient heap a page costs). Average row size is
+ * reported once, split into the description and everything else.
+ */
+@Slf4j
+public class LazyDescriptionBenchmark {
+
+    private static final String LIST_QUERY =
+            "SELECT p FROM Product p WHERE p.isActive = true ORDER BY p.createdAt DESC";
+
+    private static final String[] WORDS = ("durable lightweight premium cotton stainless steel ergonomic design " +
+            "everyday use water resistant adjustable strap compact storage easy to clean dishwasher safe " +
+            "includes warranty compatible with most models available in several colours breathable fabric " +
+            "reinforced stitching quick setup no tools required energy efficient quiet operation").split(" ");
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        System.setProperty("warmup.enabled", "false");
+        Server server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        System.setProperty("spring.datasource.url", "jdbc:h2:tcp://localhost:" + server.getPort()
+                + "/mem:lazy-description;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EcommerceApplication.class)
+                .profiles("loadtest")
+                .run(args);
+        try {
+            new LazyDescriptionBenchmark().run(context);
+        } finally {
+            context.close();
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    private void run(ConfigurableApplicationContext context) {
+        Environment env = context.getEnvironment();
+        int categories = env.getProperty("loadtest.seed.categories", Integer.class, 20);
+        int products = env.getProperty("loadtest.seed.products", Integer.class, 5000);
+        int descriptionBytes = env.getProperty("loadtest.lazy.description-bytes", Integer.class, 2000);
+        int pageSize = env.getProperty("loadtest.lazy.page-size", Integer.class, 20);
+        int warmup = env.getProperty("loadtest.lazy.warmup-pages", Integer.class, 2000);
+        int pages = env.getProperty("loadtest.lazy.pages", Integer.class, 5000);
+        int pageSpan = env.getProperty("loadtest.lazy.page-span", Integer.class, 10);
+        String resultFile = env.getProperty("loadtest.lazy.result-file", "target/lazy-description-result.json");
+
+        List<Long> productIds = new CatalogSeeder(context).seed(categories, products, 0);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        writeDescriptions(jdbc, productIds, descriptionBytes);
+        Map<String, Object> rows = jdbc.queryForMap("""
+                SELECT AVG(OCTET_LENGTH(description)) AS description_bytes,
+                       AVG(OCTET_LENGTH(name) + OCTET_LENGTH(COALESCE(image_url, ''))
+                           + OCTET_LENGTH(COALESCE(sku, '')) + 8 * 6 + 1) AS other_bytes
+                FROM products""");
+
+        EntityManagerFactory emf = context.getBean(EntityManagerFactory.class);
+        int span = Math.max(1, Math.min(products / pageSize, pageSpan));
+        List<String> variants = List.of("lazy", "eager");
+        for (int i = 0; i < warmup; i++) {
+            for (String variant : variants) {
+                loadPage(emf, variant, i % span, pageSize);
+            }
+        }
+
+        // Interleaved, so neither variant runs on a warmer JIT or emptier heap
+        EndpointStats stats = new EndpointStats();
+        Map<String, Long> allocated = new LinkedHashMap<>();
+        stats.start();
+        for (int i = 0; i < pages; i++) {
+            for (String variant : variants) {
+                long allocatedBefore = allocatedBytes();
+                long start = System.nanoTime();
+                loadPage(emf, variant, i % span, pageSize);
+                stats.record(variant, System.nanoTime() - start, true);
+                allocated.merge(variant, allocatedBytes() - allocatedBefore, Long::sum);
+            }
+        }
+        stats.stop();
+        Map<String, Double> allocatedPerPage = new LinkedHashMap<>();
+        allocated.forEach((variant, bytes) -> allocatedPerPage.put(variant, (double) bytes / pages));
+
+        Map<String, EndpointStats.Result> latency = stats.results(1.0);
+        print(rows, pageSize, latency, allocatedPerPage);
+        write(resultFile, rows, pageSize, pages, latency, allocatedPerPage);
+    }
+
+    private static void loadPage(EntityManagerFactory emf, String variant, int page, int pageSize) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            EntityGraph<Product> graph = em.createEntityGraph(Product.class);
+            graph.addAttributeNodes("category");
+            if (variant.equals("eager")) {
+                graph.addAttributeNodes("description");
+            }
+            List<Product> content = em.createQuery(LIST_QUERY, Product.class)
+                    .setHint("jakarta.persistence.fetchgraph", graph)
+                    .setFirstResult(page * pageSize)
+                    .setMaxResults(pageSize)
+                    .getResultList();
+            if (content.size() != pageSize) {
+                throw new IllegalStateException("Page " + page + " has " + content.size() + " products");
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    // Several sentences of catalog copy per product, about targetBytes long
+    private static void writeDescriptions(JdbcTemplate jdbc, List<Long> productIds, int targetBytes) {
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>();
+        for (Long id : productIds) {
+            StringBuilder text = new StringBuilder(targetBytes + 64);
+            while (text.length() < targetBytes) {
+                int words = 8 + random.nextInt(12);
+                for (int w = 0; w < words; w++) {
+                    String word = WORDS[random.nextInt(WORDS.length)];
+                    text.append(w == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word)
+                            .append(w == words - 1 ? ". " : " ");
+                }
+            }
+            batch.add(new Object[]{text.toString(), id});
+            if (batch.size() == 500) {
+                jdbc.batchUpdate("UPDATE products SET description = ? WHERE id = ?", batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate("UPDATE products SET description = ? WHERE id = ?", batch);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private void print(Map<String, Object> rows, int pageSize, Map<String, EndpointStats.Result> latency,
+                       Map<String, Double> allocated) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%nAverage row: %.0f bytes of description, %.0f bytes of everything else%n",
+                ((Number) rows.get("description_bytes")).doubleValue(),
+                ((Number) rows.get("other_bytes")).doubleValue()));
+        out.append(String.format("%-8s %6s %9s %9s %9s %14s%n",
+                "variant", "rows", "p50 ms", "p99 ms", "max ms", "alloc KB/page"));
+        latency.forEach((variant, r) -> out.append(String.format("%-8s %6d %9.3f %9.3f %9.3f %14.1f%n",
+                variant, pageSize, r.p50(), r.p99(), r.max(), allocated.get(variant) / 1024)));
+        System.out.println(out);
+    }
+
+    private void write(String resultFile, Map<String, Object> rows, int pageSize, int pages,
+                       Map<String, EndpointStats.Result> latency, Map<String, Double> allocated) {
+        Map<String, Object> variants = new LinkedHashMap<>();
+        latency.forEach((variant, r) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("p50", r.p50());
+            entry.put("p90", r.p90());
+            entry.put("p99", r.p99());
+            entry.put("max", r.max());
+            entry.put("allocatedBytesPerPage", allocated.get(variant));
+            variants.put(variant, entry);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("avgDescriptionBytes", rows.get("description_bytes"));
+        report.put("avgOtherRowBytes", rows.get("other_bytes"));
+        report.put("pageSize", pageSize);
+        report.put("pagesPerVariant", pages);
+        report.put("variants", variants);
+
+        File file = new File(resultFile);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build().writeValue(file, report);
+        log.info("Lazy description benchmark result written to {}", file.getAbsolutePath());
+    }
+}
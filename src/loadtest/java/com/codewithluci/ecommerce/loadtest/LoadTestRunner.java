@@ -0,0 +1,188 @@
+package com.codewithluci.ecommerce.loadtest;
+
+import com.codewithluci.ecommerce.EcommerceApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+
+/**
+ * Boots the application with the "loadtest" profile (embedded H2 in MySQL mode,
+ * no HTTP port), seeds it, and drives a mixed workload at a fixed arrival rate.
+ *
+ * Arrivals are open-loop: flows are scheduled on the clock regardless of how
+ * many are still running, the way real users arrive. Every knob is a
+ * loadtest.* property, overridable as --loadtest.x=... program arguments.
+ */
+@Slf4j
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        // devtools is on the test classpath; its restart classloader only adds startup time here
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EcommerceApplication.class)
+                .profiles("loadtest")
+                .run(args);
+        int exitCode = 0;
+        try {
+            exitCode = new LoadTestRunner().run(context);
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+
+    private int run(ConfigurableApplicationContext context) throws Exception {
+        Environment env = context.getEnvironment();
+        int categories = env.getProperty("loadtest.seed.categories", Integer.class, 20);
+        int products = env.getProperty("loadtest.seed.products", Integer.class, 5000);
+        int users = env.getProperty("loadtest.seed.users", Integer.class, 1000);
+        double rate = env.getProperty("loadtest.arrival-rate", Double.class, 50.0);
+        boolean poisson = "poisson".equalsIgnoreCase(env.getProperty("loadtest.arrival", "poisson"));
+        int warmupSeconds = env.getProperty("loadtest.warmup-seconds", Integer.class, 10);
+        int durationSeconds = env.getProperty("loadtest.duration-seconds", Integer.class, 60);
+        int workers = env.getProperty("loadtest.workers", Integer.class, 200);
+        int pageSize = env.getProperty("loadtest.page-size", Integer.class, 20);
+        String resultFile = env.getProperty("loadtest.result-file", "target/loadtest-result.json");
+
+        // Relative weights of each flow in the mix
+        Map<Workload.Flow, Integer> mix = new EnumMap<>(Workload.Flow.class);
+        mix.put(Workload.Flow.BROWSE, env.getProperty("loadtest.mix.browse", Integer.class, 70));
+        mix.put(Workload.Flow.CHECKOUT, env.getProperty("loadtest.mix.checkout", Integer.class, 25));
+        mix.put(Workload.Flow.REGISTER, env.getProperty("loadtest.mix.register", Integer.class, 5));
+
+        List<Long> productIds = new CatalogSeeder(context).seed(categories, products, users);
+
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        EndpointStats stats = new EndpointStats();
+        Workload workload = new Workload(mockMvc, objectMapper, stats, productIds, users, pageSize);
+
+        // Unbounded queue on purpose: time spent waiting for a worker is part of
+        // the measured latency, and the arrival schedule never slows down
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            log.info("Warm-up: {} s at {} flows/s", warmupSeconds, rate);
+            drive(pool, workload, mix, rate, poisson, warmupSeconds);
+
+            log.info("Measuring: {} s at {} flows/s ({} arrivals)", durationSeconds, rate,
+                    poisson ? "poisson" : "constant");
+            // Warm-up flows still waiting for a worker run on, but aren't measured
+            long start = System.nanoTime();
+            stats.start(start);
+            long scheduled = drive(pool, workload, mix, rate, poisson, durationSeconds);
+            pool.shutdown();
+            if (!pool.awaitTermination(2, TimeUnit.MINUTES)) {
+                log.warn("Flows still running after 2 minutes, reporting what completed");
+            }
+            stats.stop();
+            double elapsed = (System.nanoTime() - start) / 1e9;
+
+            Map<String, EndpointStats.Result> results = stats.results(elapsed);
+            print(results, scheduled, elapsed);
+            write(resultFile, rate, poisson, durationSeconds, elapsed, scheduled, mix, results);
+            return 0;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Schedule flows for the given time on the arrival clock.
+     *
+     * @return number of flows scheduled
+     */
+    private long drive(ExecutorService pool, Workload workload, Map<Workload.Flow, Integer> mix,
+                       double rate, boolean poisson, int seconds) {
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        double meanGapNanos = 1e9 / rate;
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long next = System.nanoTime();
+        long scheduled = 0;
+
+        while (next < end) {
+            long now = System.nanoTime();
+            if (next > now) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            Workload.Flow flow = pick(mix, totalWeight);
+            long arrival = next;
+            pool.execute(() -> workload.run(flow, arrival));
+            scheduled++;
+
+            double gap = poisson
+                    ? -Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos
+                    : meanGapNanos;
+            next += (long) gap;
+        }
+        return scheduled;
+    }
+
+    private Workload.Flow pick(Map<Workload.Flow, Integer> mix, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Workload.Flow, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        return Workload.Flow.BROWSE;
+    }
+
+    private void print(Map<String, EndpointStats.Result> results, long scheduled, double elapsed) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%n%d flows scheduled in %.1f s, %d measured%n",
+                scheduled, elapsed, flowsMeasured(results)));
+        out.append(String.format("%-28s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        results.forEach((endpoint, r) -> out.append(String.format(
+                "%-28s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, r.count(), r.errors(), r.throughput(), r.p50(), r.p90(), r.p99(), r.p999(), r.max())));
+        System.out.println(out);
+    }
+
+    // Each flow records one "flow ..." entry, on top of its requests
+    private static long flowsMeasured(Map<String, EndpointStats.Result> results) {
+        return results.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith("flow "))
+                .mapToLong(entry -> entry.getValue().count())
+                .sum();
+    }
+
+    private void write(String resultFile, double rate, boolean poisson, int durationSeconds, double elapsed,
+                       long scheduled, Map<Workload.Flow, Integer> mix,
+                       Map<String, EndpointStats.Result> results) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("arrivalRate", rate);
+        report.put("arrival", poisson ? "poisson" : "constant");
+        report.put("durationSeconds", durationSeconds);
+        report.put("elapsedSeconds", elapsed);
+        report.put("flowsScheduled", scheduled);
+        report.put("flowsMeasured", flowsMeasured(results));
+        report.put("mix", mix);
+        report.put("endpoints", results);
+
+        File file = new File(resultFile);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build().writeValue(file, report);
+        log.info("Load test result written to {}", file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,141 @@
+package com.codewithluci.ecommerce.loadtest;
+
+import com.codewithluci.ecommerce.EcommerceApplication;
+import com.codewithluci.ecommerce.cache.CatalogReadCache;
+import com.codewithluci.ecommerce.cache.ProductSnapshotStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restart-to-warm time with and without the product snapshot: how long a
+ * restarted instance takes to start and then have every product in
+ * CatalogReadCache.
+ *
+ * A first context seeds the catalog, writes the snapshot and is closed.
+ * The database is a file-backed H2 one (the in-memory one is shut down with
+ * the context), so like a real database it outlives the restarts. Cold
+ * (snapshot disabled) and snapshot restarts then alternate for a few rounds,
+ * so neither side gets all of the JVM's warm-up.
+ *
+ * H2 runs in-process, so every read skips the network round trip a real
+ * database costs; the cold numbers are a lower bound.
+ */
+@Slf4j
+public class SnapshotRestartBenchmark {
+
+    private static final Path DATABASE = Path.of("target", "snapshot-benchmark-db");
+
+    private record Round(String mode, long startMillis, long warmMillis, double snapshotHits) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Only the restarts are timed; warm-up would race the reads being measured
+        System.setProperty("warmup.enabled", "false");
+        // One instance and nothing in flight: no overlap needed, and the whole
+        // seeded catalog is older than the watermark
+        System.setProperty("catalog.snapshot.watermark-overlap-ms", "0");
+        System.setProperty("catalog.snapshot.write-interval-ms", "3600000");
+        Files.deleteIfExists(Path.of(DATABASE + ".mv.db"));
+        System.setProperty("spring.datasource.url", "jdbc:h2:file:./" + DATABASE
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE");
+
+        ConfigurableApplicationContext context = start(true, args);
+        Environment env = context.getEnvironment();
+        int categories = env.getProperty("loadtest.seed.categories", Integer.class, 20);
+        int products = env.getProperty("loadtest.seed.products", Integer.class, 5000);
+        int users = env.getProperty("loadtest.seed.users", Integer.class, 1000);
+        int rounds = env.getProperty("loadtest.snapshot.rounds", Integer.class, 3);
+        String resultFile = env.getProperty("loadtest.snapshot.result-file", "target/snapshot-restart-result.json");
+        Path snapshotFile = Path.of(env.getRequiredProperty("catalog.snapshot.path"));
+
+        List<Long> productIds;
+        try {
+            productIds = new CatalogSeeder(context).seed(categories, products, users);
+            context.getBean(ProductSnapshotStore.class).write();
+        } finally {
+            context.close();
+        }
+        long snapshotBytes = Files.size(snapshotFile);
+
+        List<Round> results = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            results.add(restart(false, productIds, args));
+            results.add(restart(true, productIds, args));
+        }
+
+        print(results, productIds.size(), snapshotBytes);
+        write(resultFile, results, productIds.size(), snapshotBytes);
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext start(boolean snapshot, String[] args) {
+        System.setProperty("catalog.snapshot.enabled", String.valueOf(snapshot));
+        return new SpringApplicationBuilder(EcommerceApplication.class)
+                .profiles("loadtest")
+                .run(args);
+    }
+
+    private static Round restart(boolean snapshot, List<Long> productIds, String[] args) {
+        long start = System.nanoTime();
+        ConfigurableApplicationContext context = start(snapshot, args);
+        try {
+            long started = System.nanoTime();
+            CatalogReadCache cache = context.getBean(CatalogReadCache.class);
+            for (Long id : productIds) {
+                cache.getProduct(id);
+            }
+            long warm = System.nanoTime();
+
+            double hits = context.getBean(MeterRegistry.class)
+                    .get("catalog.snapshot.lookups").tag("result", "hit").counter().count();
+            return new Round(snapshot ? "snapshot" : "cold",
+                    TimeUnit.NANOSECONDS.toMillis(started - start),
+                    TimeUnit.NANOSECONDS.toMillis(warm - started),
+                    hits);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void print(List<Round> results, int products, long snapshotBytes) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%n%d products, snapshot file %d KB%n", products, snapshotBytes / 1024));
+        out.append(String.format("%-6s %-9s %10s %10s %10s %14s%n",
+                "round", "mode", "start ms", "warm ms", "total ms", "snapshot hits"));
+        for (int i = 0; i < results.size(); i++) {
+            Round r = results.get(i);
+            out.append(String.format("%-6d %-9s %10d %10d %10d %14.0f%n", i / 2 + 1, r.mode(),
+                    r.startMillis(), r.warmMillis(), r.startMillis() + r.warmMillis(), r.snapshotHits()));
+        }
+        System.out.println(out);
+    }
+
+    private static void write(String resultFile, List<Round> results, int products, long snapshotBytes) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("products", products);
+        report.put("snapshotBytes", snapshotBytes);
+        report.put("rounds", results);
+
+        File file = new File(resultFile);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build().writeValue(file, report);
+        log.info("Snapshot restart benchmark result written to {}", file.getAbsolutePath());
+    }
+}
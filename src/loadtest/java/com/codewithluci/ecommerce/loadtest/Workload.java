@@ -0,0 +1,164 @@
+package com.codewithluci.ecommerce.loadtest;
+
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * The user journeys driven by the harness. Requests go through MockMvc, so the
+ * full filter chain (JWT filter, Spring Security) runs with no sockets.
+ *
+ * The first request of a flow is timed from the flow's scheduled arrival, not
+ * from when a worker picked it up, so queueing inside the harness shows up in
+ * the percentiles instead of being hidden (no coordinated omission).
+ */
+class Workload {
+
+    enum Flow {
+        BROWSE, CHECKOUT, REGISTER
+    }
+
+    private static final AtomicLong REGISTERED = new AtomicLong();
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+    private final EndpointStats stats;
+    private final List<Long> productIds;
+    private final int users;
+    private final int pageSize;
+
+    Workload(MockMvc mockMvc, ObjectMapper objectMapper, EndpointStats stats,
+             List<Long> productIds, int users, int pageSize) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+        this.stats = stats;
+        this.productIds = productIds;
+        this.users = users;
+        this.pageSize = pageSize;
+    }
+
+    void run(Flow flow, long scheduledNanos) {
+        Session session = new Session(scheduledNanos);
+        boolean ok;
+        try {
+            ok = switch (flow) {
+                case BROWSE -> browse(session);
+                case CHECKOUT -> checkout(session);
+                case REGISTER -> register(session);
+            };
+        } catch (Exception e) {
+            ok = false;
+        }
+        stats.record("flow " + flow.name().toLowerCase(), scheduledNanos, System.nanoTime() - scheduledNanos, ok);
+    }
+
+    // Anonymous catalog traffic: a listing page, a product, the category list
+    private boolean browse(Session session) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int pages = Math.max(1, productIds.size() / pageSize);
+        return session.call("GET /api/products",
+                        get("/api/products").param("page", String.valueOf(random.nextInt(Math.min(pages, 20))))
+                                .param("size", String.valueOf(pageSize))) != null
+                && session.call("GET /api/products/{id}", get("/api/products/{id}", randomProduct())) != null
+                && session.call("GET /api/categories", get("/api/categories")) != null;
+    }
+
+    // login -> view product -> create order -> pay, as an existing user
+    private boolean checkout(Session session) throws Exception {
+        String username = CatalogSeeder.USER_PREFIX + ThreadLocalRandom.current().nextInt(users);
+        String token = login(session, username);
+        if (token == null) {
+            return false;
+        }
+
+        Long productId = randomProduct();
+        if (session.call("GET /api/products/{id}", get("/api/products/{id}", productId)) == null) {
+            return false;
+        }
+
+        MvcResult order = session.call("POST /api/orders", post("/api/orders")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of(
+                        "items", List.of(
+                                Map.of("productId", productId, "quantity", 1),
+                                Map.of("productId", randomProduct(), "quantity", 2)),
+                        "shippingAddress", "221B Baker Street, London NW1 6XE"))));
+        if (order == null) {
+            return false;
+        }
+
+        long orderId = data(order).get("id").asLong();
+        return session.call("POST /api/payments", post("/api/payments")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("orderId", orderId, "paymentMethod", "CASH_ON_DELIVERY")))) != null;
+    }
+
+    // New account, then its first login
+    private boolean register(Session session) throws Exception {
+        String username = "lt_new_" + REGISTERED.incrementAndGet() + "_" + Long.toString(System.nanoTime(), 36);
+        MvcResult registered = session.call("POST /api/auth/register", post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of(
+                        "username", username,
+                        "email", username + "@example.com",
+                        "password", CatalogSeeder.PASSWORD,
+                        "fullName", "Load Test Signup"))));
+        return registered != null && login(session, username) != null;
+    }
+
+    private String login(Session session, String username) throws Exception {
+        MvcResult result = session.call("POST /api/auth/login", post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("usernameOrEmail", username, "password", CatalogSeeder.PASSWORD))));
+        return result == null ? null : data(result).get("token").asString();
+    }
+
+    private Long randomProduct() {
+        return productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+    }
+
+    private String json(Object body) {
+        return objectMapper.writeValueAsString(body);
+    }
+
+    private JsonNode data(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray()).get("data");
+    }
+
+    private class Session {
+
+        private final long arrival;
+        private long nextStart;
+
+        Session(long scheduledNanos) {
+            this.arrival = scheduledNanos;
+            this.nextStart = scheduledNanos;
+        }
+
+        /**
+         * @return the result, or null when the endpoint did not answer 2xx
+         */
+        MvcResult call(String endpoint, MockHttpServletRequestBuilder request) throws Exception {
+            MvcResult result = mockMvc.perform(request).andReturn();
+            long end = System.nanoTime();
+            int status = result.getResponse().getStatus();
+            boolean ok = status >= 200 && status < 300;
+            stats.record(endpoint, arrival, end - nextStart, ok);
+            nextStart = end;
+            return ok ? result : null;
+        }
+    }
+}
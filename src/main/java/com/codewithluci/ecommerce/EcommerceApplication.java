@@ -3,9 +3,11 @@ package com.codewithluci.ecommerce;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaAuditing  // ← Enable audit fields
+@EnableScheduling   // background jobs (token revocation sync, ...)
 public class EcommerceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,172 @@
+package com.codewithluci.ecommerce.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded share of the request threads and of the connection pool for one
+ * class of routes (see BulkheadFilter).
+ *
+ * Up to maxConcurrent requests run at once. Up to maxQueued more wait, each
+ * for at most maxWaitMillis; anything beyond that is rejected. The running
+ * requests hold at most maxConnections pool connections between them
+ * (0 = no cap of their own), enforced by BulkheadDataSource.
+ */
+final class Bulkhead {
+
+    private static final ThreadLocal<Bulkhead> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitMillis;
+    private final int maxConnections;
+    private final long connectionWaitMillis;
+
+    private final Semaphore permits;
+    private final Semaphore connections;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Counter queueFull;
+    private final Counter timedOut;
+    private final Counter connectionTimeouts;
+    private final Timer waits;
+
+    Bulkhead(String name, int maxConcurrent, int maxQueued, long maxWaitMillis,
+             int maxConnections, long connectionWaitMillis, MeterRegistry registry) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitMillis = maxWaitMillis;
+        this.maxConnections = maxConnections;
+        this.connectionWaitMillis = connectionWaitMillis;
+        // Fair, so queued requests get in in arrival order
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.connections = new Semaphore(Math.max(maxConnections, 0), true);
+
+        this.queueFull = rejection(registry, "queue-full");
+        this.timedOut = rejection(registry, "timeout");
+        this.connectionTimeouts = Counter.builder("bulkhead.connections.rejections")
+                .description("Connection requests that found the bulkhead's pool partition full")
+                .tag("bulkhead", name)
+                .register(registry);
+        this.waits = Timer.builder("bulkhead.wait")
+                .description("Time queued requests waited to enter the bulkhead")
+                .tag("bulkhead", name)
+                .register(registry);
+        Gauge.builder("bulkhead.active", this, Bulkhead::getActive)
+                .description("Requests running in the bulkhead")
+                .tag("bulkhead", name)
+                .register(registry);
+        Gauge.builder("bulkhead.queued", queued, AtomicInteger::get)
+                .description("Requests waiting to enter the bulkhead")
+                .tag("bulkhead", name)
+                .register(registry);
+        Gauge.builder("bulkhead.saturation", this, b -> (double) b.getActive() / b.maxConcurrent)
+                .description("Share of the bulkhead's concurrency in use")
+                .tag("bulkhead", name)
+                .register(registry);
+        if (maxConnections > 0) {
+            Gauge.builder("bulkhead.connections.active", this, Bulkhead::getActiveConnections)
+                    .description("Pool connections held by the bulkhead's requests")
+                    .tag("bulkhead", name)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * The bulkhead the current thread's request runs in, null outside one.
+     */
+    static Bulkhead current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Takes a slot, waiting in the queue if there is room there. False when
+     * the request is rejected; otherwise exit() must follow.
+     */
+    boolean tryEnter() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return enter();
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            queueFull.increment();
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            if (permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                waits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return enter();
+            }
+            timedOut.increment();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    void exit() {
+        CURRENT.remove();
+        permits.release();
+    }
+
+    private boolean enter() {
+        CURRENT.set(this);
+        return true;
+    }
+
+    boolean limitsConnections() {
+        return maxConnections > 0;
+    }
+
+    void acquireConnection() throws SQLException {
+        try {
+            if (connections.tryAcquire(connectionWaitMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        connectionTimeouts.increment();
+        throw new SQLTransientConnectionException("Bulkhead " + name + " has all " + maxConnections
+                + " of its connections in use after waiting " + connectionWaitMillis + " ms");
+    }
+
+    void releaseConnection() {
+        connections.release();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    int getQueued() {
+        return queued.get();
+    }
+
+    int getActiveConnections() {
+        return maxConnections - connections.availablePermits();
+    }
+
+    private Counter rejection(MeterRegistry registry, String reason) {
+        return Counter.builder("bulkhead.rejections")
+                .description("Requests turned away by a full bulkhead")
+                .tag("bulkhead", name)
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,93 @@
+package com.codewithluci.ecommerce.bulkhead;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Partitions the connection pool between bulkheads: the requests running in
+ * a bulkhead with max-connections set hold at most that many connections
+ * between them. A connection request over the cap waits up to
+ * bulkhead.connection-wait-ms for one of the bulkhead's connections to be
+ * closed, then fails with SQLTransientConnectionException, the way the pool
+ * itself does when it runs dry.
+ *
+ * The caps are taken out of the one pool rather than splitting it into
+ * several pools, so connections a bulkhead isn't using stay available to
+ * checkout, which is uncapped. Keep the sum of the caps below the pool size
+ * so checkout always has some left.
+ *
+ * Work outside a request (startup, schedulers, the outbox relay) is not in
+ * a bulkhead and goes straight to the pool.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+
+    public BulkheadDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Bulkhead bulkhead = Bulkhead.current();
+        if (bulkhead == null || !bulkhead.limitsConnections()) {
+            return super.getConnection();
+        }
+        bulkhead.acquireConnection();
+        try {
+            return partitioned(super.getConnection(), bulkhead);
+        } catch (SQLException | RuntimeException e) {
+            bulkhead.releaseConnection();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Bulkhead bulkhead = Bulkhead.current();
+        if (bulkhead == null || !bulkhead.limitsConnections()) {
+            return super.getConnection(username, password);
+        }
+        bulkhead.acquireConnection();
+        try {
+            return partitioned(super.getConnection(username, password), bulkhead);
+        } catch (SQLException | RuntimeException e) {
+            bulkhead.releaseConnection();
+            throw e;
+        }
+    }
+
+    // Gives the connection's permit back on the first close()
+    private static Connection partitioned(Connection target, Bulkhead bulkhead) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(BulkheadDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "close" -> {
+                        try {
+                            yield invoke(target, method, args);
+                        } finally {
+                            if (closed.compareAndSet(false, true)) {
+                                bulkhead.releaseConnection();
+                            }
+                        }
+                    }
+                    default -> invoke(target, method, args);
+                });
+    }
+
+    private static Object invoke(Connection target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.codewithluci.ecommerce.bulkhead;
+
+import com.codewithluci.ecommerce.web.ErrorResponses;
+import com.codewithluci.ecommerce.web.RouteClass;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Runs each class of routes in its own bulkhead, so a burst of one class
+ * (a few admin exports with huge page sizes, a login storm) can only use up
+ * its own share of the request threads and connection pool, never
+ * checkout's.
+ *
+ * Routes are classed by RouteClass, into admin, checkout, browse and auth
+ * bulkheads. Anything else (actuator, cart, account pages) runs outside the
+ * bulkheads.
+ *
+ * Limits are bulkhead.{name}.max-concurrent, max-queued, max-wait-ms and
+ * max-connections, with the defaults in Route. Queued requests hold their
+ * Tomcat worker thread while they wait, so the classes are only apart if
+ * admin, browse and auth (running + queued) leave checkout
+ * bulkhead.checkout.reserved-threads of server.tomcat.threads.max; startup
+ * warns when they don't. A full bulkhead answers 503
+ * with Retry-After, like ConcurrencyLimitFilter, which runs just before this
+ * and sheds on overall latency; this one keeps the classes apart.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 6)
+@Slf4j
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    enum Route {
+        // Outside checkout, running + queued add up to 140 of Tomcat's 200 threads
+        ADMIN(4, 4, 1000, 2),
+        CHECKOUT(100, 50, 500, 0),
+        BROWSE(70, 30, 200, 4),
+        AUTH(16, 16, 500, 2);
+
+        private final int maxConcurrent;
+        private final int maxQueued;
+        private final long maxWaitMillis;
+        private final int maxConnections;
+
+        Route(int maxConcurrent, int maxQueued, long maxWaitMillis, int maxConnections) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+            this.maxWaitMillis = maxWaitMillis;
+            this.maxConnections = maxConnections;
+        }
+
+        String property(String key) {
+            return "bulkhead." + name().toLowerCase() + "." + key;
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<Route, Bulkhead> bulkheads = new EnumMap<>(Route.class);
+    // Worker threads the other bulkheads can never take
+    private final int checkoutThreads;
+
+    public BulkheadFilter(
+            MeterRegistry registry,
+            Environment environment,
+            @Value("${bulkhead.enabled:true}") boolean enabled,
+            @Value("${bulkhead.connection-wait-ms:1000}") long connectionWaitMillis) {
+        this.enabled = enabled;
+        int otherThreads = 0;
+        for (Route route : Route.values()) {
+            int maxConcurrent = environment.getProperty(route.property("max-concurrent"), Integer.class,
+                    route.maxConcurrent);
+            int maxQueued = environment.getProperty(route.property("max-queued"), Integer.class, route.maxQueued);
+            bulkheads.put(route, new Bulkhead(route.name().toLowerCase(),
+                    maxConcurrent,
+                    maxQueued,
+                    environment.getProperty(route.property("max-wait-ms"), Long.class, route.maxWaitMillis),
+                    environment.getProperty(route.property("max-connections"), Integer.class, route.maxConnections),
+                    connectionWaitMillis,
+                    registry));
+            if (route != Route.CHECKOUT) {
+                otherThreads += maxConcurrent + maxQueued;
+            }
+        }
+
+        int workerThreads = environment.getProperty("server.tomcat.threads.max", Integer.class, 200);
+        int reservedThreads = environment.getProperty(Route.CHECKOUT.property("reserved-threads"), Integer.class, 50);
+        this.checkoutThreads = workerThreads - otherThreads;
+        if (enabled && checkoutThreads < reservedThreads) {
+            log.warn("Admin, browse and auth bulkheads may hold {} of {} worker threads, leaving checkout {} " +
+                            "(bulkhead.checkout.reserved-threads={}); lower their max-concurrent/max-queued " +
+                            "or raise server.tomcat.threads.max",
+                    otherThreads, workerThreads, Math.max(0, checkoutThreads), reservedThreads);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || classify(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        Bulkhead bulkhead = bulkheads.get(classify(request));
+        boolean entered;
+        try {
+            entered = bulkhead.tryEnter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        if (!entered) {
+            log.debug("Bulkhead {} full, rejected {} {} ({} running, {} queued)", bulkhead.getName(),
+                    request.getMethod(), request.getRequestURI(), bulkhead.getActive(), bulkhead.getQueued());
+            ErrorResponses.write(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Server is busy, try again shortly", 1);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.exit();
+        }
+    }
+
+    static Route classify(HttpServletRequest request) {
+        return switch (RouteClass.of(request)) {
+            case ADMIN -> Route.ADMIN;
+            case CHECKOUT -> Route.CHECKOUT;
+            case BROWSE -> Route.BROWSE;
+            case AUTH -> Route.AUTH;
+            default -> null;
+        };
+    }
+
+    Bulkhead bulkhead(Route route) {
+        return bulkheads.get(route);
+    }
+
+    int checkoutThreads() {
+        return checkoutThreads;
+    }
+}
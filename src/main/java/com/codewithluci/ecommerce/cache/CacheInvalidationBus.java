@@ -0,0 +1,128 @@
+package com.codewithluci.ecommerce.cache;
+
+import com.codewithluci.ecommerce.entity.Category;
+import com.codewithluci.ecommerce.entity.Product;
+import com.codewithluci.ecommerce.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Applies committed entity changes to this instance's caches and forwards
+ * them to the other instances through the InvalidationTransport.
+ *
+ * Local changes only need the read cache dropped: Hibernate already keeps
+ * this instance's second-level cache current. Changes received from other
+ * instances evict the second-level cache first, then the read cache, so a
+ * read-cache reload can't pick the old row up from the second-level cache.
+ *
+ * Without a transport (cache.invalidation.transport=none) caches on other
+ * instances catch up through their TTLs, as before.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus {
+
+    private static final String CATEGORY_QUERIES = "category-queries";
+
+    private final CatalogReadCache catalogReadCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final InvalidationTransport transport;
+    private final boolean secondLevelCacheEnabled;
+
+    private final Counter published;
+    private final Counter received;
+
+    public CacheInvalidationBus(
+            CatalogReadCache catalogReadCache,
+            EntityManagerFactory entityManagerFactory,
+            ObjectProvider<InvalidationTransport> transport,
+            MeterRegistry registry,
+            @Value("${cache.l2.enabled:true}") boolean secondLevelCacheEnabled) {
+        this.catalogReadCache = catalogReadCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transport = transport.getIfAvailable();
+        this.secondLevelCacheEnabled = secondLevelCacheEnabled;
+
+        this.published = events(registry, "published");
+        this.received = events(registry, "received");
+        if (this.transport != null) {
+            this.transport.subscribe(this::onRemote);
+        }
+    }
+
+    /**
+     * Changes committed by this instance
+     */
+    public void publish(List<InvalidationEvent> events) {
+        events.forEach(this::evictReadCache);
+        if (transport != null) {
+            transport.publish(events);
+            published.increment(events.size());
+        }
+    }
+
+    void onRemote(List<InvalidationEvent> events) {
+        received.increment(events.size());
+        log.debug("Applying {} cache invalidations from other instances", events.size());
+        for (InvalidationEvent event : events) {
+            evictSecondLevel(event);
+            evictReadCache(event);
+        }
+    }
+
+    private void evictReadCache(InvalidationEvent event) {
+        switch (event.type()) {
+            case PRODUCT -> {
+                if (event.id() == null) {
+                    catalogReadCache.allProductsChanged();
+                } else {
+                    catalogReadCache.productChanged(event.id());
+                }
+            }
+            // Category entries include product counts, they're always dropped together
+            case CATEGORY -> catalogReadCache.categoriesChanged();
+            case USER -> { }
+        }
+    }
+
+    private void evictSecondLevel(InvalidationEvent event) {
+        if (!secondLevelCacheEnabled) {
+            return;
+        }
+        org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+        Class<?> entity = switch (event.type()) {
+            case PRODUCT -> Product.class;
+            case CATEGORY -> Category.class;
+            case USER -> User.class;
+        };
+        if (event.id() == null) {
+            cache.evictEntityData(entity);
+        } else {
+            cache.evictEntityData(entity, event.id());
+        }
+        // Cached query results and natural ids can point at the old row; the
+        // update timestamps that would expire them only track this instance's writes
+        switch (event.type()) {
+            case CATEGORY -> cache.evictQueryRegion(CATEGORY_QUERIES);
+            case USER -> {
+                cache.evictNaturalIdData(User.class);
+                cache.evictDefaultQueryRegion();
+            }
+            case PRODUCT -> { }
+        }
+    }
+
+    private static Counter events(MeterRegistry registry, String direction) {
+        return Counter.builder("cache.invalidation.events")
+                .description("Cache invalidations sent to or applied from other instances")
+                .tag("direction", direction)
+                .register(registry);
+    }
+}
@@ -0,0 +1,147 @@
+package com.codewithluci.ecommerce.cache;
+
+import com.codewithluci.ecommerce.entity.CachedEntityType;
+import com.codewithluci.ecommerce.entity.Category;
+import com.codewithluci.ecommerce.entity.Product;
+import com.codewithluci.ecommerce.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes product, category and user changes to the CacheInvalidationBus
+ * once they have committed. Invalidating earlier would let a concurrent
+ * reader reload and cache the old row.
+ *
+ * Entity writes (any service, including stock changes through dirty checking)
+ * arrive as Hibernate post-commit events. Bulk @Modifying queries bypass
+ * those, so like Hibernate's own second-level cache they drop everything.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationBus bus;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getEventListenerRegistry();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+        return type == Product.class || type == Category.class || type == User.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        // A new product changes its category's product count
+        changed(event.getEntity(), true);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        String relatedProperty = event.getEntity() instanceof Product ? "category" : "name";
+        changed(event.getEntity(), isDirty(event, relatedProperty));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getEntity(), true);
+    }
+
+    // Nothing was committed, so nothing to drop
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @AfterReturning("@annotation(org.springframework.data.jpa.repository.Modifying) && " +
+            "(target(com.codewithluci.ecommerce.repository.ProductRepository) || " +
+            "target(com.codewithluci.ecommerce.repository.CategoryRepository))")
+    public void afterBulkUpdate() {
+        Runnable dropAll = () -> bus.publish(List.of(
+                InvalidationEvent.all(CachedEntityType.PRODUCT),
+                InvalidationEvent.all(CachedEntityType.CATEGORY)));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dropAll.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dropAll.run();
+            }
+        });
+    }
+
+    /**
+     * related: the change also shows up in the other entity's responses
+     * (a product's category affects product counts, a category's name is in
+     * every ProductResponse). Users have no related entity.
+     */
+    private void changed(Object entity, boolean related) {
+        List<InvalidationEvent> events = new ArrayList<>(2);
+        if (entity instanceof Product product) {
+            events.add(InvalidationEvent.of(CachedEntityType.PRODUCT, product.getId()));
+            if (related) {
+                events.add(InvalidationEvent.all(CachedEntityType.CATEGORY));
+            }
+        } else if (entity instanceof Category category) {
+            events.add(InvalidationEvent.of(CachedEntityType.CATEGORY, category.getId()));
+            if (related) {
+                events.add(InvalidationEvent.all(CachedEntityType.PRODUCT));
+            }
+        } else if (entity instanceof User user) {
+            events.add(InvalidationEvent.of(CachedEntityType.USER, user.getId()));
+        }
+        bus.publish(events);
+    }
+
+    private static boolean isDirty(PostUpdateEvent event, String property) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return true;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int index : dirty) {
+            if (names[index].equals(property)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,136 @@
+package com.codewithluci.ecommerce.cache;
+
+import com.codewithluci.ecommerce.dto.respone.CategoryResponse;
+import com.codewithluci.ecommerce.dto.respone.ProductResponse;
+import com.codewithluci.ecommerce.service.CategoryService;
+import com.codewithluci.ecommerce.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalescing cache in front of the public product and category reads, so a
+ * burst of requests for a key that just expired or was invalidated runs one
+ * query instead of one per request.
+ *
+ * Sits in front of the services rather than inside them: a hit doesn't open
+ * a transaction or touch the pool. Entries are invalidated after commit
+ * through the CacheInvalidationBus, for writes made on other instances too.
+ *
+ * Product misses try the ProductSnapshotStore before the database.
+ *
+ * version() changes with every invalidation, so caches of output rendered
+ * from catalog data (PageCacheFilter, FragmentCacheDialect) can key on it
+ * instead of tracking what each entry was built from.
+ */
+@Component
+public class CatalogReadCache {
+
+    private static final String ACTIVE_CATEGORIES = "active";
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final ProductSnapshotStore snapshotStore;
+    private final boolean enabled;
+    private final ExecutorService refreshExecutor;
+    private final AtomicLong version = new AtomicLong();
+
+    private final CoalescingCache<Long, ProductResponse> products;
+    // Keyed "id:<id>" plus ACTIVE_CATEGORIES; product counts make them all depend on products
+    private final CoalescingCache<String, Object> categories;
+
+    public CatalogReadCache(
+            ProductService productService,
+            CategoryService categoryService,
+            ProductSnapshotStore snapshotStore,
+            MeterRegistry registry,
+            @Value("${catalog.cache.enabled:true}") boolean enabled,
+            @Value("${catalog.cache.ttl-ms:30000}") long ttlMillis,
+            @Value("${catalog.cache.stale-ms:30000}") long staleMillis,
+            @Value("${catalog.cache.early-refresh-beta:1.0}") double beta,
+            @Value("${catalog.cache.max-entries:10000}") int maxEntries,
+            @Value("${catalog.cache.refresh-threads:2}") int refreshThreads) {
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.snapshotStore = snapshotStore;
+        this.enabled = enabled;
+
+        AtomicInteger threads = new AtomicInteger();
+        // Unbounded queue, but at most one refresh per key is ever queued
+        this.refreshExecutor = Executors.newFixedThreadPool(refreshThreads, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-refresh-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.products = new CoalescingCache<>("products", ttlMillis, staleMillis, beta, maxEntries,
+                refreshExecutor, registry);
+        this.categories = new CoalescingCache<>("categories", ttlMillis, staleMillis, beta, maxEntries,
+                refreshExecutor, registry);
+    }
+
+    public ProductResponse getProduct(Long id) {
+        if (!enabled) {
+            return productService.getProductById(id);
+        }
+        return products.get(id, this::loadProduct);
+    }
+
+    public CategoryResponse getCategory(Long id) {
+        if (!enabled) {
+            return categoryService.getCategoryById(id);
+        }
+        return (CategoryResponse) categories.get("id:" + id, key -> categoryService.getCategoryById(id));
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<CategoryResponse> getActiveCategories() {
+        if (!enabled) {
+            return categoryService.getAllActiveCategories();
+        }
+        return (List<CategoryResponse>) categories.get(ACTIVE_CATEGORIES,
+                key -> categoryService.getAllActiveCategories());
+    }
+
+    /**
+     * Catalog data version: bumped whenever a product or category change is
+     * invalidated here, on this instance or received from another
+     */
+    public long version() {
+        return version.get();
+    }
+
+    // Snapshot first, so a reload can't pick the old record up from it
+    public void productChanged(Long id) {
+        snapshotStore.productChanged(id);
+        products.invalidate(id);
+        version.incrementAndGet();
+    }
+
+    public void allProductsChanged() {
+        snapshotStore.allProductsChanged();
+        products.invalidateAll();
+        version.incrementAndGet();
+    }
+
+    public void categoriesChanged() {
+        categories.invalidateAll();
+        version.incrementAndGet();
+    }
+
+    private ProductResponse loadProduct(Long id) {
+        ProductResponse product = snapshotStore.find(id);
+        return product != null ? product : productService.getProductById(id);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
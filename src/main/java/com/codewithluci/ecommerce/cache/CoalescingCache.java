@@ -0,0 +1,247 @@
+package com.codewithluci.ecommerce.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache where each key has at most one load in flight.
+ *
+ * On a miss the first caller runs the loader on its own thread; callers that
+ * arrive while it runs wait for its result instead of issuing the same query.
+ * A failed load is not cached, every waiter gets the exception.
+ *
+ * Entries are fresh for ttl, then served stale for up to staleTtl more while
+ * one background refresh runs. Shortly before ttl a hit may also start that
+ * refresh early, with a probability that rises towards expiry and with the
+ * entry's load time (probabilistic early expiration, beta scales it), so hot
+ * keys are usually reloaded before anyone sees them expire.
+ *
+ * invalidate drops the entry and detaches any load in flight, whose result is
+ * then returned to its waiters but not stored; the next caller loads anew.
+ */
+@Slf4j
+public class CoalescingCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final double beta;
+    private final int maxEntries;
+    private final Executor refreshExecutor;
+    private final LongSupplier clock;
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter earlyRefreshes;
+    private final Counter staleRefreshes;
+    private final Timer coalescedWait;
+
+    public CoalescingCache(String name, long ttlMillis, long staleMillis, double beta, int maxEntries,
+                           Executor refreshExecutor, MeterRegistry registry) {
+        this(name, ttlMillis, staleMillis, beta, maxEntries, refreshExecutor, registry, System::nanoTime);
+    }
+
+    CoalescingCache(String name, long ttlMillis, long staleMillis, double beta, int maxEntries,
+                    Executor refreshExecutor, MeterRegistry registry, LongSupplier clock) {
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.staleNanos = staleMillis * 1_000_000L;
+        this.beta = beta;
+        this.maxEntries = maxEntries;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+
+        this.hits = requests(registry, name, "hit");
+        this.staleHits = requests(registry, name, "stale");
+        this.misses = requests(registry, name, "miss");
+        this.coalesced = requests(registry, name, "coalesced");
+        this.earlyRefreshes = refreshes(registry, name, "early");
+        this.staleRefreshes = refreshes(registry, name, "stale");
+        this.coalescedWait = Timer.builder("read.cache.coalesced.wait")
+                .description("Time callers waited on another caller's load")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("read.cache.size", entries, Map::size)
+                .description("Entries held by the read cache")
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long now = clock.getAsLong();
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            if (now < entry.freshUntil) {
+                entry.used = true;
+                hits.increment();
+                if (expiresEarly(entry, now)) {
+                    refresh(key, loader, earlyRefreshes);
+                }
+                return entry.value;
+            }
+            if (now < entry.freshUntil + staleNanos) {
+                entry.used = true;
+                staleHits.increment();
+                refresh(key, loader, staleRefreshes);
+                return entry.value;
+            }
+        }
+
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            coalesced.increment();
+            return await(inFlight);
+        }
+        misses.increment();
+        return load(key, loader, load);
+    }
+
+    public void invalidate(K key) {
+        entries.compute(key, (k, old) -> {
+            loads.remove(k);
+            return null;
+        });
+    }
+
+    public void invalidateAll() {
+        loads.clear();
+        entries.clear();
+    }
+
+    // now - delta * beta * ln(random) >= expiry, with delta the last load time
+    private boolean expiresEarly(Entry<V> entry, long now) {
+        double headStart = -entry.loadNanos * beta * Math.log(ThreadLocalRandom.current().nextDouble());
+        return now + headStart >= entry.freshUntil;
+    }
+
+    private void refresh(K key, Function<? super K, ? extends V> loader, Counter reason) {
+        CompletableFuture<V> load = new CompletableFuture<>();
+        if (loads.putIfAbsent(key, load) != null) {
+            return;
+        }
+        reason.increment();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, loader, load);
+                } catch (RuntimeException e) {
+                    // Keep serving the stale entry; the next stale hit retries
+                    log.debug("Background refresh of {} failed: {}", key, e.toString());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loads.remove(key, load);
+            load.completeExceptionally(e);
+        }
+    }
+
+    private V load(K key, Function<? super K, ? extends V> loader, CompletableFuture<V> load) {
+        V value;
+        long start = clock.getAsLong();
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            loads.remove(key, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+        long now = clock.getAsLong();
+
+        boolean room = entries.containsKey(key) || makeRoom();
+        // Stored only if no invalidate detached this load meanwhile
+        entries.compute(key, (k, old) -> {
+            if (!loads.remove(k, load) || (old == null && !room)) {
+                return old;
+            }
+            return new Entry<>(value, now + ttlNanos, now - start);
+        });
+        load.complete(value);
+        return value;
+    }
+
+    private V await(CompletableFuture<V> load) {
+        long start = System.nanoTime();
+        try {
+            return load.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } finally {
+            coalescedWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Same sweep as SerializedResponseCache: entries not hit since the last one go
+    private boolean makeRoom() {
+        if (entries.size() < maxEntries) {
+            return true;
+        }
+        entries.values().removeIf(entry -> {
+            boolean cold = !entry.used;
+            entry.used = false;
+            return cold;
+        });
+        return entries.size() < maxEntries;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new CompletionException(cause);
+    }
+
+    private static Counter requests(MeterRegistry registry, String name, String result) {
+        return Counter.builder("read.cache.requests")
+                .description("Read cache lookups")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Counter refreshes(MeterRegistry registry, String name, String reason) {
+        return Counter.builder("read.cache.refreshes")
+                .description("Background refreshes started by the read cache")
+                .tag("cache", name)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long freshUntil;
+        private final long loadNanos;
+        // Set on hit, cleared by makeRoom
+        private volatile boolean used;
+
+        private Entry(V value, long freshUntil, long loadNanos) {
+            this.value = value;
+            this.freshUntil = freshUntil;
+            this.loadNanos = loadNanos;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.codewithluci.ecommerce.cache;
+
+import com.codewithluci.ecommerce.entity.CacheInvalidation;
+import com.codewithluci.ecommerce.repository.CacheInvalidationRepository;
+import com.codewithluci.ecommerce.scheduling.LeaderElection;
+import com.codewithluci.ecommerce.scheduling.LeaderOnly;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Invalidation transport over the cache_invalidations table, the same way
+ * token revocations are shared: every instance writes rows and polls for
+ * rows with a higher id.
+ *
+ * Published events are queued and written in one transaction per flush,
+ * duplicates collapsed. Polls read up to batch-size rows per query.
+ *
+ * Ids are allocated before commit, so a poll can see id 12 while 11 is still
+ * in flight. The cursor stops below such a gap until the missing row shows
+ * up or gap-timeout-ms passes (rolled back or purged); rows above the gap are
+ * delivered once and remembered meanwhile.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.transport", havingValue = "database", matchIfMissing = true)
+@Slf4j
+public class DatabaseInvalidationTransport implements InvalidationTransport {
+
+    private final String origin = UUID.randomUUID().toString();
+    private final Queue<InvalidationEvent> outbox = new ConcurrentLinkedQueue<>();
+
+    private final CacheInvalidationRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaderElection leaderElection;
+    private final int batchSize;
+    private final long gapTimeoutMillis;
+    private final long retentionMillis;
+
+    private volatile Consumer<List<InvalidationEvent>> subscriber = events -> { };
+
+    // Poll state, guarded by this. Every id <= cursor has been handled.
+    private long cursor;
+    private final NavigableSet<Long> deliveredAboveCursor = new TreeSet<>();
+    // Id the cursor is waiting on, and since when
+    private long gapId = -1;
+    private long gapSince;
+
+    public DatabaseInvalidationTransport(
+            CacheInvalidationRepository repository,
+            PlatformTransactionManager transactionManager,
+            LeaderElection leaderElection,
+            @Value("${cache.invalidation.batch-size:500}") int batchSize,
+            @Value("${cache.invalidation.gap-timeout-ms:10000}") long gapTimeoutMillis,
+            @Value("${cache.invalidation.retention-ms:3600000}") long retentionMillis) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaderElection = leaderElection;
+        this.batchSize = batchSize;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.retentionMillis = retentionMillis;
+    }
+
+    @PostConstruct
+    synchronized void start() {
+        cursor = repository.findMaxId();
+        log.info("Cache invalidation transport {} starting after id {}", origin, cursor);
+    }
+
+    @Override
+    public void publish(List<InvalidationEvent> events) {
+        outbox.addAll(events);
+    }
+
+    @Override
+    public void subscribe(Consumer<List<InvalidationEvent>> subscriber) {
+        this.subscriber = subscriber;
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.flush-interval-ms:100}")
+    public void flush() {
+        Set<InvalidationEvent> batch = new LinkedHashSet<>();
+        InvalidationEvent event;
+        while (batch.size() < batchSize && (event = outbox.poll()) != null) {
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<CacheInvalidation> rows = batch.stream()
+                .map(e -> CacheInvalidation.builder()
+                        .entityType(e.type())
+                        .entityId(e.id())
+                        .origin(origin)
+                        .build())
+                .toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.saveAll(rows));
+        } catch (RuntimeException e) {
+            // Other instances fall back to their cache TTLs for these
+            log.warn("Could not publish {} cache invalidations: {}", rows.size(), e.toString());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        List<CacheInvalidation> rows;
+        do {
+            rows = repository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(batchSize));
+            List<InvalidationEvent> received = new ArrayList<>();
+            long highest = cursor;
+            for (CacheInvalidation row : rows) {
+                highest = Math.max(highest, row.getId());
+                if (deliveredAboveCursor.add(row.getId()) && !origin.equals(row.getOrigin())) {
+                    received.add(InvalidationEvent.of(row.getEntityType(), row.getEntityId()));
+                }
+            }
+            if (!received.isEmpty()) {
+                subscriber.accept(received);
+            }
+            long before = cursor;
+            advanceCursor(highest);
+            if (cursor == before) {
+                return;
+            }
+        } while (rows.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.purge-interval-ms:600000}")
+    @LeaderOnly
+    public void purge() {
+        LocalDateTime before = LocalDateTime.now().minusNanos(retentionMillis * 1_000_000);
+        Integer deleted = transactionTemplate.execute(status -> {
+            leaderElection.checkFence();
+            return repository.deleteCreatedBefore(before);
+        });
+        log.debug("Purged {} cache invalidations", deleted);
+    }
+
+    // Caller holds this
+    private void advanceCursor(long highest) {
+        while (cursor < highest) {
+            long next = cursor + 1;
+            if (deliveredAboveCursor.remove(next)) {
+                cursor = next;
+                continue;
+            }
+            long now = System.currentTimeMillis();
+            if (gapId != next) {
+                gapId = next;
+                gapSince = now;
+            }
+            if (now - gapSince < gapTimeoutMillis) {
+                return;
+            }
+            // Gave up on the missing ids: jump to just below the next delivered one
+            cursor = deliveredAboveCursor.first() - 1;
+        }
+    }
+}
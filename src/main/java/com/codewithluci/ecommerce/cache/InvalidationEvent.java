@@ -0,0 +1,18 @@
+package com.codewithluci.ecommerce.cache;
+
+import com.codewithluci.ecommerce.entity.CachedEntityType;
+
+/**
+ * A committed change to a cached entity. id null means every entity of the
+ * type (bulk updates).
+ */
+public record InvalidationEvent(CachedEntityType type, Long id) {
+
+    public static InvalidationEvent of(CachedEntityType type, Long id) {
+        return new InvalidationEvent(type, id);
+    }
+
+    public static InvalidationEvent all(CachedEntityType type) {
+        return new InvalidationEvent(type, null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.codewithluci.ecommerce.cache;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidations between application instances for CacheInvalidationBus.
+ *
+ * DatabaseInvalidationTransport needs nothing beyond the shared database. A
+ * broker-backed transport (Redis pub/sub, Kafka, ...) can replace it: set
+ * cache.invalidation.transport to its name and register it as a bean.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Send this instance's committed changes. Called from transaction
+     * completion, so must not block or use the caller's transaction.
+     */
+    void publish(List<InvalidationEvent> events);
+
+    /**
+     * Receive batches published by other instances (never this one's own)
+     */
+    void subscribe(Consumer<List<InvalidationEvent>> subscriber);
+}
@@ -0,0 +1,274 @@
+package com.codewithluci.ecommerce.cache;
+
+import com.codewithluci.ecommerce.dto.respone.ProductResponse;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * A read-only, memory-mapped file of ProductResponse records. Lookups decode
+ * straight from the mapping, so the catalog itself takes no heap.
+ *
+ * Layout (big-endian):
+ * - header, 64 bytes: magic, version, count, watermark, section offsets
+ * - index: count ids in ascending order, 8 bytes each, binary searched
+ * - records: count fixed 80-byte records, same order as the index
+ * - strings: UTF-8 bytes the records point into (offset, length; length -1 = null)
+ *
+ * One mapping, so a snapshot is limited to 2 GB.
+ */
+final class ProductSnapshot {
+
+    private static final int MAGIC = 0x50534E50;  // "PSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int RECORD_BYTES = 80;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    // Record field offsets
+    private static final int ID = 0;
+    private static final int PRICE_UNSCALED = 8;
+    private static final int PRICE_SCALE = 16;
+    private static final int FLAGS = 17;
+    private static final int STOCK = 18;
+    private static final int CATEGORY_ID = 22;
+    private static final int CREATED_AT = 30;
+    private static final int NAME = 38;
+    private static final int DESCRIPTION = 46;
+    private static final int IMAGE_URL = 54;
+    private static final int SKU = 62;
+    private static final int CATEGORY_NAME = 70;
+
+    private static final int ACTIVE = 1;
+    private static final int IN_STOCK = 2;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final LocalDateTime watermark;
+    private final int recordsOffset;
+    private final int stringsOffset;
+
+    private ProductSnapshot(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a version " + VERSION + " product snapshot");
+        }
+        this.count = buffer.getInt(8);
+        this.watermark = fromMicros(buffer.getLong(16));
+        this.recordsOffset = (int) buffer.getLong(24);
+        this.stringsOffset = (int) buffer.getLong(32);
+    }
+
+    static ProductSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ProductSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write a snapshot of every product pageAfter returns, in ascending id
+     * order, starting after id 0 and stopping at the first empty page. The
+     * file is replaced atomically, so readers see the old or the new one.
+     *
+     * @param watermark products updated at or after this may be newer than their record
+     * @return number of products written
+     */
+    static int write(Path target, LocalDateTime watermark, LongFunction<List<ProductResponse>> pageAfter)
+            throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path ids = Files.createTempFile(dir, "snapshot-ids", ".tmp");
+        Path records = Files.createTempFile(dir, "snapshot-records", ".tmp");
+        Path strings = Files.createTempFile(dir, "snapshot-strings", ".tmp");
+        Path assembled = Files.createTempFile(dir, "snapshot", ".tmp");
+        try {
+            int count = 0;
+            long stringBytes = 0;
+            try (DataOutputStream idOut = stream(ids);
+                 DataOutputStream recordOut = stream(records);
+                 DataOutputStream stringOut = stream(strings)) {
+                ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+                long afterId = 0;
+                List<ProductResponse> page;
+                while (!(page = pageAfter.apply(afterId)).isEmpty()) {
+                    for (ProductResponse product : page) {
+                        if (product.getId() <= afterId) {
+                            throw new IllegalStateException("Products must come in ascending id order");
+                        }
+                        afterId = product.getId();
+                        record.clear();
+                        record.putLong(ID, product.getId());
+                        BigDecimal price = product.getPrice();
+                        record.putLong(PRICE_UNSCALED, price.unscaledValue().longValueExact());
+                        record.put(PRICE_SCALE, (byte) price.scale());
+                        record.put(FLAGS, (byte) ((Boolean.TRUE.equals(product.getIsActive()) ? ACTIVE : 0)
+                                | (Boolean.TRUE.equals(product.getInStock()) ? IN_STOCK : 0)));
+                        record.putInt(STOCK, product.getStockQuantity());
+                        record.putLong(CATEGORY_ID, product.getCategoryId());
+                        record.putLong(CREATED_AT, toMicros(product.getCreatedAt()));
+                        stringBytes = putString(record, NAME, product.getName(), stringOut, stringBytes);
+                        stringBytes = putString(record, DESCRIPTION, product.getDescription(), stringOut, stringBytes);
+                        stringBytes = putString(record, IMAGE_URL, product.getImageUrl(), stringOut, stringBytes);
+                        stringBytes = putString(record, SKU, product.getSku(), stringOut, stringBytes);
+                        stringBytes = putString(record, CATEGORY_NAME, product.getCategoryName(), stringOut, stringBytes);
+
+                        idOut.writeLong(product.getId());
+                        recordOut.write(record.array());
+                        count++;
+                    }
+                }
+            }
+
+            long recordsOffset = HEADER_BYTES + (long) count * Long.BYTES;
+            long stringsOffset = recordsOffset + (long) count * RECORD_BYTES;
+            if (stringsOffset + stringBytes > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Product snapshot would exceed 2 GB");
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(count)
+                    .putInt(0)
+                    .putLong(toMicros(watermark))
+                    .putLong(recordsOffset)
+                    .putLong(stringsOffset);
+            header.clear();
+            try (FileChannel out = FileChannel.open(assembled, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (header.hasRemaining()) {
+                    out.write(header);
+                }
+                for (Path section : List.of(ids, records, strings)) {
+                    try (FileChannel in = FileChannel.open(section, StandardOpenOption.READ)) {
+                        long size = in.size();
+                        for (long copied = 0; copied < size; ) {
+                            copied += in.transferTo(copied, size - copied, out);
+                        }
+                    }
+                }
+                out.force(true);
+            }
+            try {
+                Files.move(assembled, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(assembled, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return count;
+        } finally {
+            Files.deleteIfExists(ids);
+            Files.deleteIfExists(records);
+            Files.deleteIfExists(strings);
+            Files.deleteIfExists(assembled);
+        }
+    }
+
+    /**
+     * The product with this id, or null if the snapshot doesn't have it
+     */
+    ProductResponse find(long id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = buffer.getLong(HEADER_BYTES + mid * Long.BYTES);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return decode(recordsOffset + mid * RECORD_BYTES);
+            }
+        }
+        return null;
+    }
+
+    int count() {
+        return count;
+    }
+
+    LocalDateTime watermark() {
+        return watermark;
+    }
+
+    private ProductResponse decode(int at) {
+        byte flags = buffer.get(at + FLAGS);
+        return ProductResponse.builder()
+                .id(buffer.getLong(at + ID))
+                .name(string(at + NAME))
+                .description(string(at + DESCRIPTION))
+                .price(new BigDecimal(BigInteger.valueOf(buffer.getLong(at + PRICE_UNSCALED)), buffer.get(at + PRICE_SCALE)))
+                .stockQuantity(buffer.getInt(at + STOCK))
+                .imageUrl(string(at + IMAGE_URL))
+                .sku(string(at + SKU))
+                .isActive((flags & ACTIVE) != 0)
+                .inStock((flags & IN_STOCK) != 0)
+                .categoryId(buffer.getLong(at + CATEGORY_ID))
+                .categoryName(string(at + CATEGORY_NAME))
+                .createdAt(fromMicros(buffer.getLong(at + CREATED_AT)))
+                .build();
+    }
+
+    private String string(int refAt) {
+        int length = buffer.getInt(refAt + 4);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(stringsOffset + buffer.getInt(refAt), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long putString(ByteBuffer record, int refAt, String value, OutputStream out, long written)
+            throws IOException {
+        if (value == null) {
+            record.putInt(refAt, 0).putInt(refAt + 4, -1);
+            return written;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (written + bytes.length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Product snapshot would exceed 2 GB");
+        }
+        record.putInt(refAt, (int) written).putInt(refAt + 4, bytes.length);
+        out.write(bytes);
+        return written + bytes.length;
+    }
+
+    private static DataOutputStream stream(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+    }
+
+    // Zone-free, like the LocalDateTime columns themselves
+    private static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return NULL_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        if (micros == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,182 @@
+package com.codewithluci.ecommerce.cache;
+
+import com.codewithluci.ecommerce.dto.respone.ProductResponse;
+import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import com.codewithluci.ecommerce.service.ProductService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Off-heap product snapshot that survives restarts, so a new instance can
+ * fill CatalogReadCache from a local file instead of the database.
+ *
+ * At startup the last snapshot is mapped and caught up: products updated
+ * since its watermark are marked stale and read from the database instead
+ * (one indexed query); a changed category discards the snapshot, since
+ * category names are in every record. While running, CatalogReadCache marks
+ * products stale as invalidations arrive.
+ *
+ * A fresh snapshot is written every write-interval-ms (not at startup) from
+ * read-only transactions, which go to a replica when one is configured. Its
+ * watermark is the build start minus watermark-overlap-ms, which covers
+ * transactions that stamped updatedAt before the build started but committed
+ * after, and clock differences between instances.
+ */
+@Component
+@Slf4j
+public class ProductSnapshotStore {
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final boolean enabled;
+    private final Path path;
+    private final int pageSize;
+    private final long overlapMillis;
+
+    private volatile ProductSnapshot snapshot;
+    // Product id → when it was marked stale (epoch millis)
+    private final Map<Long, Long> stale = new ConcurrentHashMap<>();
+    private volatile long allStaleAt;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer writes;
+
+    public ProductSnapshotStore(
+            ProductService productService,
+            ProductRepository productRepository,
+            CategoryRepository categoryRepository,
+            MeterRegistry registry,
+            @Value("${catalog.snapshot.enabled:false}") boolean enabled,
+            @Value("${catalog.snapshot.path:data/product-snapshot.bin}") String path,
+            @Value("${catalog.snapshot.page-size:1000}") int pageSize,
+            @Value("${catalog.snapshot.watermark-overlap-ms:60000}") long overlapMillis) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.pageSize = pageSize;
+        this.overlapMillis = overlapMillis;
+
+        this.hits = lookups(registry, "hit");
+        this.misses = lookups(registry, "miss");
+        this.writes = Timer.builder("catalog.snapshot.write")
+                .description("Time to write a product snapshot")
+                .register(registry);
+        Gauge.builder("catalog.snapshot.products", this, store -> {
+                    ProductSnapshot current = store.snapshot;
+                    return current == null ? 0 : current.count();
+                })
+                .description("Products in the mapped snapshot")
+                .register(registry);
+    }
+
+    /**
+     * Map the snapshot left by the previous run, if any, and catch it up
+     */
+    @PostConstruct
+    public void load() {
+        if (!enabled || !Files.exists(path)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            ProductSnapshot loaded = ProductSnapshot.open(path);
+            if (categoryRepository.existsByUpdatedAtGreaterThanEqual(loaded.watermark())) {
+                log.info("Categories changed since product snapshot {}, not using it", loaded.watermark());
+                return;
+            }
+            List<Long> changed = productRepository.findIdsUpdatedSince(loaded.watermark());
+            long now = System.currentTimeMillis();
+            changed.forEach(id -> stale.put(id, now));
+            snapshot = loaded;
+            log.info("Mapped product snapshot of {} products from {} in {} ms, {} changed since",
+                    loaded.count(), loaded.watermark(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    changed.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load product snapshot {}: {}", path, e.toString());
+        }
+    }
+
+    /**
+     * The product as of the snapshot, or null when it isn't there or has changed since
+     */
+    public ProductResponse find(Long id) {
+        ProductSnapshot current = snapshot;
+        ProductResponse product = current == null || stale.containsKey(id) ? null : current.find(id);
+        (product == null ? misses : hits).increment();
+        return product;
+    }
+
+    public void productChanged(Long id) {
+        // Also while no snapshot is mapped: one being written may already hold the old row
+        if (enabled) {
+            stale.put(id, System.currentTimeMillis());
+        }
+    }
+
+    public void allProductsChanged() {
+        allStaleAt = System.currentTimeMillis();
+        snapshot = null;
+    }
+
+    /**
+     * Write a fresh snapshot and switch lookups over to it
+     */
+    @Scheduled(fixedDelayString = "${catalog.snapshot.write-interval-ms:900000}",
+            initialDelayString = "${catalog.snapshot.write-interval-ms:900000}")
+    public void write() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        LocalDateTime watermark = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(overlapMillis));
+        Timer.Sample sample = Timer.start();
+        try {
+            int count = ProductSnapshot.write(path, watermark,
+                    afterId -> productService.getProductsAfter(afterId, pageSize));
+            long elapsed = sample.stop(writes);
+            log.info("Wrote product snapshot of {} products in {} ms", count, TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+            long cutoff = started - overlapMillis;
+            if (allStaleAt >= cutoff) {
+                // Everything changed while it was being read; the next run or restart catches up
+                return;
+            }
+            ProductSnapshot fresh = ProductSnapshot.open(path);
+            stale.values().removeIf(markedAt -> markedAt < cutoff);
+            snapshot = fresh;
+            if (allStaleAt >= cutoff) {
+                snapshot = null;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write product snapshot {}: {}", path, e.toString());
+        }
+    }
+
+    private static Counter lookups(MeterRegistry registry, String result) {
+        return Counter.builder("catalog.snapshot.lookups")
+                .description("Product reads answered from the snapshot, or passed on to the database")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.codewithluci.ecommerce.config;
+
+import com.codewithluci.ecommerce.bulkhead.BulkheadDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's DataSource (the "dataSource" bean: the pool, or
+ * the lazy routing proxy with datasource.routing.enabled) so bulkheads can
+ * cap the connections their requests hold (see BulkheadDataSource).
+ */
+@Configuration
+@ConditionalOnProperty(name = "bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadConfig {
+
+    @Bean
+    public static BeanPostProcessor bulkheadDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (beanName.equals("dataSource") && bean instanceof DataSource dataSource
+                        && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.codewithluci.ecommerce.config;
+
+import com.codewithluci.ecommerce.web.ContentLengthJsonHttpMessageConverter;
+import org.springframework.boot.http.converter.autoconfigure.ServerHttpMessageConvertersCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Response compression (server.compression.*) and HTTP/2 (server.http2.enabled)
+ * are embedded server settings, see application.properties.example. Static
+ * assets are precompressed at build time (pom.xml, precompress-static) and
+ * served fingerprinted by the resource chain (spring.web.resources.chain.*).
+ */
+@Configuration
+public class CompressionConfig {
+
+    // Runs after Boot's Jackson customizer (order 0) and takes over its JSON slot,
+    // so JSON responses have a Content-Length and the compression threshold applies
+    @Bean
+    @Order(1)
+    public ServerHttpMessageConvertersCustomizer contentLengthJsonConverterCustomizer(JsonMapper jsonMapper) {
+        return builder -> builder.withJsonConverter(new ContentLengthJsonHttpMessageConverter(jsonMapper));
+    }
+}
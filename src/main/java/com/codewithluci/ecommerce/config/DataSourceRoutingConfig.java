@@ -0,0 +1,116 @@
+package com.codewithluci.ecommerce.config;
+
+import com.codewithluci.ecommerce.datasource.ReadWriteRoutingDataSource;
+import com.codewithluci.ecommerce.datasource.ReadYourWritesTracker;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primary/replica DataSource routing, enabled with datasource.routing.enabled=true.
+ *
+ * Replaces the auto-configured pool with one primary pool plus one pool per
+ * replica URL. Read-only transactions go to the replicas (round robin),
+ * everything else to the primary. Replicas must share the primary's schema
+ * and credentials unless datasource.routing.replica-username/password are set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+@Slf4j
+public class DataSourceRoutingConfig {
+
+    @Value("${spring.datasource.url}")
+    private String primaryUrl;
+
+    @Value("${spring.datasource.username:}")
+    private String username;
+
+    @Value("${spring.datasource.password:}")
+    private String password;
+
+    @Value("${spring.datasource.driver-class-name:}")
+    private String driverClassName;
+
+    @Value("${datasource.routing.replica-urls:}")
+    private List<String> replicaUrls;
+
+    @Value("${datasource.routing.replica-username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${datasource.routing.replica-password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${datasource.routing.primary-pool-size:10}")
+    private int primaryPoolSize;
+
+    @Value("${datasource.routing.replica-pool-size:10}")
+    private int replicaPoolSize;
+
+    // How long a user's reads stay on the primary after they write
+    @Value("${datasource.routing.read-your-writes-ms:2000}")
+    private long readYourWritesMillis;
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(MeterRegistry registry) {
+        DataSource primary = pool("primary", primaryUrl, username, password, primaryPoolSize, false);
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (StringUtils.hasText(url)) {
+                replicas.add(pool("replica-" + replicas.size(), url.trim(),
+                        replicaUsername, replicaPassword, replicaPoolSize, true));
+            }
+        }
+        log.info("Read/write routing enabled with {} replica(s), read-your-writes window {} ms",
+                replicas.size(), readYourWritesMillis);
+
+        return new ReadWriteRoutingDataSource(primary, replicas,
+                new ReadYourWritesTracker(readYourWritesMillis, 100_000), registry);
+    }
+
+    /**
+     * The DataSource JPA and everything else sees. The lazy proxy defers the
+     * physical connection until the first statement, by which point the
+     * transaction's read-only flag is known to the router.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> enableReplicasWhenReady(
+            ReadWriteRoutingDataSource routingDataSource) {
+        return event -> routingDataSource.enableReplicas();
+    }
+
+    private HikariDataSource pool(String name, String url, String user, String pass,
+                                  int size, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(pass);
+        if (StringUtils.hasText(driverClassName)) {
+            config.setDriverClassName(driverClassName);
+        }
+        config.setMaximumPoolSize(size);
+        config.setReadOnly(readOnly);
+        return new HikariDataSource(config);
+    }
+}
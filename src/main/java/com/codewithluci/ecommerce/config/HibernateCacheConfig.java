@@ -0,0 +1,42 @@
+package com.codewithluci.ecommerce.config;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate second-level cache over JCache, with Ehcache as the provider.
+ * Regions and their expiry/size live in ehcache.xml; entities opt in with @Cache.
+ *
+ * The cache is per instance. Writes through this instance keep it correct;
+ * other instances' writes are evicted by the CacheInvalidationBus, with the
+ * TTLs as the bound when no transport is configured.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Value("${cache.l2.enabled:true}")
+    private boolean enabled;
+
+    // Classpath resource name or URL of the Ehcache XML
+    @Value("${cache.l2.config:ehcache.xml}")
+    private String configUri;
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            if (enabled) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                properties.put(ConfigSettings.PROVIDER, "org.ehcache.jsr107.EhcacheCachingProvider");
+                properties.put(ConfigSettings.CONFIG_URI, configUri);
+                // Every region must be declared in ehcache.xml
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            }
+        };
+    }
+}
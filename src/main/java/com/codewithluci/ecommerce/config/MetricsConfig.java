@@ -0,0 +1,22 @@
+package com.codewithluci.ecommerce.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics are exported at /actuator/prometheus.
+ *
+ * Service hot paths are timed with @Timed; Hikari, Hibernate statistics,
+ * cache, and JVM GC/thread meters come from Spring Boot auto-configuration.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Enables @Timed on service methods regardless of management.observations.* settings
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.codewithluci.ecommerce.config;
 
+import com.codewithluci.ecommerce.security.AuthRateLimitFilter;
 import com.codewithluci.ecommerce.security.CustomUserDetailsService;
 import com.codewithluci.ecommerce.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
@@ -74,7 +75,8 @@ public class SecurityConfig {
     @Bean
     public SecurityFilterChain securityFilterChain(
             HttpSecurity http,
-            JwtAuthenticationFilter jwtAuthenticationFilter) throws Exception {
+            JwtAuthenticationFilter jwtAuthenticationFilter,
+            AuthRateLimitFilter authRateLimitFilter) throws Exception {
 
         http
                 .csrf(csrf -> csrf.disable())
@@ -105,6 +107,10 @@ public class SecurityConfig {
                         ).permitAll()
 
 
+                        // Health probes only; metrics (Prometheus included) are admin-only
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                         // Public API endpoints
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers(
@@ -132,7 +138,9 @@ public class SecurityConfig {
                         .logoutSuccessUrl("/")
                         .permitAll()
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Throttle login/register before any JWT parsing or BCrypt work
+                .addFilterBefore(authRateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
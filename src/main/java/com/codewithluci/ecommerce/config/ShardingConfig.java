@@ -0,0 +1,170 @@
+package com.codewithluci.ecommerce.config;
+
+import com.codewithluci.ecommerce.sharding.ShardPools;
+import com.codewithluci.ecommerce.sharding.ShardRoutingDataSource;
+import com.codewithluci.ecommerce.sharding.Shards;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharding of orders, order items and payments by user, enabled with
+ * sharding.enabled=true (see Shards for the placement).
+ *
+ * The main database is shard 0; each sharding.shard-urls entry adds one,
+ * numbered in list order, so the list may only ever be appended to. Every
+ * shard gets the full Flyway schema, minus the foreign keys from orders to
+ * users and from order items to products, which live on the main database.
+ * Each shard's sharded tables hand out ids from the shard's own range.
+ *
+ * The application's DataSource is wrapped in a ShardRoutingDataSource, so
+ * JPA, Flyway and everything else keep using the main database unless
+ * Shards.inShard picks another.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+@Slf4j
+public class ShardingConfig {
+
+    // Tables whose rows live on their user's shard
+    private static final List<String> SHARDED_TABLES = List.of("orders", "order_items", "payments", "outbox_events");
+    // Names from V1__baseline_schema.sql
+    private static final List<String> CROSS_SHARD_FOREIGN_KEYS = List.of(
+            "orders:FK32ql8ubntj5uh44ph9659tiih",       // orders.user_id -> users
+            "order_items:FKocimc7dtr037rh4ls4l95nlfi"); // order_items.product_id -> products
+
+    @Value("${sharding.shard-urls:}")
+    private List<String> shardUrls;
+
+    @Value("${sharding.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${sharding.password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${spring.datasource.driver-class-name:}")
+    private String driverClassName;
+
+    @Value("${sharding.pool-size:10}")
+    private int poolSize;
+
+    @Value("${spring.flyway.locations:classpath:db/migration}")
+    private String[] migrationLocations;
+
+    @Bean(destroyMethod = "close")
+    public ShardPools shardPools() {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (String url : shardUrls) {
+            if (StringUtils.hasText(url)) {
+                int shard = pools.size() + 1;
+                HikariDataSource pool = pool("shard-" + shard, url.trim());
+                pools.add(pool);
+                prepare(shard, pool);
+            }
+        }
+        return new ShardPools(pools);
+    }
+
+    /**
+     * Wraps the "dataSource" bean before the other DataSource post-processors
+     * (statement counting, bulkheads) see it, so they see every shard's
+     * statements and connections. The lazy proxy keeps SqlGuardConfig's
+     * routing check from skipping it.
+     */
+    @Bean
+    public static BeanPostProcessor shardRoutingDataSourcePostProcessor() {
+        return new ShardRoutingPostProcessor();
+    }
+
+    private static final class ShardRoutingPostProcessor implements BeanPostProcessor, BeanFactoryAware, Ordered {
+
+        private BeanFactory beanFactory;
+
+        @Override
+        public void setBeanFactory(BeanFactory beanFactory) {
+            this.beanFactory = beanFactory;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (beanName.equals("dataSource") && bean instanceof DataSource main) {
+                ShardRoutingDataSource routing = new ShardRoutingDataSource(main,
+                        beanFactory.getBean(ShardPools.class).getPools());
+                routing.afterPropertiesSet();
+                return new LazyConnectionDataSourceProxy(routing);
+            }
+            return bean;
+        }
+    }
+
+    private void prepare(int shard, DataSource pool) {
+        boolean fresh = Flyway.configure()
+                .dataSource(pool)
+                .locations(migrationLocations)
+                .load()
+                .migrate()
+                .initialSchemaVersion == null;
+
+        JdbcTemplate jdbc = new JdbcTemplate(pool);
+        for (String foreignKey : CROSS_SHARD_FOREIGN_KEYS) {
+            String table = foreignKey.substring(0, foreignKey.indexOf(':'));
+            String name = foreignKey.substring(foreignKey.indexOf(':') + 1);
+            Integer present = jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.table_constraints WHERE LOWER(constraint_name) = LOWER(?)",
+                    Integer.class, name);
+            if (present != null && present > 0) {
+                jdbc.execute("ALTER TABLE " + table + " DROP CONSTRAINT " + name);
+            }
+        }
+
+        long first = (long) shard << Shards.SHARD_ID_SHIFT;
+        long last = first + (1L << Shards.SHARD_ID_SHIFT) - 1;
+        for (String table : SHARDED_TABLES) {
+            Long min = jdbc.queryForObject("SELECT MIN(id) FROM " + table, Long.class);
+            Long max = jdbc.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            if (min != null && (min < first || max > last)) {
+                throw new IllegalStateException("Shard " + shard + " holds " + table + " ids outside its range "
+                        + first + ".." + last + "; sharding.shard-urls must keep its order");
+            }
+            // Only on a new shard: an emptied table (the outbox) must not hand out ids again
+            if (fresh) {
+                jdbc.execute("ALTER TABLE " + table + " AUTO_INCREMENT = " + first);
+            }
+        }
+        log.info("Shard {} ready, ids from {}", shard, first);
+    }
+
+    private HikariDataSource pool(String name, String url) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        if (StringUtils.hasText(driverClassName)) {
+            config.setDriverClassName(driverClassName);
+        }
+        config.setMaximumPoolSize(poolSize);
+        return new HikariDataSource(config);
+    }
+}
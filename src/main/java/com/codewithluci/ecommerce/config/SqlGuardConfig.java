@@ -0,0 +1,37 @@
+package com.codewithluci.ecommerce.config;
+
+import com.codewithluci.ecommerce.monitoring.StatementCountListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps every DataSource in a datasource-proxy so executed statements can be
+ * counted per request and per service method (see SqlStatementCounter).
+ */
+@Configuration
+public class SqlGuardConfig {
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // A routing DataSource is always wrapped by the lazy proxy bean, count there once
+                if (bean instanceof DataSource dataSource
+                        && !(bean instanceof net.ttddyy.dsproxy.support.ProxyDataSource)
+                        && !(bean instanceof AbstractRoutingDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new StatementCountListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
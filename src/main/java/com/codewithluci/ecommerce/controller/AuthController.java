@@ -133,18 +133,25 @@ package com.codewithluci.ecommerce.controller;
 
 
 import com.codewithluci.ecommerce.dto.request.LoginRequest;
+import com.codewithluci.ecommerce.dto.request.RefreshTokenRequest;
 import com.codewithluci.ecommerce.dto.request.RegisterRequest;
+import com.codewithluci.ecommerce.dto.request.RevokeTokenRequest;
 import com.codewithluci.ecommerce.dto.respone.ApiResponse;
 import com.codewithluci.ecommerce.dto.respone.JwtResponse;
 import com.codewithluci.ecommerce.dto.respone.UserResponse;
+import com.codewithluci.ecommerce.exception.JwtAuthenticationException;
 import com.codewithluci.ecommerce.security.AuthService;
+import com.codewithluci.ecommerce.security.AuthUser;
+import com.codewithluci.ecommerce.security.TokenRevocationService;
 import com.codewithluci.ecommerce.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -155,6 +162,7 @@ public class AuthController {
 
     private final UserService userService;
     private final AuthService authService;
+    private final TokenRevocationService tokenRevocationService;
 
     @PostMapping("/register")
     public ResponseEntity<ApiResponse<UserResponse>> registerUser(
@@ -204,4 +212,52 @@ public class AuthController {
 
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Exchange a refresh token for a new access + refresh token pair
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<JwtResponse>> refresh(
+            @Valid @RequestBody RefreshTokenRequest request) {
+
+        JwtResponse jwtResponse = authService.refresh(request);
+
+        return ResponseEntity.ok(ApiResponse.success("Token refreshed", jwtResponse));
+    }
+
+    /**
+     * Logout - revokes the bearer token used for this request and its refresh tokens
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            Authentication authentication) {
+
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthUser user)
+                || !StringUtils.hasText(authorization) || !authorization.startsWith("Bearer ")) {
+            throw new JwtAuthenticationException("Missing or invalid Authorization header");
+        }
+
+        log.info("Logout request for: {}", authentication.getName());
+
+        authService.logout(authorization.substring(7), user);
+
+        return ResponseEntity.ok(ApiResponse.success("Logged out successfully", null));
+    }
+
+    /**
+     * Revoke any user's token (admin only)
+     */
+    @PostMapping("/admin/revoke")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> revokeToken(
+            @Valid @RequestBody RevokeTokenRequest request,
+            Authentication authentication) {
+
+        log.info("Admin {} revoking token", authentication.getName());
+
+        tokenRevocationService.revoke(request.getToken(), authentication.getName());
+
+        return ResponseEntity.ok(ApiResponse.success("Token revoked successfully", null));
+    }
+}
@@ -1,10 +1,13 @@
 package com.codewithluci.ecommerce.controller;
 
 
+import com.codewithluci.ecommerce.cache.CatalogReadCache;
 import com.codewithluci.ecommerce.dto.request.CategoryRequest;
 import com.codewithluci.ecommerce.dto.respone.ApiResponse;
 import com.codewithluci.ecommerce.dto.respone.CategoryResponse;
 import com.codewithluci.ecommerce.service.CategoryService;
+import com.codewithluci.ecommerce.web.SerializedJson;
+import com.codewithluci.ecommerce.web.SerializedResponseCache;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -20,18 +23,21 @@ public class CategoryController {
 
 
     private final CategoryService categoryService;
+    private final SerializedResponseCache responseCache;
+    private final CatalogReadCache catalogReadCache;
 //    ================================= for public end-point =========================================
 
+    // Hot path: body is an ApiResponse<List<CategoryResponse>>, serialized once per list state
     @GetMapping
-    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getAllCategories(){
-        List<CategoryResponse> categories = categoryService.getAllActiveCategories();
-        return ResponseEntity.ok(ApiResponse.success("Categories reterived Successfully",categories));
+    public ResponseEntity<SerializedJson> getAllCategories(){
+        List<CategoryResponse> categories = catalogReadCache.getActiveCategories();
+        return ResponseEntity.ok(responseCache.success("categories", "Categories reterived Successfully",categories));
 
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<CategoryResponse>> getCategoryById(@PathVariable Long id){
-        CategoryResponse categoryResponse = categoryService.getCategoryById(id);
+        CategoryResponse categoryResponse = catalogReadCache.getCategory(id);
         return ResponseEntity.ok(ApiResponse.success("Category Retrieved Successfully",categoryResponse));
     }
 
@@ -3,14 +3,14 @@ package com.codewithluci.ecommerce.controller;
 import com.codewithluci.ecommerce.dto.request.OrderRequest;
 import com.codewithluci.ecommerce.dto.respone.ApiResponse;
 import com.codewithluci.ecommerce.dto.respone.OrderResponse;
-import com.codewithluci.ecommerce.dto.respone.UserResponse;
+import com.codewithluci.ecommerce.dto.respone.PageResponse;
 import com.codewithluci.ecommerce.entity.OrderStatus;
+import com.codewithluci.ecommerce.security.AuthUser;
 import com.codewithluci.ecommerce.service.OrderService;
 import com.codewithluci.ecommerce.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -55,13 +55,18 @@ public class OrderController {
     }
 
     /**
-     * Get user's own orders (paginated)
+     * Get user's own orders (paginated).
+     * includeTotal=true adds totalElements/totalPages at the cost of a COUNT query.
+     * fields=id,status,totalAmount returns only those OrderResponse fields; order
+     * items are not loaded unless "items" is one of them.
      */
     @GetMapping("/my-orders")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Page<OrderResponse>>> getMyOrders(
+    public ResponseEntity<ApiResponse<PageResponse<?>>> getMyOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String fields,
             Authentication authentication) {
 
         Long userId = getUserIdFromAuthentication(authentication);
@@ -72,7 +77,9 @@ public class OrderController {
                 Sort.by("createdAt").descending()
         );
 
-        Page<OrderResponse> orders = orderService.getUserOrders(userId, pageable);
+        PageResponse<?> orders = fields != null
+                ? orderService.getUserOrderFields(userId, pageable, includeTotal, fields)
+                : orderService.getUserOrders(userId, pageable, includeTotal);
 
         return ResponseEntity.ok(
                 ApiResponse.success("Orders retrieved successfully", orders)
@@ -124,11 +131,12 @@ public class OrderController {
      */
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Page<OrderResponse>>> getAllOrders(
+    public ResponseEntity<ApiResponse<PageResponse<OrderResponse>>> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
 
         Sort sort = sortDir.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
@@ -136,7 +144,7 @@ public class OrderController {
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<OrderResponse> orders = orderService.getAllOrders(pageable);
+        PageResponse<OrderResponse> orders = orderService.getAllOrders(pageable, includeTotal);
 
         return ResponseEntity.ok(
                 ApiResponse.success("All orders retrieved successfully", orders)
@@ -148,14 +156,15 @@ public class OrderController {
      */
     @GetMapping("/admin/status/{status}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Page<OrderResponse>>> getOrdersByStatus(
+    public ResponseEntity<ApiResponse<PageResponse<OrderResponse>>> getOrdersByStatus(
             @PathVariable OrderStatus status,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
 
-        Page<OrderResponse> orders = orderService.getOrdersByStatus(status, pageable);
+        PageResponse<OrderResponse> orders = orderService.getOrdersByStatus(status, pageable, includeTotal);
 
         return ResponseEntity.ok(
                 ApiResponse.success(
@@ -208,8 +217,10 @@ public class OrderController {
 //    }
 
     private Long getUserIdFromAuthentication(Authentication authentication) {
-        String username = authentication.getName();
-        UserResponse user = userService.getUserByUsername(username);
-        return user.getId();
+        // User id travels in the access token claims
+        if (authentication.getPrincipal() instanceof AuthUser user) {
+            return user.getUserId();
+        }
+        return userService.getUserByUsername(authentication.getName()).getId();
     }
 }
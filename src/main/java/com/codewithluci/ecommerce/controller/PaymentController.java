@@ -3,6 +3,7 @@ package com.codewithluci.ecommerce.controller;
 import com.codewithluci.ecommerce.dto.request.PaymentRequest;
 import com.codewithluci.ecommerce.dto.respone.ApiResponse;
 import com.codewithluci.ecommerce.dto.respone.PaymentResponse;
+import com.codewithluci.ecommerce.security.AuthUser;
 import com.codewithluci.ecommerce.service.PaymentService;
 import com.codewithluci.ecommerce.service.UserService;
 import jakarta.validation.Valid;
@@ -86,7 +87,10 @@ public class PaymentController {
 
     // Helper method
     private Long getUserIdFromAuthentication(Authentication authentication) {
-        String username = authentication.getName();
-        return userService.getUserByUsername(username).getId();
+        // User id travels in the access token claims
+        if (authentication.getPrincipal() instanceof AuthUser user) {
+            return user.getUserId();
+        }
+        return userService.getUserByUsername(authentication.getName()).getId();
     }
 }
\ No newline at end of file
@@ -1,13 +1,16 @@
 package com.codewithluci.ecommerce.controller;
 
 
+import com.codewithluci.ecommerce.cache.CatalogReadCache;
 import com.codewithluci.ecommerce.dto.request.ProductRequest;
 import com.codewithluci.ecommerce.dto.respone.ApiResponse;
+import com.codewithluci.ecommerce.dto.respone.PageResponse;
 import com.codewithluci.ecommerce.dto.respone.ProductResponse;
 import com.codewithluci.ecommerce.service.ProductService;
+import com.codewithluci.ecommerce.web.SerializedJson;
+import com.codewithluci.ecommerce.web.SerializedResponseCache;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -22,58 +25,73 @@ import org.springframework.web.bind.annotation.*;
 public class ProductController {
 
     private final ProductService productService;
+    private final SerializedResponseCache responseCache;
+    private final CatalogReadCache catalogReadCache;
 
     // ─── PUBLIC ENDPOINTS ────────────────────────────────────────────────────
 
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<ProductResponse>>> getAllProducts(
+    // List endpoints: includeTotal=true adds totalElements/totalPages (extra COUNT query);
+    // fields=id,name,price returns only those ProductResponse fields and selects only their columns
+    public ResponseEntity<ApiResponse<PageResponse<?>>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String fields) {
 
         Sort sort = sortDir.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<ProductResponse> products = productService.getAllActiveProducts(pageable);
+        PageResponse<?> products = fields != null
+                ? productService.getAllActiveProductFields(pageable, includeTotal, fields)
+                : productService.getAllActiveProducts(pageable, includeTotal);
 
         return ResponseEntity.ok(
                 ApiResponse.success("Products retrieved successfully", products));
     }
 
+    // Hot path: body is an ApiResponse<ProductResponse>, serialized once per product state
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<ProductResponse>> getProductById(
+    public ResponseEntity<SerializedJson> getProductById(
             @PathVariable Long id) {
-        ProductResponse product = productService.getProductById(id);
+        ProductResponse product = catalogReadCache.getProduct(id);
         return ResponseEntity.ok(
-                ApiResponse.success("Product retrieved successfully", product));
+                responseCache.success("product:" + id, "Product retrieved successfully", product));
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<ApiResponse<Page<ProductResponse>>> getProductsByCategory(
+    public ResponseEntity<ApiResponse<PageResponse<?>>> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String fields) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductResponse> products =
-                productService.getProductsByCategory(categoryId, pageable);
+        PageResponse<?> products = fields != null
+                ? productService.getProductFieldsByCategory(categoryId, pageable, includeTotal, fields)
+                : productService.getProductsByCategory(categoryId, pageable, includeTotal);
 
         return ResponseEntity.ok(
                 ApiResponse.success("Products retrieved successfully", products));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<Page<ProductResponse>>> searchProducts(
+    public ResponseEntity<ApiResponse<PageResponse<?>>> searchProducts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String fields) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductResponse> products =
-                productService.searchProducts(keyword, pageable);
+        PageResponse<?> products = fields != null
+                ? productService.searchProductFields(keyword, pageable, includeTotal, fields)
+                : productService.searchProducts(keyword, pageable, includeTotal);
 
         return ResponseEntity.ok(
                 ApiResponse.success("Search results retrieved", products));
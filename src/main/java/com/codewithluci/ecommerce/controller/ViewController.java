@@ -1,11 +1,11 @@
 package com.codewithluci.ecommerce.controller;
 
+import com.codewithluci.ecommerce.cache.CatalogReadCache;
 import com.codewithluci.ecommerce.dto.respone.CategoryResponse;
+import com.codewithluci.ecommerce.dto.respone.PageResponse;
 import com.codewithluci.ecommerce.dto.respone.ProductResponse;
-import com.codewithluci.ecommerce.service.CategoryService;
 import com.codewithluci.ecommerce.service.ProductService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -23,7 +23,7 @@ import java.util.List;
 public class ViewController {
 
     private final ProductService productService;
-    private final CategoryService categoryService;
+    private final CatalogReadCache catalogReadCache;
 
     // ─── PUBLIC PAGES ────────────────────────────────────────────────────────
 
@@ -31,9 +31,9 @@ public class ViewController {
     public String home(Model model) {
         // Get featured products (first 8)
         Pageable pageable = PageRequest.of(0, 8, Sort.by("createdAt").descending());
-        Page<ProductResponse> products = productService.getAllActiveProducts(pageable);
+        PageResponse<ProductResponse> products = productService.getAllActiveProducts(pageable, false);
 
-        List<CategoryResponse> categories = categoryService.getAllActiveCategories();
+        List<CategoryResponse> categories = catalogReadCache.getActiveCategories();
 
         model.addAttribute("products", products.getContent());
         model.addAttribute("categories", categories);
@@ -60,17 +60,18 @@ public class ViewController {
             Model model) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<ProductResponse> products;
+        PageResponse<ProductResponse> products;
 
+        // Page links need totalPages
         if (categoryId != null) {
-            products = productService.getProductsByCategory(categoryId, pageable);
+            products = productService.getProductsByCategory(categoryId, pageable, true);
         } else if (search != null && !search.isEmpty()) {
-            products = productService.searchProducts(search, pageable);
+            products = productService.searchProducts(search, pageable, true);
         } else {
-            products = productService.getAllActiveProducts(pageable);
+            products = productService.getAllActiveProducts(pageable, true);
         }
 
-        List<CategoryResponse> categories = categoryService.getAllActiveCategories();
+        List<CategoryResponse> categories = catalogReadCache.getActiveCategories();
 
         model.addAttribute("products", products);
         model.addAttribute("categories", categories);
@@ -84,7 +85,7 @@ public class ViewController {
 
     @GetMapping("/products/{id}")
     public String productDetailPage(@PathVariable Long id, Model model) {
-        ProductResponse product = productService.getProductById(id);
+        ProductResponse product = catalogReadCache.getProduct(id);
         model.addAttribute("product", product);
         return "product-detail";
     }
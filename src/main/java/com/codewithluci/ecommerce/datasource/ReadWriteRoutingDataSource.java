@@ -0,0 +1,146 @@
+package com.codewithluci.ecommerce.datasource;
+
+import com.codewithluci.ecommerce.security.AuthUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends @Transactional(readOnly = true) work to a replica and everything else
+ * to the primary. Must sit behind a LazyConnectionDataSourceProxy so the
+ * connection is fetched after the transaction's read-only flag is set.
+ *
+ * Reads stay on the primary when:
+ * - replicas are not enabled yet (startup, see enableReplicas)
+ * - the current request already ran a read-write transaction
+ * - the current user ran one within the read-your-writes window
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+    private static final String REQUEST_WROTE = ReadWriteRoutingDataSource.class.getName() + ".WROTE";
+
+    private final List<DataSource> pools = new ArrayList<>();
+    private final List<String> replicaKeys;
+    private final ReadYourWritesTracker tracker;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile boolean replicasEnabled;
+
+    private final Counter writeRoutes;
+    private final Counter noReplicaRoutes;
+    private final Counter stickyRoutes;
+    private final Counter replicaRoutes;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                      ReadYourWritesTracker tracker, MeterRegistry registry) {
+        this.tracker = tracker;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        pools.add(primary);
+        this.replicaKeys = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            targets.put(key, replicas.get(i));
+        }
+        pools.addAll(replicas);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+
+        this.writeRoutes = route(registry, "primary", "write");
+        this.noReplicaRoutes = route(registry, "primary", "no-replica");
+        this.stickyRoutes = route(registry, "primary", "read-your-writes");
+        this.replicaRoutes = route(registry, "replica", "read");
+    }
+
+    /**
+     * Replicas only take traffic once the application is ready, so startup
+     * reads (cache loads, schema checks) see the primary.
+     */
+    public void enableReplicas() {
+        this.replicasEnabled = true;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource pool : pools) {
+            if (pool instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                recordWrite();
+            }
+            writeRoutes.increment();
+            return PRIMARY;
+        }
+
+        if (replicaKeys.isEmpty() || !replicasEnabled) {
+            noReplicaRoutes.increment();
+            return PRIMARY;
+        }
+
+        if (requestWrote() || tracker.wroteRecently(currentUser())) {
+            stickyRoutes.increment();
+            return PRIMARY;
+        }
+
+        replicaRoutes.increment();
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+
+    private void recordWrite() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(REQUEST_WROTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+        tracker.recordWrite(currentUser());
+    }
+
+    private boolean requestWrote() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null
+                && attributes.getAttribute(REQUEST_WROTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    // User id from the JWT principal, username for other logins, null when anonymous
+    private Object currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof AuthUser user) {
+            return user.getUserId();
+        }
+        return authentication.getName();
+    }
+
+    private static Counter route(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out by the read/write router")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,94 @@
+package com.codewithluci.ecommerce.datasource;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers which users wrote recently, so their reads can stay on the primary
+ * until replicas have had time to catch up.
+ *
+ * Entries are a deadline per user. Every write is also queued in write order
+ * (which is deadline order, the window being fixed), so expired entries are
+ * dropped from the head of the queue and, past maxEntries, the oldest writes
+ * are forgotten early - those users simply read from a replica again.
+ */
+public class ReadYourWritesTracker {
+
+    private final Map<Object, Write> deadlines = new ConcurrentHashMap<>();
+    private final Queue<Write> writes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final long windowNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    public ReadYourWritesTracker(long windowMillis, int maxEntries) {
+        this(windowMillis, maxEntries, System::nanoTime);
+    }
+
+    ReadYourWritesTracker(long windowMillis, int maxEntries, LongSupplier clock) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    public void recordWrite(Object user) {
+        if (user == null || windowNanos <= 0) {
+            return;
+        }
+        long now = clock.getAsLong();
+        Write write = new Write(user, now + windowNanos);
+        deadlines.put(user, write);
+        writes.add(write);
+        queued.incrementAndGet();
+        evict(now);
+    }
+
+    public boolean wroteRecently(Object user) {
+        if (user == null) {
+            return false;
+        }
+        Write write = deadlines.get(user);
+        if (write == null) {
+            return false;
+        }
+        if (write.deadline - clock.getAsLong() > 0) {
+            return true;
+        }
+        deadlines.remove(user, write);
+        return false;
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    // Every live deadline has its write in the queue, so capping the queue caps the map
+    private void evict(long now) {
+        Write head;
+        while ((head = writes.peek()) != null
+                && (head.deadline - now <= 0 || queued.get() > maxEntries)) {
+            if (writes.remove(head)) {
+                queued.decrementAndGet();
+                // Only if the user hasn't written again since
+                deadlines.remove(head.user, head);
+            }
+        }
+    }
+
+    // Compared by identity: a user's later write is never removed by an earlier one
+    private static final class Write {
+
+        private final Object user;
+        private final long deadline;
+
+        private Write(Object user, long deadline) {
+            this.user = user;
+            this.deadline = deadline;
+        }
+    }
+}
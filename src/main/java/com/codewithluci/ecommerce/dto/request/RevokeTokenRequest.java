@@ -0,0 +1,15 @@
+package com.codewithluci.ecommerce.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokeTokenRequest {
+
+    @NotBlank(message = "Token is required")
+    private String token;
+}
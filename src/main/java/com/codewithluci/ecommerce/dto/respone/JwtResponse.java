@@ -12,6 +12,8 @@ import lombok.NoArgsConstructor;
 public class JwtResponse {
 
     private String token;
+    private String refreshToken;
+    private Long expiresIn;  // access token lifetime in seconds
     private String type = "Bearer";  // OAuth 2.0 standard
     private Long userId;
     private String username;
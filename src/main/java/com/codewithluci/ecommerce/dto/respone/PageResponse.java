@@ -0,0 +1,45 @@
+package com.codewithluci.ecommerce.dto.respone;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+// Compact replacement for serializing Spring Data's PageImpl (no pageable/sort objects)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageResponse<T> {
+
+    private List<T> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+
+    // Only when the caller asked for a total (costs a COUNT query)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalPages;
+
+    public static <T> PageResponse<T> of(Slice<T> slice) {
+        PageResponse<T> response = PageResponse.<T>builder()
+                .content(slice.getContent())
+                .page(slice.getNumber())
+                .size(slice.getSize())
+                .hasNext(slice.hasNext())
+                .build();
+        if (slice instanceof Page<T> page) {
+            response.setTotalElements(page.getTotalElements());
+            response.setTotalPages(page.getTotalPages());
+        }
+        return response;
+    }
+}
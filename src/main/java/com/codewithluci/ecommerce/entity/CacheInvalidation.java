@@ -0,0 +1,25 @@
+package com.codewithluci.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "cache_invalidations")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheInvalidation extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CachedEntityType entityType;
+
+    // Null invalidates every cached entity of the type
+    private Long entityId;
+
+    // Instance that wrote the row; it skips its own rows when polling
+    @Column(nullable = false, length = 36)
+    private String origin;
+}
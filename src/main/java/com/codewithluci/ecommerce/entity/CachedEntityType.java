@@ -0,0 +1,8 @@
+package com.codewithluci.ecommerce.entity;
+
+// Entities whose cached copies are invalidated across instances
+public enum CachedEntityType {
+    CATEGORY,
+    PRODUCT,
+    USER
+}
@@ -0,0 +1,33 @@
+package com.codewithluci.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "job_leases")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobLease {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // Instance id of the current holder, null once released
+    @Column(length = 36)
+    private String owner;
+
+    // Incremented on every takeover, never on renewal
+    @Column(nullable = false)
+    private Long fencingToken;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime heartbeatAt;
+}
@@ -6,6 +6,7 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -57,6 +58,7 @@ public class Order extends BaseEntity {
             orphanRemoval = true,
             fetch = FetchType.LAZY
     )
+    @BatchSize(size = 50)  // one IN query loads items for a whole page of orders
     @Builder.Default
     private List<OrderItem> orderItems = new ArrayList<>();
 
@@ -0,0 +1,11 @@
+package com.codewithluci.ecommerce.entity;
+
+// Events written to the outbox; the aggregate id is the order or payment id
+public enum OutboxEventType {
+    ORDER_CREATED,
+    ORDER_STATUS_CHANGED,
+    ORDER_CONFIRMED,
+    ORDER_CANCELLED,
+    PAYMENT_SUCCEEDED,
+    PAYMENT_FAILED
+}
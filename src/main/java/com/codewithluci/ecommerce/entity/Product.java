@@ -3,11 +3,16 @@ package com.codewithluci.ecommerce.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "products")
+// Not READ_WRITE like Category and User: stock is never written from a cached
+// copy (see ehcache.xml), so entries only need dropping when a product changes
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "product")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,6 +25,8 @@ public class Product extends BaseEntity {
     @Column(nullable = false, length = 200)
     private String name;
 
+    // Not shown in list views; loaded on first access (bytecode enhancement, see pom.xml)
+    @Basic(fetch = FetchType.LAZY)
     @Column(columnDefinition = "TEXT")
     private String description;
 
@@ -30,6 +37,8 @@ public class Product extends BaseEntity {
     @Column(nullable = false, precision = 12, scale = 2)
     private BigDecimal price;
 
+    // Changed with ProductRepository.reduceStock/restoreStock, never by writing
+    // back a quantity read earlier (which may be cached or stale)
     @NotNull(message = "Stock quantity is required")
     @Min(value = 0, message = "Stock cannot be negative")
     @Column(nullable = false)
@@ -56,23 +65,6 @@ public class Product extends BaseEntity {
     )
     private Category category;
 
-    // Business method to reduce stock safely
-    public void reduceStock(int quantity) {
-        if (this.stockQuantity < quantity) {
-            throw new IllegalStateException(
-                    "Insufficient stock for product: " + this.name +
-                            ". Available: " + this.stockQuantity +
-                            ", Requested: " + quantity
-            );
-        }
-        this.stockQuantity -= quantity;
-    }
-
-    // Business method to restore stock (on order cancel/payment fail)
-    public void restoreStock(int quantity) {
-        this.stockQuantity += quantity;
-    }
-
     // Check if product is in stock
     public boolean isInStock() {
         return this.isActive && this.stockQuantity > 0;
@@ -0,0 +1,43 @@
+package com.codewithluci.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "refresh_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken extends BaseEntity {
+
+    // SHA-256 of the opaque token - the raw value is never stored
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    // MANY RefreshTokens belong to ONE User
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // All tokens rotated from one login share a family (= session)
+    @Column(nullable = false, length = 36)
+    private String familyId;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Set when the token is exchanged; presenting it again means reuse
+    private LocalDateTime usedAt;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean revoked = false;
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,30 @@
+package com.codewithluci.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "revoked_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken extends BaseEntity {
+
+    // JWT "jti" claim of the revoked token
+    @Column(nullable = false, unique = true, length = 36)
+    private String tokenId;
+
+    @Column(nullable = false, length = 50)
+    private String username;
+
+    // Row can be purged once the token would have expired anyway
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(length = 50)
+    private String revokedBy;
+}
@@ -5,13 +5,18 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(columnNames = "email"),
         @UniqueConstraint(columnNames = "username")
 })
-
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-natural-id")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,6 +26,7 @@ public class User extends BaseEntity {
 
     @NotBlank(message = "Username is required")
     @Size(min = 3, max = 50)
+    @NaturalId  // never changes after registration, so lookups by username can hit the cache
     @Column(nullable = false, unique = true, length = 50)
     private String username;
 
@@ -69,6 +69,17 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handle unknown names in a fields= parameter
+     */
+    @ExceptionHandler(InvalidFieldSelectionException.class)
+    public ResponseEntity<ApiResponse<Void>> handleInvalidFieldSelection(InvalidFieldSelectionException ex) {
+        log.warn("Invalid field selection: {}", ex.getMessage());
+
+        ApiResponse<Void> response = ApiResponse.error(ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handle InvalidCredentialsException
      */
@@ -0,0 +1,9 @@
+package com.codewithluci.ecommerce.exception;
+
+// Unknown name in a fields= query parameter
+public class InvalidFieldSelectionException extends RuntimeException {
+
+    public InvalidFieldSelectionException(String message) {
+        super(message);
+    }
+}
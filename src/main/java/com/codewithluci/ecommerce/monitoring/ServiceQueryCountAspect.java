@@ -0,0 +1,44 @@
+package com.codewithluci.ecommerce.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts SQL statements per service method, but only inside an already
+ * sampled request (or a test scope) so unsampled calls stay free.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceQueryCountAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.codewithluci.ecommerce.service.impl..*(..))")
+    public Object countStatements(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!SqlStatementCounter.isActive()) {
+            return joinPoint.proceed();
+        }
+
+        String className = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String methodName = joinPoint.getSignature().getName();
+
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open(className + "." + methodName);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            scope.close();
+            DistributionSummary.builder("sql.statements.per.method")
+                    .description("SQL statements executed per service method call")
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .register(meterRegistry)
+                    .record(scope.getCount());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.codewithluci.ecommerce.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples requests and counts the SQL statements each one executes.
+ * Requests over the statement budget are logged with their top statement
+ * fingerprints and counted in sql.statements.budget.exceeded.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double sampleRate;
+    private final int requestBudget;
+
+    public SqlBudgetFilter(
+            MeterRegistry meterRegistry,
+            @Value("${sql.guard.enabled:true}") boolean enabled,
+            @Value("${sql.guard.sample-rate:0.05}") double sampleRate,
+            @Value("${sql.guard.request-budget:20}") int requestBudget) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.requestBudget = requestBudget;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || ThreadLocalRandom.current().nextDouble() >= sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open(request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            report(request, scope);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatementCounter.Scope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+
+        DistributionSummary.builder("sql.statements.per.request")
+                .description("SQL statements executed per sampled request")
+                .tag("route", route)
+                .register(meterRegistry)
+                .record(scope.getCount());
+
+        if (scope.getCount() > requestBudget) {
+            Counter.builder("sql.statements.budget.exceeded")
+                    .description("Sampled requests that exceeded the SQL statement budget")
+                    .tag("route", route)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("{} executed {} SQL statements (budget {}). Top statements:\n{}",
+                    route, scope.getCount(), requestBudget, scope.topFingerprints(5));
+        }
+    }
+}
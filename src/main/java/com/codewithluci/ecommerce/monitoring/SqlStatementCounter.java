@@ -0,0 +1,126 @@
+package com.codewithluci.ecommerce.monitoring;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Thread-bound SQL statement counting.
+ *
+ * A scope counts every statement executed on the current thread while it is
+ * open; scopes nest (request → service method), and a statement is counted in
+ * every open scope. When no scope is open nothing is recorded, so unsampled
+ * requests pay only a ThreadLocal lookup per statement.
+ *
+ * Tests can open a scope directly:
+ * <pre>
+ * try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("GET /api/products")) {
+ *     mockMvc.perform(get("/api/products"));
+ *     assertThat(scope.getCount()).isLessThanOrEqualTo(2);
+ * }
+ * </pre>
+ */
+public final class SqlStatementCounter {
+
+    private static final int MAX_FINGERPRINT_LENGTH = 200;
+
+    private static final ThreadLocal<Deque<Scope>> SCOPES = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static Scope open(String name) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            SCOPES.set(scopes);
+        }
+        Scope scope = new Scope(name);
+        scopes.push(scope);
+        return scope;
+    }
+
+    public static boolean isActive() {
+        Deque<Scope> scopes = SCOPES.get();
+        return scopes != null && !scopes.isEmpty();
+    }
+
+    static void record(String sql) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes == null || scopes.isEmpty()) {
+            return;
+        }
+        String fingerprint = fingerprint(sql);
+        for (Scope scope : scopes) {
+            scope.record(fingerprint);
+        }
+    }
+
+    /**
+     * Normalise a statement so the same query shape groups together:
+     * literals become ?, IN lists collapse, whitespace is squashed
+     */
+    static String fingerprint(String sql) {
+        String normalized = sql
+                .replaceAll("'(?:[^']|'')*'", "?")
+                .replaceAll("\\b\\d+(\\.\\d+)?\\b", "?")
+                .replaceAll("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)", "(?+)")
+                .replaceAll("\\s+", " ")
+                .trim();
+        return normalized.length() > MAX_FINGERPRINT_LENGTH
+                ? normalized.substring(0, MAX_FINGERPRINT_LENGTH) + "..."
+                : normalized;
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final String name;
+        private int count;
+        private final Map<String, Integer> fingerprints = new LinkedHashMap<>();
+
+        private Scope(String name) {
+            this.name = name;
+        }
+
+        private void record(String fingerprint) {
+            count++;
+            fingerprints.merge(fingerprint, 1, Integer::sum);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public Map<String, Integer> getFingerprints() {
+            return fingerprints;
+        }
+
+        /**
+         * Most frequent statement shapes, for logging budget violations
+         */
+        public String topFingerprints(int limit) {
+            return fingerprints.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .limit(limit)
+                    .map(e -> e.getValue() + "x " + e.getKey())
+                    .collect(Collectors.joining("\n  ", "  ", ""));
+        }
+
+        @Override
+        public void close() {
+            Deque<Scope> scopes = SCOPES.get();
+            if (scopes != null) {
+                scopes.remove(this);
+                if (scopes.isEmpty()) {
+                    SCOPES.remove();
+                }
+            }
+        }
+    }
+}
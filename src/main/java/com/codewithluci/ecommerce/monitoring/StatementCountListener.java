@@ -0,0 +1,27 @@
+package com.codewithluci.ecommerce.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * datasource-proxy listener that feeds executed statements into SqlStatementCounter
+ */
+public class StatementCountListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!SqlStatementCounter.isActive()) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            SqlStatementCounter.record(queryInfo.getQuery());
+        }
+    }
+}
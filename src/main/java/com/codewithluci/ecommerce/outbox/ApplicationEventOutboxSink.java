@@ -0,0 +1,26 @@
+package com.codewithluci.ecommerce.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publishes each relayed event as an OutboxMessage application event, for
+ * in-process @EventListener consumers. The relay runs on the leader only, so
+ * listeners see each event on one instance, not on all of them.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.in-process.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    public void deliver(List<OutboxMessage> batch) {
+        batch.forEach(applicationEventPublisher::publishEvent);
+    }
+}
@@ -0,0 +1,65 @@
+package com.codewithluci.ecommerce.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends relayed events to a file, one JSON object per line, and syncs it
+ * before the batch counts as delivered. For tests and local inspection.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.file.path")
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileOutboxSink(ObjectMapper objectMapper, @Value("${outbox.sink.file.path}") String path) {
+        this.objectMapper = objectMapper;
+        this.path = Path.of(path);
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxMessage> batch) {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxMessage message : batch) {
+            ObjectNode line = objectMapper.createObjectNode();
+            line.put("id", message.id());
+            line.put("type", message.type().name());
+            line.put("aggregateId", message.aggregateId());
+            line.put("occurredAt", message.occurredAt().toString());
+            line.set("payload", objectMapper.readTree(message.payload()));
+            lines.append(objectMapper.writeValueAsString(line)).append('\n');
+        }
+
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append outbox events to " + path, e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.codewithluci.ecommerce.outbox;
+
+import com.codewithluci.ecommerce.entity.OutboxEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox event as handed to sinks. id is unique and increasing; delivery
+ * is at least once, so consumers should ignore ids they have already seen.
+ */
+public record OutboxMessage(long id, OutboxEventType type, long aggregateId, String payload,
+                            LocalDateTime occurredAt) {
+}
@@ -0,0 +1,77 @@
+package com.codewithluci.ecommerce.outbox;
+
+import com.codewithluci.ecommerce.entity.Order;
+import com.codewithluci.ecommerce.entity.OrderItem;
+import com.codewithluci.ecommerce.entity.OutboxEvent;
+import com.codewithluci.ecommerce.entity.OutboxEventType;
+import com.codewithluci.ecommerce.entity.Payment;
+import com.codewithluci.ecommerce.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes order and payment events to the outbox in the caller's transaction,
+ * so an event exists exactly when the state change it describes committed.
+ * OutboxRelay delivers them afterwards.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Order events. Created and cancelled events list the items, since they
+     * move stock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderEvent(OutboxEventType type, Order order) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("userId", order.getUser().getId());
+        payload.put("status", order.getStatus());
+        payload.put("totalAmount", order.getTotalAmount());
+        if (type == OutboxEventType.ORDER_CREATED || type == OutboxEventType.ORDER_CANCELLED) {
+            payload.put("items", items(order.getOrderItems()));
+        }
+        append(type, order.getId(), payload);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentEvent(OutboxEventType type, Payment payment) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("paymentId", payment.getId());
+        payload.put("orderId", payment.getOrder().getId());
+        payload.put("status", payment.getStatus());
+        payload.put("amount", payment.getAmount());
+        payload.put("method", payment.getMethod());
+        payload.put("transactionId", payment.getTransactionId());
+        payload.put("failureReason", payment.getFailureReason());
+        append(type, payment.getId(), payload);
+    }
+
+    private void append(OutboxEventType type, Long aggregateId, Map<String, Object> payload) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(type)
+                .aggregateId(aggregateId)
+                .payload(objectMapper.writeValueAsString(payload))
+                .build());
+    }
+
+    private static List<Map<String, Object>> items(List<OrderItem> items) {
+        return items.stream()
+                .map(item -> Map.<String, Object>of(
+                        "productId", item.getProduct().getId(),
+                        "quantity", item.getQuantity(),
+                        "price", item.getPrice()))
+                .toList();
+    }
+}
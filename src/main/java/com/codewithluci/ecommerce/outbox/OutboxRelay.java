@@ -0,0 +1,125 @@
+package com.codewithluci.ecommerce.outbox;
+
+import com.codewithluci.ecommerce.entity.OutboxEvent;
+import com.codewithluci.ecommerce.repository.OutboxEventRepository;
+import com.codewithluci.ecommerce.scheduling.LeaderElection;
+import com.codewithluci.ecommerce.scheduling.LeaderOnly;
+import com.codewithluci.ecommerce.sharding.Shards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Drains the outbox on the leader: claims the oldest batch-size events
+ * (FOR UPDATE SKIP LOCKED), hands them to every OutboxSink in id order and
+ * deletes them, all in one transaction. A failing sink rolls the batch back
+ * and it is retried on the next run, so delivery is at least once.
+ *
+ * Ordering holds because one relay runs at a time: checkFence() locks the
+ * lease row first, so a former leader that wakes up mid-run can't deliver
+ * alongside the new one. SKIP LOCKED keeps a second relay from blocking on
+ * claimed rows if that ever changes. Events of one order are committed in
+ * sequence, so they are delivered in the order they happened.
+ *
+ * With sharding, an order's events are written on its shard (see Shards),
+ * so each shard's outbox is drained in turn, with the fence held on the
+ * main database until the shard's batch has committed.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final LeaderElection leaderElection;
+    private final Shards shards;
+    private final int batchSize;
+
+    private final Counter delivered;
+    private final Counter failures;
+    private final Timer lag;
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            List<OutboxSink> sinks,
+            LeaderElection leaderElection,
+            Shards shards,
+            MeterRegistry registry,
+            @Value("${outbox.relay.batch-size:200}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.leaderElection = leaderElection;
+        this.shards = shards;
+        this.batchSize = batchSize;
+
+        this.delivered = Counter.builder("outbox.events.delivered")
+                .description("Outbox events handed to every sink and removed from the outbox")
+                .register(registry);
+        this.failures = Counter.builder("outbox.relay.failures")
+                .description("Outbox batches rolled back for a retry")
+                .register(registry);
+        this.lag = Timer.builder("outbox.delivery.lag")
+                .description("Time from an event being written to it being delivered")
+                .register(registry);
+    }
+
+    /**
+     * Relay full batches until the outbox is drained or a batch fails
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    @LeaderOnly
+    public void drain() {
+        for (int shard = 0; shard < shards.count(); shard++) {
+            int relayed;
+            do {
+                relayed = relayBatch(shard);
+            } while (relayed == batchSize);
+        }
+    }
+
+    private int relayBatch(int shard) {
+        List<OutboxMessage> relayed;
+        try {
+            relayed = shards.inShard(Shards.MAIN, () -> {
+                leaderElection.checkFence();
+                return shards.inShard(shard, this::relayClaimed);
+            });
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox batch failed, will retry: {}", e.toString());
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxMessage message : relayed) {
+            lag.record(Duration.between(message.occurredAt(), now));
+        }
+        delivered.increment(relayed.size());
+        return relayed.size();
+    }
+
+    private List<OutboxMessage> relayClaimed() {
+        List<OutboxEvent> claimed = outboxEventRepository.claimBatch(Limit.of(batchSize));
+        if (claimed.isEmpty()) {
+            return List.of();
+        }
+        List<OutboxMessage> messages = claimed.stream()
+                .map(event -> new OutboxMessage(event.getId(), event.getEventType(),
+                        event.getAggregateId(), event.getPayload(), event.getCreatedAt()))
+                .toList();
+        for (OutboxSink sink : sinks) {
+            sink.deliver(messages);
+        }
+        outboxEventRepository.deleteAllInBatch(claimed);
+        return messages;
+    }
+}
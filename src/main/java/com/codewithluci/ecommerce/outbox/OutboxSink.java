@@ -0,0 +1,13 @@
+package com.codewithluci.ecommerce.outbox;
+
+import java.util.List;
+
+/**
+ * Destination for relayed outbox events. Every sink bean receives every batch,
+ * in id order. Throwing leaves the batch in the outbox to be retried, with
+ * all sinks, on the next relay run.
+ */
+public interface OutboxSink {
+
+    void deliver(List<OutboxMessage> batch);
+}
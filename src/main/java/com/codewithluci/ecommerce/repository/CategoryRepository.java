@@ -1,9 +1,13 @@
 package com.codewithluci.ecommerce.repository;
 
 import com.codewithluci.ecommerce.entity.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,9 +18,17 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     Optional<Category> findBySlug(String slug);
 
+    // Cached until any write to the categories table
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "category-queries")
+    })
     List<Category> findByIsActiveTrue();
 
     Boolean existsByName(String name);
 
     Boolean existsBySlug(String slug);
+
+    // Any category changed since a product snapshot was taken (names are in the snapshot)
+    boolean existsByUpdatedAtGreaterThanEqual(LocalDateTime since);
 }
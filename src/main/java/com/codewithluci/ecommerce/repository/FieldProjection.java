@@ -0,0 +1,158 @@
+package com.codewithluci.ecommerce.repository;
+
+import com.codewithluci.ecommerce.exception.InvalidFieldSelectionException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.PredicateSpecification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * Sparse-fieldset queries over one entity. Each response field maps to an
+ * expression; only the requested ones are selected, so unrequested columns
+ * and the joins behind them never reach the SQL. Rows come back as maps in
+ * field definition order.
+ */
+final class FieldProjection<E> {
+
+    // Same pattern as the @JsonFormat on response DTO timestamps
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Class<E> entityType;
+    private final Map<String, BiFunction<Root<E>, CriteriaBuilder, Expression<?>>> fields = new LinkedHashMap<>();
+
+    FieldProjection(Class<E> entityType) {
+        this.entityType = entityType;
+    }
+
+    FieldProjection<E> field(String name, BiFunction<Root<E>, CriteriaBuilder, Expression<?>> expression) {
+        fields.put(name, expression);
+        return this;
+    }
+
+    FieldProjection<E> attribute(String name) {
+        return field(name, (root, cb) -> root.get(name));
+    }
+
+    /**
+     * Parse a comma separated fields= value. Blank means every field.
+     * extraFields are accepted and returned but loaded by the caller.
+     */
+    Set<String> parse(String csv, String... extraFields) {
+        Set<String> known = new LinkedHashSet<>(fields.keySet());
+        known.addAll(Arrays.asList(extraFields));
+        if (csv == null || csv.isBlank()) {
+            return known;
+        }
+
+        Set<String> requested = new LinkedHashSet<>();
+        for (String part : csv.split(",")) {
+            String name = part.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!known.contains(name)) {
+                throw new InvalidFieldSelectionException(
+                        "Unknown field '" + name + "'. Available fields: " + String.join(",", known));
+            }
+            requested.add(name);
+        }
+
+        // Definition order, not request order
+        Set<String> selected = new LinkedHashSet<>(known);
+        selected.retainAll(requested);
+        return selected;
+    }
+
+    /**
+     * One page of rows holding the selected fields (names not defined here are
+     * skipped). Counts only when withTotal, otherwise reads one extra row to
+     * know if there is a next page.
+     */
+    Slice<Map<String, Object>> find(EntityManager entityManager, Set<String> selected,
+                                    PredicateSpecification<E> where, Pageable pageable, boolean withTotal) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(entityType);
+
+        List<String> columns = new ArrayList<>();
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String name : selected) {
+            BiFunction<Root<E>, CriteriaBuilder, Expression<?>> expression = fields.get(name);
+            if (expression != null) {
+                columns.add(name);
+                selections.add(expression.apply(root, cb).alias(name));
+            }
+        }
+        if (selections.isEmpty()) {
+            throw new InvalidFieldSelectionException("Select at least one field");
+        }
+        query.multiselect(selections);
+
+        Predicate predicate = where.toPredicate(root, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typed.setFirstResult((int) pageable.getOffset());
+            typed.setMaxResults(pageable.getPageSize() + (withTotal ? 0 : 1));
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : typed.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String column : columns) {
+                row.put(column, value(tuple.get(column)));
+            }
+            rows.add(row);
+        }
+
+        if (withTotal) {
+            return new PageImpl<>(rows, pageable, count(entityManager, where));
+        }
+        boolean hasNext = pageable.isPaged() && rows.size() > pageable.getPageSize();
+        List<Map<String, Object>> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return new SliceImpl<>(Collections.unmodifiableList(content), pageable, hasNext);
+    }
+
+    private long count(EntityManager entityManager, PredicateSpecification<E> where) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<E> root = query.from(entityType);
+        query.select(cb.count(root));
+        Predicate predicate = where.toPredicate(root, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Object value(Object value) {
+        return value instanceof LocalDateTime time ? TIMESTAMP.format(time) : value;
+    }
+}
@@ -0,0 +1,44 @@
+package com.codewithluci.ecommerce.repository;
+
+import com.codewithluci.ecommerce.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    // Take over an expired or released lease; 0 rows means someone else holds it
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = :owner, l.fencingToken = l.fencingToken + 1, " +
+            "l.expiresAt = :expiresAt, l.heartbeatAt = :now WHERE l.name = :name AND l.expiresAt < :now")
+    int acquire(@Param("name") String name, @Param("owner") String owner,
+                @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Extend a lease still held under the same token; 0 rows means it was taken over
+    @Modifying
+    @Query("UPDATE JobLease l SET l.expiresAt = :expiresAt, l.heartbeatAt = :now " +
+            "WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :token")
+    int renew(@Param("name") String name, @Param("owner") String owner, @Param("token") long token,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Row-locks the lease for the rest of the caller's transaction, so it can't be taken over before commit
+    @Modifying
+    @Query("UPDATE JobLease l SET l.heartbeatAt = :now " +
+            "WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :token")
+    int fence(@Param("name") String name, @Param("owner") String owner, @Param("token") long token,
+              @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = NULL, l.expiresAt = :now " +
+            "WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :token")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("token") long token,
+                @Param("now") LocalDateTime now);
+
+    @Query("SELECT l.fencingToken FROM JobLease l WHERE l.name = :name")
+    Long findFencingToken(@Param("name") String name);
+}
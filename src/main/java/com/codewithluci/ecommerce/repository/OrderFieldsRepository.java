@@ -0,0 +1,16 @@
+package com.codewithluci.ecommerce.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Map;
+
+/**
+ * A user's orders with only the requested fields (OrderResponse property
+ * names). Order items are loaded, in one extra query, only when "items" is
+ * requested. See FieldProjection.
+ */
+public interface OrderFieldsRepository {
+
+    Slice<Map<String, Object>> findUserOrderFields(String fields, Long userId, Pageable pageable, boolean withTotal);
+}
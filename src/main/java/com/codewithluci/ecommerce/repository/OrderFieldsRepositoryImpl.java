@@ -0,0 +1,105 @@
+package com.codewithluci.ecommerce.repository;
+
+import com.codewithluci.ecommerce.dto.respone.OrderItemResponse;
+import com.codewithluci.ecommerce.entity.Order;
+import com.codewithluci.ecommerce.entity.OrderItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class OrderFieldsRepositoryImpl implements OrderFieldsRepository {
+
+    private static final String ITEMS = "items";
+
+    // Same names and meaning as OrderResponse
+    private static final FieldProjection<Order> FIELDS = new FieldProjection<>(Order.class)
+            .attribute("id")
+            // FK column, no join
+            .field("userId", (root, cb) -> root.get("user").get("id"))
+            .field("username", (root, cb) -> root.join("user", JoinType.LEFT).get("username"))
+            .attribute("status")
+            .attribute("totalAmount")
+            .attribute("shippingAddress")
+            .attribute("notes")
+            .attribute("createdAt")
+            .attribute("updatedAt");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Map<String, Object>> findUserOrderFields(String fields, Long userId,
+                                                          Pageable pageable, boolean withTotal) {
+        Set<String> selected = FIELDS.parse(fields, ITEMS);
+        boolean withItems = selected.contains(ITEMS);
+        boolean withId = selected.contains("id");
+
+        Set<String> columns = new LinkedHashSet<>(selected);
+        if (withItems) {
+            // Needed to attach the items
+            columns.add("id");
+        }
+
+        Slice<Map<String, Object>> orders = FIELDS.find(entityManager, columns,
+                (root, cb) -> cb.equal(root.get("user").get("id"), userId), pageable, withTotal);
+
+        if (withItems) {
+            Map<Long, List<OrderItemResponse>> items = itemsByOrder(
+                    orders.getContent().stream().map(order -> (Long) order.get("id")).toList());
+            for (Map<String, Object> order : orders) {
+                Long id = (Long) (withId ? order.get("id") : order.remove("id"));
+                order.put(ITEMS, items.getOrDefault(id, List.of()));
+            }
+        }
+        return orders;
+    }
+
+    // One query for the items of every order on the page
+    private Map<Long, List<OrderItemResponse>> itemsByOrder(List<Long> orderIds) {
+        Map<Long, List<OrderItemResponse>> byOrder = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return byOrder;
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<OrderItem> item = query.from(OrderItem.class);
+        query.multiselect(
+                item.get("id").alias("id"),
+                item.get("order").get("id").alias("orderId"),
+                item.get("product").get("id").alias("productId"),
+                item.get("productName").alias("productName"),
+                item.get("price").alias("price"),
+                item.get("quantity").alias("quantity"),
+                item.get("subtotal").alias("subtotal"));
+        query.where(item.get("order").get("id").in(orderIds));
+        query.orderBy(cb.asc(item.get("id")));
+
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            byOrder.computeIfAbsent(row.get("orderId", Long.class), id -> new ArrayList<>())
+                    .add(OrderItemResponse.builder()
+                            .id(row.get("id", Long.class))
+                            .productId(row.get("productId", Long.class))
+                            .productName(row.get("productName", String.class))
+                            .price(row.get("price", BigDecimal.class))
+                            .quantity(row.get("quantity", Integer.class))
+                            .subtotal(row.get("subtotal", BigDecimal.class))
+                            .build());
+        }
+        return byOrder;
+    }
+}
@@ -1,9 +1,13 @@
 package com.codewithluci.ecommerce.repository;
 
 import com.codewithluci.ecommerce.entity.OrderItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -14,4 +18,10 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     // Find all orders containing a specific product (for analytics)
     List<OrderItem> findByProductId(Long productId);
+
+    // Best sellers since a point in time by units ordered, most first (page size = how many).
+    // Ranged on orders.created_at (idx_orders_created), items found through their order_id
+    @Query("SELECT oi.product.id FROM OrderItem oi JOIN oi.order o WHERE o.createdAt >= :since " +
+            "GROUP BY oi.product.id ORDER BY SUM(oi.quantity) DESC")
+    List<Long> findTopSellingProductIds(@Param("since") LocalDateTime since, Pageable pageable);
 }
\ No newline at end of file
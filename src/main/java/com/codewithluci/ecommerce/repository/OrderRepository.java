@@ -4,21 +4,33 @@ import com.codewithluci.ecommerce.entity.Order;
 import com.codewithluci.ecommerce.entity.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderFieldsRepository {
+
+    // Page queries fetch the user (and the inverse one-to-one payment, which Hibernate
+    // would otherwise load per order) in the same select; items are batch-loaded
+    // (see Order.orderItems). Slice variants skip the COUNT query.
+    // fields= lists come from OrderFieldsRepository.
 
     // Find all orders by user
+    @EntityGraph(attributePaths = {"user", "payment"})
     Page<Order> findByUserId(Long userId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "payment"})
+    Slice<Order> findSliceByUserId(Long userId, Pageable pageable);
+
     // Find orders by user and status
     Page<Order> findByUserIdAndStatus(Long userId, OrderStatus status, Pageable pageable);
 
@@ -34,5 +46,40 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findByIdWithItems(@Param("orderId") Long orderId);
 
     // Admin: Get all orders with filters
+    @EntityGraph(attributePaths = {"user", "payment"})
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "payment"})
+    Slice<Order> findSliceByStatus(OrderStatus status, Pageable pageable);
+
+    // Admin: Get all orders
+    @Override
+    @EntityGraph(attributePaths = {"user", "payment"})
+    Page<Order> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "payment"})
+    Slice<Order> findSliceBy(Pageable pageable);
+
+    // Shard variants: users live on the main database only, so queries run on
+    // another shard (see Shards) must not join them
+    @EntityGraph(attributePaths = "payment")
+    Page<Order> findShardPageByUserId(Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "payment")
+    Slice<Order> findShardSliceByUserId(Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "payment")
+    Page<Order> findShardPageByStatus(OrderStatus status, Pageable pageable);
+
+    @EntityGraph(attributePaths = "payment")
+    Slice<Order> findShardSliceByStatus(OrderStatus status, Pageable pageable);
+
+    @EntityGraph(attributePaths = "payment")
+    Page<Order> findShardPageBy(Pageable pageable);
+
+    @EntityGraph(attributePaths = "payment")
+    Slice<Order> findShardSliceBy(Pageable pageable);
+
+    @EntityGraph(attributePaths = "payment")
+    List<Order> findShardByIdIn(Collection<Long> ids);
 }
\ No newline at end of file
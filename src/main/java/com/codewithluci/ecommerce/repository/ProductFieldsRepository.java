@@ -0,0 +1,21 @@
+package com.codewithluci.ecommerce.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Map;
+
+/**
+ * Active product lists that select only the requested fields
+ * (ProductResponse property names). See FieldProjection.
+ */
+public interface ProductFieldsRepository {
+
+    /**
+     * @param fields       comma separated field names, blank for all
+     * @param categoryId   only this category, or null
+     * @param nameContains case-insensitive name filter, or null
+     */
+    Slice<Map<String, Object>> findActiveProductFields(String fields, Long categoryId, String nameContains,
+                                                       Pageable pageable, boolean withTotal);
+}
@@ -0,0 +1,51 @@
+package com.codewithluci.ecommerce.repository;
+
+import com.codewithluci.ecommerce.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.PredicateSpecification;
+
+import java.util.Map;
+
+class ProductFieldsRepositoryImpl implements ProductFieldsRepository {
+
+    // Same names and meaning as ProductResponse
+    private static final FieldProjection<Product> FIELDS = new FieldProjection<>(Product.class)
+            .attribute("id")
+            .attribute("name")
+            .attribute("description")
+            .attribute("price")
+            .attribute("stockQuantity")
+            .attribute("imageUrl")
+            .attribute("sku")
+            .attribute("isActive")
+            .field("inStock", (root, cb) -> cb.<Boolean>selectCase()
+                    .when(cb.gt(root.get("stockQuantity"), 0), true)
+                    .otherwise(false))
+            // FK column, no join
+            .field("categoryId", (root, cb) -> root.get("category").get("id"))
+            .field("categoryName", (root, cb) -> root.join("category", JoinType.LEFT).get("name"))
+            .attribute("createdAt");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Map<String, Object>> findActiveProductFields(String fields, Long categoryId, String nameContains,
+                                                              Pageable pageable, boolean withTotal) {
+        PredicateSpecification<Product> where = (root, cb) -> cb.isTrue(root.get("isActive"));
+        if (categoryId != null) {
+            where = where.and((root, cb) -> cb.equal(root.get("category").get("id"), categoryId));
+        }
+        if (nameContains != null) {
+            // Escaped like the derived ...NameContainingIgnoreCase queries
+            String pattern = "%" + nameContains.toLowerCase()
+                    .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            where = where.and((root, cb) -> cb.like(cb.lower(root.get("name")), pattern, '\\'));
+        }
+        return FIELDS.find(entityManager, FIELDS.parse(fields), where, pageable, withTotal);
+    }
+}
@@ -1,8 +1,11 @@
 package com.codewithluci.ecommerce.repository;
 
 import com.codewithluci.ecommerce.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,28 +13,58 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductFieldsRepository {
+
+    // List queries fetch the category in the same select - mapToResponse reads its name.
+    // The lazy description is left out of them; single-product reads fetch it along.
+    // The Slice variants fetch one extra row to know if there is a next page, no COUNT.
+    // fields= lists come from ProductFieldsRepository.
 
     // Find active products by category
+    @EntityGraph(attributePaths = "category")
     Page<Product> findByCategoryIdAndIsActiveTrue(Long categoryId, Pageable pageable);
 
+    @EntityGraph(attributePaths = "category")
+    Slice<Product> findSliceByCategoryIdAndIsActiveTrue(Long categoryId, Pageable pageable);
+
     // Find all active products (paginated)
+    @EntityGraph(attributePaths = "category")
     Page<Product> findByIsActiveTrue(Pageable pageable);
 
+    @EntityGraph(attributePaths = "category")
+    Slice<Product> findSliceByIsActiveTrue(Pageable pageable);
+
     // Search by name (case-insensitive)
+    @EntityGraph(attributePaths = "category")
     Page<Product> findByNameContainingIgnoreCaseAndIsActiveTrue(
             String name, Pageable pageable);
 
+    @EntityGraph(attributePaths = "category")
+    Slice<Product> findSliceByNameContainingIgnoreCaseAndIsActiveTrue(
+            String name, Pageable pageable);
+
+    // One product with everything ProductResponse shows, in one select
+    @EntityGraph(attributePaths = {"category", "description"})
+    Optional<Product> findWithDetailsById(Long id);
+
     // Find by SKU
     Optional<Product> findBySku(String sku);
 
     // Check SKU exists
     Boolean existsBySku(String sku);
 
+    // Product count for one category
+    long countByCategoryId(Long categoryId);
+
+    // Product counts for all categories in one query: [categoryId, count]
+    @Query("SELECT p.category.id, COUNT(p) FROM Product p GROUP BY p.category.id")
+    List<Object[]> countProductsGroupedByCategory();
+
     // Find products with low stock (for admin alerts)
     List<Product> findByStockQuantityLessThanAndIsActiveTrue(Integer threshold);
 
@@ -39,10 +72,28 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> findByPriceBetweenAndIsActiveTrue(
             BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
 
+    // Every product in id order, one keyset page at a time (product snapshot)
+    @EntityGraph(attributePaths = {"category", "description"})
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Products changed since a snapshot was taken
+    @Query("SELECT p.id FROM Product p WHERE p.updatedAt >= :since")
+    List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
+
     // Custom JPQL query - update stock directly (efficient, no entity load)
+    // Bulk update: Hibernate evicts the whole "product" cache region around it,
+    // so cached products never show the old stock. Bypasses auditing, so it
+    // sets updatedAt itself for findIdsUpdatedSince.
     @Modifying
-    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity " +
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = LOCAL DATETIME " +
             "WHERE p.id = :productId AND p.stockQuantity >= :quantity")
     int reduceStock(@Param("productId") Long productId,
                     @Param("quantity") int quantity);
+
+    // Stock given back by a cancelled order; same cache behaviour as reduceStock
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.updatedAt = LOCAL DATETIME " +
+            "WHERE p.id = :productId")
+    int restoreStock(@Param("productId") Long productId,
+                     @Param("quantity") int quantity);
 }
@@ -0,0 +1,37 @@
+package com.codewithluci.ecommerce.repository;
+
+import com.codewithluci.ecommerce.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    Boolean existsByTokenId(String tokenId);
+
+    // Leaves an existing row for the token alone (token_id is unique), so concurrent
+    // revocations of one token can't fail each other
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (token_id, username, expires_at, revoked_by, created_at, updated_at) " +
+            "VALUES (:tokenId, :username, :expiresAt, :revokedBy, :now, :now) " +
+            "ON DUPLICATE KEY UPDATE token_id = token_id", nativeQuery = true)
+    int insertIfAbsent(@Param("tokenId") String tokenId, @Param("username") String username,
+                       @Param("expiresAt") LocalDateTime expiresAt, @Param("revokedBy") String revokedBy,
+                       @Param("now") LocalDateTime now);
+
+    // Still-valid revocations, used to rebuild the in-memory filter
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    // Revocations written by any node since the last poll
+    List<RevokedToken> findByIdGreaterThanOrderByIdAsc(Long lastSeenId);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
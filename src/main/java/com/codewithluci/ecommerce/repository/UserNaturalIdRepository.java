@@ -0,0 +1,14 @@
+package com.codewithluci.ecommerce.repository;
+
+import com.codewithluci.ecommerce.entity.User;
+
+import java.util.Optional;
+
+/**
+ * Lookups that go through Hibernate's natural-id API instead of a JPQL query,
+ * so they can be answered from the second-level cache.
+ */
+public interface UserNaturalIdRepository {
+
+    Optional<User> findByUsername(String username);
+}
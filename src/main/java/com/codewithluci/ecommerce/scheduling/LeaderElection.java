@@ -0,0 +1,170 @@
+package com.codewithluci.ecommerce.scheduling;
+
+import com.codewithluci.ecommerce.entity.JobLease;
+import com.codewithluci.ecommerce.exception.LeaseLostException;
+import com.codewithluci.ecommerce.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lease-based leader election over the job_leases table, so background jobs
+ * marked @LeaderOnly run on one instance at a time.
+ *
+ * Every instance heartbeats: the leader extends its lease, the others try to
+ * take it over once it has expired. A leader that dies stops renewing and is
+ * replaced within lease-ms + heartbeat-ms. An instance considers itself leader
+ * only until lease-ms after its last successful renewal started, measured on
+ * its own monotonic clock.
+ *
+ * A paused leader can still wake up mid-job after losing the lease, and
+ * instance clocks can disagree. Each takeover increments the fencing token,
+ * and jobs call checkFence() inside their transaction before writing: it
+ * fails once the token has moved on and locks the lease row until commit.
+ */
+@Component
+@Slf4j
+public class LeaderElection {
+
+    private final String owner = UUID.randomUUID().toString();
+    private final String name;
+    private final JobLeaseRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final long leaseMillis;
+
+    // Written under this; token 0 = not leader
+    private volatile long fencingToken;
+    private volatile long leaderUntilNanos;
+    private boolean rowExists;
+
+    public LeaderElection(
+            JobLeaseRepository repository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry registry,
+            @Value("${scheduler.leader.name:scheduler}") String name,
+            @Value("${scheduler.leader.lease-ms:5000}") long leaseMillis) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Heartbeats must not join a caller's transaction or wait for it
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.name = name;
+        this.leaseMillis = leaseMillis;
+
+        Gauge.builder("scheduler.leader", this, election -> election.isLeader() ? 1 : 0)
+                .description("1 while this instance holds the scheduler lease")
+                .tag("lease", name)
+                .register(registry);
+    }
+
+    /**
+     * Renew the lease if held, otherwise try to take it over
+     */
+    @Scheduled(fixedDelayString = "${scheduler.leader.heartbeat-ms:1000}")
+    public synchronized void heartbeat() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusNanos(TimeUnit.MILLISECONDS.toNanos(leaseMillis));
+        try {
+            if (fencingToken != 0) {
+                Integer renewed = transactionTemplate.execute(status ->
+                        repository.renew(name, owner, fencingToken, now, expiresAt));
+                if (renewed != null && renewed == 1) {
+                    leaderUntilNanos = started + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+                    return;
+                }
+                log.warn("Lost lease {} (token {}) to another instance", name, fencingToken);
+                fencingToken = 0;
+            }
+
+            ensureRow();
+            Long acquired = transactionTemplate.execute(status ->
+                    repository.acquire(name, owner, now, expiresAt) == 1 ? repository.findFencingToken(name) : 0L);
+            if (acquired != null && acquired != 0) {
+                leaderUntilNanos = started + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+                fencingToken = acquired;
+                log.info("Acquired lease {} with token {}", name, acquired);
+            }
+        } catch (DataAccessException e) {
+            // A held lease lapses on its own if the database stays unreachable
+            log.warn("Lease {} heartbeat failed: {}", name, e.toString());
+        }
+    }
+
+    public boolean isLeader() {
+        return fencingToken != 0 && System.nanoTime() - leaderUntilNanos < 0;
+    }
+
+    /**
+     * Token of the lease this instance holds, 0 when it holds none
+     */
+    public long getFencingToken() {
+        return isLeader() ? fencingToken : 0;
+    }
+
+    /**
+     * Fails unless this instance still holds the lease under the same token.
+     * Call inside the job's transaction before it writes: the lease row stays
+     * locked until that transaction ends, so no takeover can happen in between.
+     */
+    public void checkFence() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("checkFence() must run inside the job's transaction");
+        }
+        long token = fencingToken;
+        if (token == 0 || repository.fence(name, owner, token, LocalDateTime.now()) == 0) {
+            throw new LeaseLostException("Lease " + name + " is no longer held under token " + token);
+        }
+    }
+
+    /**
+     * Give the lease up so another instance can take over without waiting for it to expire
+     */
+    @PreDestroy
+    public synchronized void release() {
+        if (fencingToken == 0) {
+            return;
+        }
+        long token = fencingToken;
+        fencingToken = 0;
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    repository.release(name, owner, token, LocalDateTime.now()));
+            log.info("Released lease {} (token {})", name, token);
+        } catch (DataAccessException e) {
+            log.warn("Could not release lease {}: {}", name, e.toString());
+        }
+    }
+
+    // Caller holds this
+    private void ensureRow() {
+        if (rowExists) {
+            return;
+        }
+        if (!repository.existsById(name)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> repository.saveAndFlush(JobLease.builder()
+                        .name(name)
+                        .fencingToken(0L)
+                        .expiresAt(LocalDateTime.of(1970, 1, 1, 0, 0))
+                        .build()));
+            } catch (DataAccessException e) {
+                // Another instance inserted it first
+                log.debug("Lease {} row already created: {}", name, e.toString());
+            }
+        }
+        rowExists = true;
+    }
+}
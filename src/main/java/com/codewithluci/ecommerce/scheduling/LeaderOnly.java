@@ -0,0 +1,16 @@
+package com.codewithluci.ecommerce.scheduling;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Scheduled job that runs only on the instance holding the scheduler lease;
+ * elsewhere the call is skipped. Jobs that write should also call
+ * LeaderElection.checkFence() in their transaction.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LeaderOnly {
+}
@@ -0,0 +1,39 @@
+package com.codewithluci.ecommerce.scheduling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Skips @LeaderOnly methods on instances that don't hold the scheduler lease.
+ * Ordered ahead of @Transactional so a skipped run doesn't open a transaction.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class LeaderOnlyAspect {
+
+    private final LeaderElection leaderElection;
+    private final MeterRegistry meterRegistry;
+
+    @Around("@annotation(com.codewithluci.ecommerce.scheduling.LeaderOnly)")
+    public Object runOnLeader(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean leader = leaderElection.isLeader();
+        String job = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        Counter.builder("scheduler.jobs")
+                .description("Leader-only job invocations, run here or skipped")
+                .tag("job", job)
+                .tag("outcome", leader ? "run" : "skipped")
+                .register(meterRegistry)
+                .increment();
+        return leader ? joinPoint.proceed() : null;
+    }
+}
@@ -0,0 +1,236 @@
+package com.codewithluci.ecommerce.security;
+
+import com.codewithluci.ecommerce.web.ErrorResponses;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles /api/auth/login and /api/auth/register before any BCrypt hash or
+ * user lookup happens. Login is limited per client IP and per usernameOrEmail,
+ * register per client IP. Runs ahead of JwtAuthenticationFilter.
+ */
+@Component
+@Slf4j
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/api/auth/login";
+    private static final String REGISTER_PATH = "/api/auth/register";
+    private static final int MAX_BUFFERED_BODY = 16 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final TokenBucketRateLimiter ipLimiter;
+    private final TokenBucketRateLimiter accountLimiter;
+    private final boolean enabled;
+    private final boolean trustForwardedFor;
+
+    private final Counter ipRejections;
+    private final Counter accountRejections;
+    private final Counter oversizeRejections;
+
+    public AuthRateLimitFilter(
+            ObjectMapper objectMapper,
+            MeterRegistry registry,
+            @Value("${ratelimit.auth.enabled:true}") boolean enabled,
+            @Value("${ratelimit.auth.trust-forwarded-for:false}") boolean trustForwardedFor,
+            @Value("${ratelimit.auth.ip.capacity:20}") long ipCapacity,
+            @Value("${ratelimit.auth.ip.refill-per-minute:10}") long ipRefillPerMinute,
+            @Value("${ratelimit.auth.account.capacity:5}") long accountCapacity,
+            @Value("${ratelimit.auth.account.refill-per-minute:2}") long accountRefillPerMinute,
+            @Value("${ratelimit.auth.max-entries:100000}") int maxEntries) {
+
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.trustForwardedFor = trustForwardedFor;
+        this.ipLimiter = new TokenBucketRateLimiter(ipCapacity, ipRefillPerMinute, maxEntries);
+        this.accountLimiter = new TokenBucketRateLimiter(accountCapacity, accountRefillPerMinute, maxEntries);
+
+        this.ipRejections = Counter.builder("auth.ratelimit.rejections")
+                .description("Auth requests rejected by the rate limiter")
+                .tag("key", "ip")
+                .register(registry);
+        this.accountRejections = Counter.builder("auth.ratelimit.rejections")
+                .description("Auth requests rejected by the rate limiter")
+                .tag("key", "account")
+                .register(registry);
+        this.oversizeRejections = Counter.builder("auth.ratelimit.rejections")
+                .description("Auth requests rejected by the rate limiter")
+                .tag("key", "oversize-body")
+                .register(registry);
+        Gauge.builder("auth.ratelimit.buckets", ipLimiter, TokenBucketRateLimiter::size)
+                .tag("key", "ip")
+                .register(registry);
+        Gauge.builder("auth.ratelimit.buckets", accountLimiter, TokenBucketRateLimiter::size)
+                .tag("key", "account")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (!enabled || !"POST".equalsIgnoreCase(request.getMethod())) {
+            return true;
+        }
+        String path = request.getServletPath();
+        return !LOGIN_PATH.equals(path) && !REGISTER_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        String clientIp = getClientIp(request);
+        long wait = ipLimiter.tryAcquire(clientIp);
+        if (wait > 0) {
+            ipRejections.increment();
+            log.warn("Rate limit exceeded for IP: {} on {}", clientIp, request.getServletPath());
+            reject(response, wait);
+            return;
+        }
+
+        if (LOGIN_PATH.equals(request.getServletPath())) {
+            // No login form is this big. Passing it on unread would skip the account
+            // limit, reading all of it (chunked bodies have no length) could exhaust memory
+            byte[] body = request.getContentLengthLong() > MAX_BUFFERED_BODY
+                    ? null
+                    : request.getInputStream().readNBytes(MAX_BUFFERED_BODY + 1);
+            if (body == null || body.length > MAX_BUFFERED_BODY) {
+                oversizeRejections.increment();
+                log.warn("Oversized login body from IP: {}", clientIp);
+                ErrorResponses.write(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Request body too large");
+                return;
+            }
+            CachedBodyRequest cached = new CachedBodyRequest(request, body);
+            String account = extractAccount(cached.body);
+
+            if (account != null) {
+                wait = accountLimiter.tryAcquire(account);
+                if (wait > 0) {
+                    accountRejections.increment();
+                    log.warn("Rate limit exceeded for account: {}", account);
+                    reject(response, wait);
+                    return;
+                }
+            }
+            filterChain.doFilter(cached, response);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String getClientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (StringUtils.hasText(forwarded)) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private String extractAccount(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(body).get("usernameOrEmail");
+            if (node == null || !node.isString() || !StringUtils.hasText(node.asString())) {
+                return null;
+            }
+            return node.asString().trim().toLowerCase(Locale.ROOT);
+        } catch (Exception e) {
+            // Malformed body - let validation reject it, IP limit still applies
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        ErrorResponses.write(response, 429, "Too many attempts, try again later", retryAfter);
+    }
+
+    /**
+     * Request wrapper that buffers the body so it can be read here and again by the controller
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory: it is available at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -2,8 +2,11 @@ package com.codewithluci.ecommerce.security;
 
 
 import com.codewithluci.ecommerce.dto.request.LoginRequest;
+import com.codewithluci.ecommerce.dto.request.RefreshTokenRequest;
 import com.codewithluci.ecommerce.dto.respone.JwtResponse;
 
 public interface AuthService {
     JwtResponse login(LoginRequest request);
+    JwtResponse refresh(RefreshTokenRequest request);
+    void logout(String accessToken, AuthUser user);
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.codewithluci.ecommerce.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Principal built from access token claims - carries the user id so
+ * controllers don't need a users table lookup per request
+ */
+@Getter
+public class AuthUser extends User {
+
+    private final Long userId;
+    private final String sessionId;
+
+    public AuthUser(Long userId, String username, String sessionId,
+                    Collection<? extends GrantedAuthority> authorities) {
+        super(username, "", authorities);
+        this.userId = userId;
+        this.sessionId = sessionId;
+    }
+}
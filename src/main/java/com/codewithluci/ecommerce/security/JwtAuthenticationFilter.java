@@ -1,6 +1,10 @@
 package com.codewithluci.ecommerce.security;
 
 import com.codewithluci.ecommerce.exception.JwtAuthenticationException;
+import com.codewithluci.ecommerce.web.ErrorResponses;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,14 +13,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -24,7 +29,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final CustomUserDetailsService customUserDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -39,49 +45,77 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
 
+        // Time only the authentication work, not the rest of the chain
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "anonymous";
+
         try {
             String jwt = getJwtFromRequest(request);
 
             if (StringUtils.hasText(jwt)) {
-                if (!jwtUtil.validateToken(jwt)) {
+                // Single parse: signature + expiry + claims
+                Claims claims = jwtUtil.parseToken(jwt);
+                if (claims == null) {
                     throw new JwtAuthenticationException("Invalid or expired JWT token");
                 }
 
-                String username = jwtUtil.extractUsername(jwt);
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
-
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails,
-                                    null,
-                                    userDetails.getAuthorities()
-                            );
-
-                    authentication.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request)
-                    );
+                // Bloom filter fast path - no DB query unless the token looks revoked
+                if (tokenRevocationService.isRevoked(claims.getId())) {
+                    throw new JwtAuthenticationException("Token has been revoked");
+                }
 
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    log.debug("Set authentication for user: {}", username);
+                // Identity and role come from the token itself - no users table lookup
+                String username = claims.getSubject();
+                Number userId = claims.get(JwtUtil.CLAIM_USER_ID, Number.class);
+                String role = claims.get(JwtUtil.CLAIM_ROLE, String.class);
+                if (username == null || userId == null || role == null) {
+                    throw new JwtAuthenticationException("Invalid or expired JWT token");
                 }
+
+                AuthUser principal = new AuthUser(
+                        userId.longValue(),
+                        username,
+                        claims.get(JwtUtil.CLAIM_SESSION_ID, String.class),
+                        List.of(new SimpleGrantedAuthority("ROLE_" + role))
+                );
+
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(
+                                principal,
+                                null,
+                                principal.getAuthorities()
+                        );
+
+                authentication.setDetails(
+                        new WebAuthenticationDetailsSource().buildDetails(request)
+                );
+
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                log.debug("Set authentication for user: {}", username);
+                outcome = "authenticated";
             }
         } catch (JwtAuthenticationException ex) {
+            stopTimer(sample, "rejected");
             log.error("JWT authentication failed: {}", ex.getMessage());
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.setContentType("application/json");
-            response.getWriter().write(
-                    "{\"success\":false,\"message\":\"" + ex.getMessage() + "\",\"timestamp\":\"" +
-                            java.time.LocalDateTime.now() + "\"}"
-            );
+            ErrorResponses.write(response, HttpServletResponse.SC_UNAUTHORIZED, ex.getMessage());
             return;  // Don't continue filter chain
         } catch (Exception ex) {
+            outcome = "error";
             log.error("Could not set user authentication in security context", ex);
         }
 
+        stopTimer(sample, outcome);
         filterChain.doFilter(request, response);
     }
 
+    private void stopTimer(Timer.Sample sample, String outcome) {
+        sample.stop(Timer.builder("auth.jwt.filter")
+                .description("Time spent authenticating the bearer token")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
     /**
      * Extract JWT token from Authorization header
      */
@@ -115,7 +149,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 4. Extract username from token
    └─ "johndoe"
 
-           5. Load user from database
+           5. Read user id + role from claims (no database lookup)
    └─ Get authorities (ROLE_USER)
 
 6. Create Authentication object
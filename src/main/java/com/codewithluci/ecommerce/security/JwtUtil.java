@@ -15,6 +15,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
@@ -24,9 +25,14 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String SECRET_KEY;
 
-    @Value("${jwt.expiration}")
+    // Access tokens are verified from claims only, so keep them short-lived
+    @Value("${jwt.access-expiration:900000}")
     private Long JWT_EXPIRATION;
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_SESSION_ID = "sid";  // refresh token family
+
     /**
      * Generate JWT token for user
      */
@@ -43,6 +49,20 @@ public class JwtUtil {
         return createToken(claims, userDetails.getUsername());
     }
 
+    /**
+     * Generate token for a username with custom claims
+     */
+    public String generateToken(String username, Map<String, Object> additionalClaims) {
+        return createToken(new HashMap<>(additionalClaims), username);
+    }
+
+    /**
+     * Access token lifetime in milliseconds
+     */
+    public long getExpirationMillis() {
+        return JWT_EXPIRATION;
+    }
+
     /**
      * Create JWT token with claims and subject
      */
@@ -53,6 +73,7 @@ public class JwtUtil {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString())  // jti - lets a single token be revoked
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
@@ -74,6 +95,13 @@ public class JwtUtil {
         return extractClaim(token, Claims::getSubject);
     }
 
+    /**
+     * Extract token id (jti) from token, null for tokens issued without one
+     */
+    public String extractTokenId(String token) {
+        return extractClaim(token, Claims::getId);
+    }
+
     /**
      * Extract expiration date from token
      */
@@ -115,6 +143,19 @@ public class JwtUtil {
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
 
+    /**
+     * Verify signature and expiry and return the claims in one parse,
+     * or null when the token is invalid
+     */
+    public Claims parseToken(String token) {
+        try {
+            return extractAllClaims(token);
+        } catch (Exception e) {
+            log.error("Invalid JWT token: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Validate token (without user details)
      */
@@ -0,0 +1,10 @@
+package com.codewithluci.ecommerce.security;
+
+import com.codewithluci.ecommerce.entity.RefreshToken;
+import com.codewithluci.ecommerce.entity.User;
+
+public interface RefreshTokenService {
+    String issue(User user, String familyId);
+    RefreshToken rotate(String rawToken);
+    void revokeFamily(String familyId);
+}
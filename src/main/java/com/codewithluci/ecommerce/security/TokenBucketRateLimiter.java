@@ -0,0 +1,127 @@
+package com.codewithluci.ecommerce.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket keyed by an arbitrary string (client IP, account name...).
+ *
+ * Each bucket is a single AtomicLong holding its "theoretical arrival time"
+ * (GCRA form of a token bucket): the instant at which the bucket would be full
+ * again. Acquiring a token is one CAS, no locks.
+ *
+ * Buckets live in striped maps. A bucket whose arrival time is in the past is
+ * full, so dropping it changes nothing - that is what idle eviction removes.
+ * When a stripe is still over its share of maxEntries after a sweep, new keys
+ * share one overflow bucket, so memory stays bounded under key-spraying traffic.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final long capacity;
+    private final long nanosPerToken;
+    private final int maxEntriesPerStripe;
+    private final long sweepIntervalNanos;
+    private final LongSupplier clock;
+
+    @SuppressWarnings("unchecked")
+    private final Map<String, AtomicLong>[] stripes = new Map[STRIPES];
+    private final AtomicLong[] overflowBuckets = new AtomicLong[STRIPES];
+    private final AtomicLong[] lastSweep = new AtomicLong[STRIPES];
+
+    public TokenBucketRateLimiter(long capacity, long refillPerMinute, int maxEntries) {
+        this(capacity, refillPerMinute, maxEntries, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(long capacity, long refillPerMinute, int maxEntries, LongSupplier clock) {
+        if (capacity < 1 || refillPerMinute < 1) {
+            throw new IllegalArgumentException("capacity and refillPerMinute must be positive");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = 60_000_000_000L / refillPerMinute;
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / STRIPES);
+        // A bucket that was drained completely is full again after this long
+        this.sweepIntervalNanos = Math.min(nanosPerToken * capacity, 60_000_000_000L);
+        this.clock = clock;
+
+        long now = clock.getAsLong();
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+            overflowBuckets[i] = new AtomicLong(now);
+            lastSweep[i] = new AtomicLong(now);
+        }
+    }
+
+    /**
+     * Try to take one token for the key.
+     *
+     * @return 0 if the token was granted, otherwise nanos until one is available
+     */
+    public long tryAcquire(String key) {
+        long now = clock.getAsLong();
+        AtomicLong bucket = bucketFor(stripe(key), key, now);
+
+        long burst = nanosPerToken * capacity;
+        while (true) {
+            long tat = bucket.get();
+            long newTat = Math.max(tat, now) + nanosPerToken;
+            long wait = newTat - now - burst;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Number of keys currently tracked (overflow buckets not included).
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    static int stripe(String key) {
+        return (key.hashCode() ^ (key.hashCode() >>> 16)) & (STRIPES - 1);
+    }
+
+    private AtomicLong bucketFor(int stripe, String key, long now) {
+        Map<String, AtomicLong> map = stripes[stripe];
+
+        AtomicLong bucket = map.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        maybeSweep(stripe, now);
+
+        if (map.size() >= maxEntriesPerStripe) {
+            sweep(stripe, now);
+            if (map.size() >= maxEntriesPerStripe) {
+                return overflowBuckets[stripe];
+            }
+        }
+
+        return map.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private void maybeSweep(int stripe, long now) {
+        long last = lastSweep[stripe].get();
+        if (now - last >= sweepIntervalNanos && lastSweep[stripe].compareAndSet(last, now)) {
+            sweep(stripe, now);
+        }
+    }
+
+    // Full buckets carry no state, removing them is safe
+    private void sweep(int stripe, long now) {
+        stripes[stripe].entrySet().removeIf(e -> e.getValue().get() <= now);
+    }
+}
@@ -0,0 +1,6 @@
+package com.codewithluci.ecommerce.security;
+
+public interface TokenRevocationService {
+    void revoke(String token, String revokedBy);
+    boolean isRevoked(String tokenId);
+}
@@ -2,12 +2,18 @@ package com.codewithluci.ecommerce.security.impl;
 
 
 import com.codewithluci.ecommerce.dto.request.LoginRequest;
+import com.codewithluci.ecommerce.dto.request.RefreshTokenRequest;
 import com.codewithluci.ecommerce.dto.respone.JwtResponse;
+import com.codewithluci.ecommerce.entity.RefreshToken;
 import com.codewithluci.ecommerce.entity.User;
 import com.codewithluci.ecommerce.exception.InvalidCredentialsException;
 import com.codewithluci.ecommerce.repository.UserRepository;
 import com.codewithluci.ecommerce.security.AuthService;
+import com.codewithluci.ecommerce.security.AuthUser;
 import com.codewithluci.ecommerce.security.JwtUtil;
+import com.codewithluci.ecommerce.security.RefreshTokenService;
+import com.codewithluci.ecommerce.security.TokenRevocationService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,6 +24,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -26,9 +36,12 @@ public class AuthServiceImpl implements AuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
-    @Transactional(readOnly = true)
+    @Timed(value = "auth.login", histogram = true)
+    @Transactional
     public JwtResponse login(LoginRequest request) {
         log.info("Login attempt for user: {}", request.getUsernameOrEmail());
 
@@ -44,29 +57,70 @@ public class AuthServiceImpl implements AuthService {
             // Get authenticated user details
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
-            // Generate JWT token
-            String token = jwtUtil.generateToken(userDetails);
-
-            // Fetch user entity for additional info
+            // Fetch user entity for token claims and additional info
             User user = userRepository.findByUsername(userDetails.getUsername())
                     .or(() -> userRepository.findByEmail(userDetails.getUsername()))
                     .orElseThrow(() -> new InvalidCredentialsException("User not found"));
 
             log.info("User logged in successfully: {}", user.getUsername());
 
-            // Build response
-            return JwtResponse.builder()
-                    .token(token)
-                    .type("Bearer")
-                    .userId(user.getId())
-                    .username(user.getUsername())
-                    .email(user.getEmail())
-                    .role(user.getRole().name())
-                    .build();
+            // New session = new refresh token family
+            return buildTokenResponse(user, UUID.randomUUID().toString());
 
         } catch (AuthenticationException e) {
             log.warn("Failed login attempt for: {}", request.getUsernameOrEmail());
             throw new InvalidCredentialsException("Invalid username or password");
         }
     }
+
+    @Override
+    @Transactional(noRollbackFor = InvalidCredentialsException.class)
+    public JwtResponse refresh(RefreshTokenRequest request) {
+        RefreshToken used = refreshTokenService.rotate(request.getRefreshToken());
+        User user = used.getUser();
+
+        // Deactivation takes effect at the next refresh
+        if (!user.getIsActive()) {
+            refreshTokenService.revokeFamily(used.getFamilyId());
+            throw new InvalidCredentialsException("User account is deactivated");
+        }
+
+        log.debug("Refreshing tokens for user: {}", user.getUsername());
+        return buildTokenResponse(user, used.getFamilyId());
+    }
+
+    @Override
+    @Transactional
+    public void logout(String accessToken, AuthUser user) {
+        tokenRevocationService.revoke(accessToken, user.getUsername());
+        if (user.getSessionId() != null) {
+            refreshTokenService.revokeFamily(user.getSessionId());
+        }
+        log.info("User logged out: {}", user.getUsername());
+    }
+
+    /**
+     * Short-lived access token (claims carry everything the filter needs)
+     * plus a fresh refresh token in the given family
+     */
+    private JwtResponse buildTokenResponse(User user, String familyId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtUtil.CLAIM_USER_ID, user.getId());
+        claims.put(JwtUtil.CLAIM_ROLE, user.getRole().name());
+        claims.put(JwtUtil.CLAIM_SESSION_ID, familyId);
+
+        String token = jwtUtil.generateToken(user.getUsername(), claims);
+        String refreshToken = refreshTokenService.issue(user, familyId);
+
+        return JwtResponse.builder()
+                .token(token)
+                .refreshToken(refreshToken)
+                .expiresIn(jwtUtil.getExpirationMillis() / 1000)
+                .type("Bearer")
+                .userId(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .role(user.getRole().name())
+                .build();
+    }
 }
@@ -0,0 +1,108 @@
+package com.codewithluci.ecommerce.security.impl;
+
+import com.codewithluci.ecommerce.entity.RefreshToken;
+import com.codewithluci.ecommerce.entity.User;
+import com.codewithluci.ecommerce.exception.InvalidCredentialsException;
+import com.codewithluci.ecommerce.repository.RefreshTokenRepository;
+import com.codewithluci.ecommerce.scheduling.LeaderElection;
+import com.codewithluci.ecommerce.scheduling.LeaderOnly;
+import com.codewithluci.ecommerce.security.RefreshTokenService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Opaque, rotating refresh tokens. Only a SHA-256 hash is stored. Every
+ * refresh consumes the presented token and issues a new one in the same
+ * family; presenting a consumed token again revokes the whole family.
+ */
+@Service
+@Slf4j
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final LeaderElection leaderElection;
+    private final long refreshExpirationMillis;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenServiceImpl(
+            RefreshTokenRepository refreshTokenRepository,
+            LeaderElection leaderElection,
+            @Value("${jwt.refresh-expiration:1209600000}") long refreshExpirationMillis) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.leaderElection = leaderElection;
+        this.refreshExpirationMillis = refreshExpirationMillis;
+    }
+
+    @Override
+    @Transactional
+    public String issue(User user, String familyId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .user(user)
+                .familyId(familyId)
+                .expiresAt(LocalDateTime.now().plusNanos(refreshExpirationMillis * 1_000_000))
+                .build());
+
+        return rawToken;
+    }
+
+    @Override
+    @Transactional(noRollbackFor = InvalidCredentialsException.class)
+    public RefreshToken rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidCredentialsException("Invalid refresh token"));
+
+        if (token.getRevoked() || token.isExpired()) {
+            throw new InvalidCredentialsException("Refresh token expired or revoked");
+        }
+
+        // Conditional update so two concurrent refreshes can't both win
+        if (refreshTokenRepository.markUsed(token.getId(), LocalDateTime.now()) == 0) {
+            log.warn("Refresh token reuse detected for user {}, revoking session {}",
+                    token.getUser().getUsername(), token.getFamilyId());
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            throw new InvalidCredentialsException("Refresh token reuse detected, session revoked");
+        }
+
+        return token;
+    }
+
+    @Override
+    @Transactional
+    public void revokeFamily(String familyId) {
+        refreshTokenRepository.revokeFamily(familyId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-interval-ms:3600000}")
+    @LeaderOnly
+    @Transactional
+    public void purgeExpired() {
+        leaderElection.checkFence();
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        log.info("Purged {} expired refresh tokens", deleted);
+    }
+
+    private String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.codewithluci.ecommerce.security.impl;
+
+import com.codewithluci.ecommerce.entity.RevokedToken;
+import com.codewithluci.ecommerce.exception.JwtAuthenticationException;
+import com.codewithluci.ecommerce.repository.RevokedTokenRepository;
+import com.codewithluci.ecommerce.scheduling.LeaderElection;
+import com.codewithluci.ecommerce.scheduling.LeaderOnly;
+import com.codewithluci.ecommerce.security.BloomFilter;
+import com.codewithluci.ecommerce.security.JwtUtil;
+import com.codewithluci.ecommerce.security.TokenRevocationService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token revocation backed by the revoked_tokens table.
+ *
+ * Lookups go Bloom filter → exact in-memory set → database. A token that was
+ * never revoked is almost always rejected by the Bloom filter, so the hot path
+ * in JwtAuthenticationFilter does no database query. Revocations from other
+ * nodes are picked up by polling the table, and both in-memory structures are
+ * rebuilt periodically so entries disappear once their token has expired.
+ */
+@Service
+@Slf4j
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final int MAX_CACHED_FALSE_POSITIVES = 10_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final LeaderElection leaderElection;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final long maxTokenLifetimeMillis;
+
+    // tokenId → expiry (epoch millis)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    // Bloom hits that the database said were not revoked, cleared on rebuild
+    private final Map<String, Boolean> falsePositives = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    private volatile BloomFilter bloomFilter;
+    private volatile long lastSeenId = 0L;
+
+    public TokenRevocationServiceImpl(
+            RevokedTokenRepository revokedTokenRepository,
+            JwtUtil jwtUtil,
+            LeaderElection leaderElection,
+            @Value("${jwt.revocation.expected-entries:100000}") int expectedEntries,
+            @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${jwt.access-expiration:900000}") long maxTokenLifetimeMillis) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtUtil = jwtUtil;
+        this.leaderElection = leaderElection;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxTokenLifetimeMillis = maxTokenLifetimeMillis;
+        this.bloomFilter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    @PostConstruct
+    void loadRevocations() {
+        List<RevokedToken> active = revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now());
+        synchronized (writeLock) {
+            for (RevokedToken token : active) {
+                remember(token);
+            }
+            rebuildBloomFilter();
+        }
+        log.info("Loaded {} active token revocations", active.size());
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String token, String revokedBy) {
+        if (!jwtUtil.validateToken(token)) {
+            throw new JwtAuthenticationException("Invalid or expired JWT token");
+        }
+
+        String tokenId = jwtUtil.extractTokenId(token);
+        if (tokenId == null) {
+            throw new JwtAuthenticationException("Token has no id and cannot be revoked");
+        }
+
+        RevokedToken revocation = RevokedToken.builder()
+                .tokenId(tokenId)
+                .username(jwtUtil.extractUsername(token))
+                .expiresAt(LocalDateTime.ofInstant(
+                        jwtUtil.extractExpiration(token).toInstant(), ZoneId.systemDefault()))
+                .revokedBy(revokedBy)
+                .build();
+        // A no-op if the token was already revoked; its id comes with the next poll
+        revokedTokenRepository.insertIfAbsent(revocation.getTokenId(), revocation.getUsername(),
+                revocation.getExpiresAt(), revocation.getRevokedBy(), LocalDateTime.now());
+
+        synchronized (writeLock) {
+            remember(revocation);
+        }
+
+        log.info("Token {} revoked by {}", tokenId, revokedBy);
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+
+        Long expiresAt = revoked.get(tokenId);
+        if (expiresAt != null) {
+            return true;
+        }
+        if (falsePositives.containsKey(tokenId)) {
+            return false;
+        }
+
+        // Bloom hit but not known locally: false positive, or revoked on
+        // another node since the last poll. Ask the database once.
+        if (revokedTokenRepository.existsByTokenId(tokenId)) {
+            synchronized (writeLock) {
+                revoked.put(tokenId, System.currentTimeMillis() + maxTokenLifetimeMillis);
+                bloomFilter.add(tokenId);
+            }
+            return true;
+        }
+
+        if (falsePositives.size() >= MAX_CACHED_FALSE_POSITIVES) {
+            falsePositives.clear();
+        }
+        falsePositives.put(tokenId, Boolean.TRUE);
+        return false;
+    }
+
+    /**
+     * Pick up revocations written by other nodes
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval-ms:5000}")
+    public void pollRevocations() {
+        List<RevokedToken> added = revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(lastSeenId);
+        if (added.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            for (RevokedToken token : added) {
+                remember(token);
+                falsePositives.remove(token.getTokenId());
+            }
+        }
+        log.debug("Synced {} token revocations", added.size());
+    }
+
+    /**
+     * Drop expired revocations from memory, on every node
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    public void pruneExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (writeLock) {
+            revoked.values().removeIf(expiresAt -> expiresAt <= now);
+            rebuildBloomFilter();
+        }
+        log.debug("Pruned expired token revocations, {} still active", revoked.size());
+    }
+
+    /**
+     * Drop expired revocations from the table, on the leader only
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    @LeaderOnly
+    @Transactional
+    public void purgeExpired() {
+        leaderElection.checkFence();
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        log.info("Purged {} expired token revocations", deleted);
+    }
+
+    // Caller holds writeLock
+    private void remember(RevokedToken token) {
+        long expiresAt = token.getExpiresAt()
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (expiresAt > System.currentTimeMillis()) {
+            revoked.put(token.getTokenId(), expiresAt);
+            bloomFilter.add(token.getTokenId());
+        }
+        if (token.getId() != null && token.getId() > lastSeenId) {
+            lastSeenId = token.getId();
+        }
+    }
+
+    // Caller holds writeLock
+    private void rebuildBloomFilter() {
+        BloomFilter rebuilt = new BloomFilter(
+                Math.max(expectedEntries, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::add);
+        bloomFilter = rebuilt;
+        falsePositives.clear();
+    }
+}
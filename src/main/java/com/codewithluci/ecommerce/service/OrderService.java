@@ -2,18 +2,23 @@ package com.codewithluci.ecommerce.service;
 
 import com.codewithluci.ecommerce.dto.request.OrderRequest;
 import com.codewithluci.ecommerce.dto.respone.OrderResponse;
+import com.codewithluci.ecommerce.dto.respone.PageResponse;
 import com.codewithluci.ecommerce.entity.OrderStatus;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Map;
+
 public interface OrderService {
     OrderResponse createOrder(OrderRequest request, Long userId);
     OrderResponse getOrderById(Long orderId, Long userId);
-    Page<OrderResponse> getUserOrders(Long userId, Pageable pageable);
+    // withTotal runs a COUNT query to fill totalElements/totalPages
+    PageResponse<OrderResponse> getUserOrders(Long userId, Pageable pageable, boolean withTotal);
+    // Only the named OrderResponse fields (comma separated); items are loaded only if named
+    PageResponse<Map<String, Object>> getUserOrderFields(Long userId, Pageable pageable, boolean withTotal, String fields);
     OrderResponse updateOrderStatus(Long orderId, OrderStatus status);
     OrderResponse cancelOrder(Long orderId, Long userId);
 
     // Admin operations
-    Page<OrderResponse> getAllOrders(Pageable pageable);
-    Page<OrderResponse> getOrdersByStatus(OrderStatus status, Pageable pageable);
+    PageResponse<OrderResponse> getAllOrders(Pageable pageable, boolean withTotal);
+    PageResponse<OrderResponse> getOrdersByStatus(OrderStatus status, Pageable pageable, boolean withTotal);
 }
\ No newline at end of file
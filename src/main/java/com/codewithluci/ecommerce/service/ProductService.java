@@ -1,17 +1,27 @@
 package com.codewithluci.ecommerce.service;
 
 import com.codewithluci.ecommerce.dto.request.ProductRequest;
+import com.codewithluci.ecommerce.dto.respone.PageResponse;
 import com.codewithluci.ecommerce.dto.respone.ProductResponse;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+import java.util.Map;
+
 public interface ProductService {
 
     ProductResponse createProduct(ProductRequest request);
     ProductResponse updateProduct(Long id, ProductRequest request);
     ProductResponse getProductById(Long id);
-    Page<ProductResponse> getAllActiveProducts(Pageable pageable);
-    Page<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable);
-    Page<ProductResponse> searchProducts(String keyword, Pageable pageable);
+    // withTotal runs a COUNT query to fill totalElements/totalPages
+    PageResponse<ProductResponse> getAllActiveProducts(Pageable pageable, boolean withTotal);
+    PageResponse<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable, boolean withTotal);
+    PageResponse<ProductResponse> searchProducts(String keyword, Pageable pageable, boolean withTotal);
+    // Same lists with only the named ProductResponse fields (comma separated) selected
+    PageResponse<Map<String, Object>> getAllActiveProductFields(Pageable pageable, boolean withTotal, String fields);
+    PageResponse<Map<String, Object>> getProductFieldsByCategory(Long categoryId, Pageable pageable, boolean withTotal, String fields);
+    PageResponse<Map<String, Object>> searchProductFields(String keyword, Pageable pageable, boolean withTotal, String fields);
     void deleteProduct(Long id);
+    // Every product, active or not, with id > afterId in id order; for the product snapshot
+    List<ProductResponse> getProductsAfter(Long afterId, int limit);
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import com.codewithluci.ecommerce.entity.Category;
 import com.codewithluci.ecommerce.exception.ResourceNotFoundException;
 import com.codewithluci.ecommerce.exception.UserAlreadyExistsException;
 import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
 import com.codewithluci.ecommerce.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,7 +15,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.text.Normalizer;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +26,7 @@ import java.util.stream.Collectors;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
 
     @Override
     @Transactional
@@ -105,18 +109,20 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     @Transactional(readOnly = true)
     public List<CategoryResponse> getAllActiveCategories() {
+        Map<Long, Long> productCounts = productCountsByCategory();
         return categoryRepository.findByIsActiveTrue()
                 .stream()
-                .map(this::mapToResponse)
+                .map(category -> mapToResponse(category, productCounts.getOrDefault(category.getId(), 0L)))
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<CategoryResponse> getAllCategories() {
+        Map<Long, Long> productCounts = productCountsByCategory();
         return categoryRepository.findAll()
                 .stream()
-                .map(this::mapToResponse)
+                .map(category -> mapToResponse(category, productCounts.getOrDefault(category.getId(), 0L)))
                 .collect(Collectors.toList());
     }
 
@@ -148,14 +154,30 @@ public class CategoryServiceImpl implements CategoryService {
                 .replaceAll("-+", "-");
     }
 
+    // One grouped COUNT instead of loading every category's product collection
+    private Map<Long, Long> productCountsByCategory() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : productRepository.countProductsGroupedByCategory()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
     private CategoryResponse mapToResponse(Category category) {
+        long productCount = category.getId() != null
+                ? productRepository.countByCategoryId(category.getId())
+                : 0L;
+        return mapToResponse(category, productCount);
+    }
+
+    private CategoryResponse mapToResponse(Category category, long productCount) {
         return CategoryResponse.builder()
                 .id(category.getId())
                 .name(category.getName())
                 .description(category.getDescription())
                 .slug(category.getSlug())
                 .isActive(category.getIsActive())
-                .productCount(category.getProducts().size())
+                .productCount((int) productCount)
                 .createdAt(category.getCreatedAt())
                 .build();
     }
@@ -1,25 +1,34 @@
 package com.codewithluci.ecommerce.service.impl;
 
-import com.codewithluci.ecommerce.dto.request.OrderItemRequest;
 import com.codewithluci.ecommerce.dto.request.OrderRequest;
 import com.codewithluci.ecommerce.dto.respone.OrderItemResponse;
 import com.codewithluci.ecommerce.dto.respone.OrderResponse;
+import com.codewithluci.ecommerce.dto.respone.PageResponse;
 import com.codewithluci.ecommerce.entity.*;
 import com.codewithluci.ecommerce.exception.ResourceNotFoundException;
-import com.codewithluci.ecommerce.exception.insufficientStockException.InsufficientStockException;
+import com.codewithluci.ecommerce.outbox.OutboxPublisher;
 import com.codewithluci.ecommerce.repository.OrderRepository;
 import com.codewithluci.ecommerce.repository.ProductRepository;
 import com.codewithluci.ecommerce.repository.UserRepository;
 import com.codewithluci.ecommerce.service.OrderService;
+import com.codewithluci.ecommerce.sharding.MergedPage;
+import com.codewithluci.ecommerce.sharding.Shards;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,18 +39,55 @@ public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final OrderStock orderStock;
+    private final Shards shards;
+
+    // Deepest page (rows up to its end) an admin listing may ask every shard for
+    @Value("${sharding.max-window-rows:10000}")
+    private int maxWindowRows;
 
     @Override
-    @Transactional
+    @Timed(value = "orders.create", histogram = true)
     public OrderResponse createOrder(OrderRequest request, Long userId) {
         log.info("Creating order for user: {}", userId);
 
-        // 1. Validate user exists
-        User user = userRepository.findById(userId)
+        int shard = shards.forUser(userId);
+        if (shard == Shards.MAIN) {
+            return shards.inShard(Shards.MAIN, () -> {
+                User user = findUser(userId);
+                return placeOrder(request, user, orderStock.reserve(request.getItems()));
+            });
+        }
+
+        // Stock and users are on the main database, the order on the user's
+        // shard: take the stock first and give it back if the order isn't written
+        record Reserved(User user, List<OrderItem> items) {
+        }
+        Reserved reserved = shards.inShard(Shards.MAIN,
+                () -> new Reserved(findUser(userId), orderStock.reserve(request.getItems())));
+        try {
+            OrderResponse response = shards.inShard(shard, () -> {
+                for (OrderItem item : reserved.items()) {
+                    item.setProduct(productRepository.getReferenceById(item.getProduct().getId()));
+                }
+                return placeOrder(request, userRepository.getReferenceById(userId), reserved.items());
+            });
+            response.setUsername(reserved.user().getUsername());
+            return response;
+        } catch (RuntimeException e) {
+            shards.runInShard(Shards.MAIN, () -> orderStock.restore(OrderStock.quantities(reserved.items())));
+            throw e;
+        }
+    }
+
+    private User findUser(Long userId) {
+        return userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "User not found with id: " + userId));
+    }
 
-        // 2. Create order
+    private OrderResponse placeOrder(OrderRequest request, User user, List<OrderItem> items) {
         Order order = Order.builder()
                 .user(user)
                 .status(OrderStatus.PENDING)
@@ -49,41 +95,14 @@ public class OrderServiceImpl implements OrderService {
                 .notes(request.getNotes())
                 .totalAmount(BigDecimal.ZERO)  // Will be calculated
                 .build();
+        items.forEach(order::addOrderItem);
 
-        // 3. Process each order item
-        for (OrderItemRequest itemRequest : request.getItems()) {
-            // 3a. Fetch product
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Product not found with id: " + itemRequest.getProductId()));
-
-            // 3b. Validate product is active and in stock
-            if (!product.getIsActive()) {
-                throw new IllegalStateException(
-                        "Product is not available: " + product.getName());
-            }
-            // Critical Business Logic in This Code.
-            if (!product.hasEnoughStock(itemRequest.getQuantity())) {
-                throw new InsufficientStockException(
-                        "Insufficient stock for product: " + product.getName() +
-                                ". Available: " + product.getStockQuantity() +
-                                ", Requested: " + itemRequest.getQuantity());
-            }
-
-            // 3c. Reduce stock (THIS IS CRITICAL)
-            product.reduceStock(itemRequest.getQuantity());
-            productRepository.save(product);
-
-            // 3d. Create order item (snapshot of product at this moment)
-            OrderItem orderItem = OrderItem.fromProduct(product, itemRequest.getQuantity());
-            order.addOrderItem(orderItem);
-        }
-
-        // 4. Calculate total amount
+        // Calculate total amount
         order.calculateTotalAmount();
 
-        // 5. Save order (cascades to order items)
+        // Save order (cascades to order items)
         Order savedOrder = orderRepository.save(order);
+        outboxPublisher.orderEvent(OutboxEventType.ORDER_CREATED, savedOrder);
 
         log.info("Order created successfully with id: {}", savedOrder.getId());
 
@@ -91,41 +110,93 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long orderId, Long userId) {
-        Order order = orderRepository.findByIdAndUserId(orderId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Order not found or access denied"));
-        return mapToResponse(order);
+        OrderResponse response = shards.readOnlyInShard(orderShard(orderId, "Order not found or access denied"), () -> {
+            Order order = orderRepository.findByIdAndUserId(orderId, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Order not found or access denied"));
+            return mapToResponse(order);
+        });
+        return withUsernames(List.of(response)).get(0);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public Page<OrderResponse> getUserOrders(Long userId, Pageable pageable) {
-        return orderRepository.findByUserId(userId, pageable)
-                .map(this::mapToResponse);
+    public PageResponse<OrderResponse> getUserOrders(Long userId, Pageable pageable, boolean withTotal) {
+        int shard = shards.forUser(userId);
+        Slice<OrderResponse> orders = shards.readOnlyInShard(shard, () -> {
+            Slice<Order> page;
+            if (shard == Shards.MAIN) {
+                page = withTotal
+                        ? orderRepository.findByUserId(userId, pageable)
+                        : orderRepository.findSliceByUserId(userId, pageable);
+            } else {
+                page = withTotal
+                        ? orderRepository.findShardPageByUserId(userId, pageable)
+                        : orderRepository.findShardSliceByUserId(userId, pageable);
+            }
+            return page.map(this::mapToResponse);
+        });
+        withUsernames(orders.getContent());
+        return PageResponse.of(orders);
+    }
+
+    @Override
+    public PageResponse<Map<String, Object>> getUserOrderFields(Long userId, Pageable pageable,
+                                                               boolean withTotal, String fields) {
+        int shard = shards.forUser(userId);
+        Slice<Map<String, Object>> orders = shards.readOnlyInShard(shard,
+                () -> orderRepository.findUserOrderFields(fields, userId, pageable, withTotal));
+        // The users join finds nothing on other shards
+        if (shard != Shards.MAIN && orders.stream().anyMatch(order -> order.containsKey("username"))) {
+            String username = shards.readOnlyInShard(Shards.MAIN, () -> findUser(userId).getUsername());
+            orders.forEach(order -> order.replace("username", username));
+        }
+        return PageResponse.of(orders);
     }
 
     @Override
-    @Transactional
     public OrderResponse updateOrderStatus(Long orderId, OrderStatus status) {
         log.info("Updating order {} to status: {}", orderId, status);
 
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Order not found with id: " + orderId));
+        OrderResponse response = shards.inShard(orderShard(orderId, "Order not found with id: " + orderId), () -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Order not found with id: " + orderId));
 
-        order.setStatus(status);
-        Order updated = orderRepository.save(order);
+            order.setStatus(status);
+            Order updated = orderRepository.save(order);
+            outboxPublisher.orderEvent(OutboxEventType.ORDER_STATUS_CHANGED, updated);
 
-        return mapToResponse(updated);
+            return mapToResponse(updated);
+        });
+        return withUsernames(List.of(response)).get(0);
     }
 
     @Override
-    @Transactional
     public OrderResponse cancelOrder(Long orderId, Long userId) {
         log.info("Cancelling order: {}", orderId);
 
+        int shard = orderShard(orderId, "Order not found or access denied");
+        if (shard == Shards.MAIN) {
+            return shards.inShard(Shards.MAIN, () -> {
+                Cancelled cancelled = cancel(orderId, userId);
+                orderStock.restore(cancelled.quantities());
+                return cancelled.response();
+            });
+        }
+
+        // The stock goes back on the main database once the cancellation has
+        // committed on the order's shard. Should that fail, stock is
+        // under-counted rather than sold twice.
+        Cancelled cancelled = shards.inShard(shard, () -> cancel(orderId, userId));
+        shards.runInShard(Shards.MAIN, () -> orderStock.restore(cancelled.quantities()));
+        return withUsernames(List.of(cancelled.response())).get(0);
+    }
+
+    private record Cancelled(OrderResponse response, Map<Long, Integer> quantities) {
+    }
+
+    private Cancelled cancel(Long orderId, Long userId) {
         Order order = orderRepository.findByIdAndUserId(orderId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Order not found or access denied"));
@@ -136,36 +207,102 @@ public class OrderServiceImpl implements OrderService {
                     "Cannot cancel order in status: " + order.getStatus());
         }
 
-        // Restore stock for all items
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.restoreStock(item.getQuantity());
-            productRepository.save(product);
-            log.info("Restored {} units of product: {}",
-                    item.getQuantity(), product.getName());
-        }
+        Map<Long, Integer> quantities = OrderStock.quantities(order);
 
         // Update order status
         order.cancel();
         Order cancelled = orderRepository.save(order);
+        outboxPublisher.orderEvent(OutboxEventType.ORDER_CANCELLED, cancelled);
 
         log.info("Order cancelled successfully: {}", orderId);
 
-        return mapToResponse(cancelled);
+        return new Cancelled(mapToResponse(cancelled), quantities);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public Page<OrderResponse> getAllOrders(Pageable pageable) {
-        return orderRepository.findAll(pageable)
-                .map(this::mapToResponse);
+    public PageResponse<OrderResponse> getAllOrders(Pageable pageable, boolean withTotal) {
+        if (shards.count() == 1) {
+            return shards.readOnlyInShard(Shards.MAIN, () -> {
+                Slice<Order> orders = withTotal
+                        ? orderRepository.findAll(pageable)
+                        : orderRepository.findSliceBy(pageable);
+                return PageResponse.of(orders.map(this::mapToResponse));
+            });
+        }
+        return PageResponse.of(acrossShards(pageable, window -> withTotal
+                ? orderRepository.findShardPageBy(window)
+                : orderRepository.findShardSliceBy(window)));
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public Page<OrderResponse> getOrdersByStatus(OrderStatus status, Pageable pageable) {
-        return orderRepository.findByStatus(status, pageable)
-                .map(this::mapToResponse);
+    public PageResponse<OrderResponse> getOrdersByStatus(OrderStatus status, Pageable pageable, boolean withTotal) {
+        if (shards.count() == 1) {
+            return shards.readOnlyInShard(Shards.MAIN, () -> {
+                Slice<Order> orders = withTotal
+                        ? orderRepository.findByStatus(status, pageable)
+                        : orderRepository.findSliceByStatus(status, pageable);
+                return PageResponse.of(orders.map(this::mapToResponse));
+            });
+        }
+        return PageResponse.of(acrossShards(pageable, window -> withTotal
+                ? orderRepository.findShardPageByStatus(status, window)
+                : orderRepository.findShardSliceByStatus(status, window)));
+    }
+
+    // ─── SHARDS ─────────────────────────────────────────────────────────────
+
+    private int orderShard(Long orderId, String notFoundMessage) {
+        int shard = shards.forId(orderId);
+        if (shard < 0) {
+            throw new ResourceNotFoundException(notFoundMessage);
+        }
+        return shard;
+    }
+
+    /**
+     * A page of orders from every shard. Each shard sends its first rows up
+     * to the end of the page (see MergedPage), all in parallel, and the page
+     * is cut from the merged list; then only the shards holding orders on the
+     * page are asked for their items.
+     */
+    private Slice<OrderResponse> acrossShards(Pageable pageable, Function<Pageable, Slice<Order>> query) {
+        Pageable window = MergedPage.window(pageable, maxWindowRows);
+        Slice<Order> page = MergedPage.merge(shards.onEveryShard(shard -> query.apply(window)).values(), pageable);
+
+        Map<Integer, List<Long>> idsByShard = page.stream()
+                .collect(Collectors.groupingBy(order -> shards.forId(order.getId()), TreeMap::new,
+                        Collectors.mapping(Order::getId, Collectors.toList())));
+        Map<Long, OrderResponse> responses = new HashMap<>();
+        shards.onShards(idsByShard.keySet(), shard -> orderRepository.findShardByIdIn(idsByShard.get(shard)).stream()
+                        .map(this::mapToResponse)
+                        .toList())
+                .values()
+                .forEach(orders -> orders.forEach(order -> responses.put(order.getId(), order)));
+        withUsernames(responses.values());
+
+        return page.map(order -> responses.get(order.getId()));
+    }
+
+    /**
+     * Fills in the usernames mapToResponse left out, from the main database
+     */
+    private <C extends Collection<OrderResponse>> C withUsernames(C responses) {
+        Set<Long> userIds = responses.stream()
+                .filter(response -> response.getUsername() == null)
+                .map(OrderResponse::getUserId)
+                .collect(Collectors.toSet());
+        if (userIds.isEmpty()) {
+            return responses;
+        }
+        Map<Long, String> usernames = shards.readOnlyInShard(Shards.MAIN, () -> userRepository.findAllById(userIds)
+                .stream()
+                .collect(Collectors.toMap(User::getId, User::getUsername)));
+        for (OrderResponse response : responses) {
+            if (response.getUsername() == null) {
+                response.setUsername(usernames.get(response.getUserId()));
+            }
+        }
+        return responses;
     }
 
     // ─── MAPPING METHODS ────────────────────────────────────────────────────
@@ -178,7 +315,8 @@ public class OrderServiceImpl implements OrderService {
         return OrderResponse.builder()
                 .id(order.getId())
                 .userId(order.getUser().getId())
-                .username(order.getUser().getUsername())
+                // Users are only on the main database; see withUsernames
+                .username(shards.forId(order.getId()) == Shards.MAIN ? order.getUser().getUsername() : null)
                 .status(order.getStatus())
                 .totalAmount(order.getTotalAmount())
                 .shippingAddress(order.getShippingAddress())
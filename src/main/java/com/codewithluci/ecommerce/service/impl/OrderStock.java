@@ -0,0 +1,92 @@
+package com.codewithluci.ecommerce.service.impl;
+
+import com.codewithluci.ecommerce.dto.request.OrderItemRequest;
+import com.codewithluci.ecommerce.entity.Order;
+import com.codewithluci.ecommerce.entity.OrderItem;
+import com.codewithluci.ecommerce.entity.Product;
+import com.codewithluci.ecommerce.exception.ResourceNotFoundException;
+import com.codewithluci.ecommerce.exception.insufficientStockException.InsufficientStockException;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stock taken by orders and given back when they are cancelled. Products
+ * live on the main database, so with sharding this runs in a main database
+ * transaction of its own next to the order's shard transaction (see Shards).
+ * Callers bring the transaction.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class OrderStock {
+
+    private final ProductRepository productRepository;
+
+    /**
+     * Checks and reduces stock for every requested item. Returns the order
+     * items (a snapshot of each product at this moment), not yet added to an
+     * order.
+     *
+     * The product itself may come from the second-level cache, so its stock
+     * is only a hint: the reduction is a conditional UPDATE, and concurrent
+     * checkouts can't oversell or lose each other's decrements.
+     */
+    List<OrderItem> reserve(List<OrderItemRequest> requests) {
+        List<OrderItem> items = new ArrayList<>();
+        for (OrderItemRequest itemRequest : requests) {
+            Product product = productRepository.findById(itemRequest.getProductId())
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Product not found with id: " + itemRequest.getProductId()));
+
+            // Validate product is active and in stock
+            if (!product.getIsActive()) {
+                throw new IllegalStateException(
+                        "Product is not available: " + product.getName());
+            }
+            // Critical Business Logic in This Code: no row updated means not enough stock
+            if (productRepository.reduceStock(product.getId(), itemRequest.getQuantity()) == 0) {
+                throw new InsufficientStockException(
+                        "Insufficient stock for product: " + product.getName() +
+                                ". Requested: " + itemRequest.getQuantity());
+            }
+
+            items.add(OrderItem.fromProduct(product, itemRequest.getQuantity()));
+        }
+        return items;
+    }
+
+    /**
+     * Puts back the given quantities (by product id)
+     */
+    void restore(Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> {
+            if (productRepository.restoreStock(productId, quantity) == 0) {
+                throw new ResourceNotFoundException("Product not found with id: " + productId);
+            }
+            log.info("Restored {} units of product: {}", quantity, productId);
+        });
+    }
+
+    /**
+     * Quantities per product id, taken while the items are still loaded.
+     * Sorted by id, so concurrent restores lock products in the same order.
+     */
+    static Map<Long, Integer> quantities(List<OrderItem> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    static Map<Long, Integer> quantities(Order order) {
+        return quantities(order.getOrderItems());
+    }
+}
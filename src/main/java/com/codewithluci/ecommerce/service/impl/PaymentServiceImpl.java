@@ -5,16 +5,22 @@ import com.codewithluci.ecommerce.dto.respone.PaymentResponse;
 import com.codewithluci.ecommerce.entity.*;
 import com.codewithluci.ecommerce.exception.ResourceNotFoundException;
 import com.codewithluci.ecommerce.exception.paymentException.PaymentException;
+import com.codewithluci.ecommerce.outbox.OutboxPublisher;
 import com.codewithluci.ecommerce.repository.OrderRepository;
 import com.codewithluci.ecommerce.repository.PaymentRepository;
-import com.codewithluci.ecommerce.repository.ProductRepository;
 import com.codewithluci.ecommerce.service.PaymentService;
+import com.codewithluci.ecommerce.sharding.Shards;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -23,13 +29,22 @@ public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final OrderStock orderStock;
+    private final Shards shards;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${payment.gateway.simulated-delay-ms:1000}")
+    private long simulatedGatewayDelayMs;
 
     @Override
-    @Transactional
+    @Timed(value = "payments.process", histogram = true)
     public PaymentResponse processPayment(PaymentRequest request, Long userId) {
         log.info("Processing payment for order: {}", request.getOrderId());
+        return settle(orderShard(request.getOrderId()), () -> pay(request, userId));
+    }
 
+    private Settled pay(PaymentRequest request, Long userId) {
         // 1. Validate order exists and belongs to user
         Order order = orderRepository.findByIdAndUserId(request.getOrderId(), userId)
                 .orElseThrow(() -> new ResourceNotFoundException(
@@ -56,50 +71,100 @@ public class PaymentServiceImpl implements PaymentService {
 
         Payment savedPayment = paymentRepository.save(payment);
 
-        // 5. Simulate payment gateway call
+        // 5. Simulate payment gateway call (timed separately from our own work)
+        Timer.Sample gatewaySample = Timer.start(meterRegistry);
         boolean paymentSuccess = simulatePaymentGateway(request);
+        gatewaySample.stop(Timer.builder("payments.gateway")
+                .description("Payment gateway call latency")
+                .tag("method", request.getPaymentMethod().name())
+                .tag("outcome", paymentSuccess ? "success" : "failure")
+                .publishPercentileHistogram()
+                .register(meterRegistry));
 
         // 6. Handle payment result
-        if (paymentSuccess) {
-            handlePaymentSuccess(savedPayment);
-        } else {
-            handlePaymentFailure(savedPayment, order);
-        }
-
-        return mapToResponse(savedPayment);
+        return settled(savedPayment, order, paymentSuccess);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public PaymentResponse getPaymentByOrderId(Long orderId, Long userId) {
-        // Validate order belongs to user
-        Order order = orderRepository.findByIdAndUserId(orderId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Order not found or access denied"));
-
-        Payment payment = paymentRepository.findByOrderId(order.getId())
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Payment not found for order: " + orderId));
-
-        return mapToResponse(payment);
+        return shards.readOnlyInShard(orderShard(orderId), () -> {
+            // Validate order belongs to user
+            Order order = orderRepository.findByIdAndUserId(orderId, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Order not found or access denied"));
+
+            Payment payment = paymentRepository.findByOrderId(order.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Payment not found for order: " + orderId));
+
+            return mapToResponse(payment);
+        });
     }
 
     @Override
-    @Transactional
     public PaymentResponse simulatePaymentWebhook(String transactionId, boolean success) {
         log.info("Processing payment webhook for transaction: {}", transactionId);
 
-        Payment payment = paymentRepository.findByTransactionId(transactionId)
+        // Only the payment's own shard knows the transaction id
+        int shard = shards.count() == 1 ? Shards.MAIN : shards
+                .onEveryShard(candidate -> paymentRepository.existsByTransactionId(transactionId))
+                .entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .map(Map.Entry::getKey)
+                .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Payment not found with transaction ID: " + transactionId));
 
+        return settle(shard, () -> {
+            Payment payment = paymentRepository.findByTransactionId(transactionId)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Payment not found with transaction ID: " + transactionId));
+            return settled(payment, payment.getOrder(), success);
+        });
+    }
+
+    // ─── SHARDS ─────────────────────────────────────────────────────────────
+
+    // The payment, and the stock a failed payment gives back
+    private record Settled(PaymentResponse response, Map<Long, Integer> restock) {
+    }
+
+    private int orderShard(Long orderId) {
+        int shard = shards.forId(orderId);
+        if (shard < 0) {
+            throw new ResourceNotFoundException("Order not found or access denied");
+        }
+        return shard;
+    }
+
+    /**
+     * Runs work on the order's shard. Stock of an order cancelled by a failed
+     * payment goes back on the main database: in the same transaction when
+     * the order is there, after the shard committed otherwise (should that
+     * fail, stock is under-counted rather than sold twice).
+     */
+    private PaymentResponse settle(int shard, Supplier<Settled> work) {
+        if (shard == Shards.MAIN) {
+            return shards.inShard(Shards.MAIN, () -> {
+                Settled settled = work.get();
+                orderStock.restore(settled.restock());
+                return settled.response();
+            });
+        }
+        Settled settled = shards.inShard(shard, work);
+        if (!settled.restock().isEmpty()) {
+            shards.runInShard(Shards.MAIN, () -> orderStock.restore(settled.restock()));
+        }
+        return settled.response();
+    }
+
+    private Settled settled(Payment payment, Order order, boolean success) {
         if (success) {
             handlePaymentSuccess(payment);
-        } else {
-            handlePaymentFailure(payment, payment.getOrder());
+            return new Settled(mapToResponse(payment), Map.of());
         }
-
-        return mapToResponse(payment);
+        Map<Long, Integer> restock = handlePaymentFailure(payment, order);
+        return new Settled(mapToResponse(payment), restock);
     }
 
     // ─── PRIVATE HELPER METHODS ──────────────────────────────────────────────
@@ -113,7 +178,7 @@ public class PaymentServiceImpl implements PaymentService {
 
         // Simulate processing delay
         try {
-            Thread.sleep(1000);  // 1 second delay
+            Thread.sleep(simulatedGatewayDelayMs);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
@@ -149,48 +214,36 @@ public class PaymentServiceImpl implements PaymentService {
         // Update payment
         payment.markAsSuccess(transactionId, gatewayRef);
         paymentRepository.save(payment);
+        outboxPublisher.paymentEvent(OutboxEventType.PAYMENT_SUCCEEDED, payment);
 
         // Update order status
         Order order = payment.getOrder();
         order.confirm();
         orderRepository.save(order);
+        outboxPublisher.orderEvent(OutboxEventType.ORDER_CONFIRMED, order);
 
         log.info("Order {} confirmed after successful payment", order.getId());
     }
 
     /**
-     * Handle failed payment
+     * Handle failed payment. Returns the stock to restore.
      */
-    private void handlePaymentFailure(Payment payment, Order order) {
+    private Map<Long, Integer> handlePaymentFailure(Payment payment, Order order) {
         log.warn("Payment failed for order: {}", order.getId());
 
         // Update payment
         payment.markAsFailed("Payment declined by gateway");
         paymentRepository.save(payment);
+        outboxPublisher.paymentEvent(OutboxEventType.PAYMENT_FAILED, payment);
 
-        // Cancel order and restore stock
-        cancelOrderAndRestoreStock(order);
-
-        log.info("Order {} cancelled and stock restored after payment failure", order.getId());
-    }
-
-    /**
-     * Cancel order and restore stock (rollback logic)
-     */
-    private void cancelOrderAndRestoreStock(Order order) {
-        // Restore stock for all items
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.restoreStock(item.getQuantity());
-            productRepository.save(product);
-
-            log.info("Restored {} units of product: {}",
-                    item.getQuantity(), product.getName());
-        }
-
-        // Update order status
+        // Cancel order; its stock is restored by settle()
+        Map<Long, Integer> restock = OrderStock.quantities(order);
         order.cancel();
         orderRepository.save(order);
+        outboxPublisher.orderEvent(OutboxEventType.ORDER_CANCELLED, order);
+
+        log.info("Order {} cancelled after payment failure", order.getId());
+        return restock;
     }
 
     /**
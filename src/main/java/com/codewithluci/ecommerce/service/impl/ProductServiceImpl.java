@@ -1,6 +1,7 @@
 package com.codewithluci.ecommerce.service.impl;
 
 import com.codewithluci.ecommerce.dto.request.ProductRequest;
+import com.codewithluci.ecommerce.dto.respone.PageResponse;
 import com.codewithluci.ecommerce.dto.respone.ProductResponse;
 import com.codewithluci.ecommerce.entity.Category;
 import com.codewithluci.ecommerce.entity.Product;
@@ -10,13 +11,18 @@ import com.codewithluci.ecommerce.repository.ProductRepository;
 import com.codewithluci.ecommerce.service.ProductService;
 
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -88,40 +94,75 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Timed(value = "products.read", histogram = true)
     @Transactional(readOnly = true)
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Product not found with id: " + id));
         return mapToResponse(product);
     }
 
     @Override
+    @Timed(value = "products.read", histogram = true)
     @Transactional(readOnly = true)
-    public Page<ProductResponse> getAllActiveProducts(Pageable pageable) {
-        return productRepository.findByIsActiveTrue(pageable)
-                .map(this::mapToResponse);
+    public PageResponse<ProductResponse> getAllActiveProducts(Pageable pageable, boolean withTotal) {
+        Slice<Product> products = withTotal
+                ? productRepository.findByIsActiveTrue(pageable)
+                : productRepository.findSliceByIsActiveTrue(pageable);
+        return PageResponse.of(products.map(this::mapToListItem));
     }
 
     @Override
+    @Timed(value = "products.read", histogram = true)
     @Transactional(readOnly = true)
-    public Page<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
+    public PageResponse<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable, boolean withTotal) {
         // Validate category exists
         if (!categoryRepository.existsById(categoryId)) {
             throw new ResourceNotFoundException(
                     "Category not found with id: " + categoryId);
         }
-        return productRepository
-                .findByCategoryIdAndIsActiveTrue(categoryId, pageable)
-                .map(this::mapToResponse);
+        Slice<Product> products = withTotal
+                ? productRepository.findByCategoryIdAndIsActiveTrue(categoryId, pageable)
+                : productRepository.findSliceByCategoryIdAndIsActiveTrue(categoryId, pageable);
+        return PageResponse.of(products.map(this::mapToListItem));
+    }
+
+    @Override
+    @Timed(value = "products.read", histogram = true)
+    @Transactional(readOnly = true)
+    public PageResponse<ProductResponse> searchProducts(String keyword, Pageable pageable, boolean withTotal) {
+        Slice<Product> products = withTotal
+                ? productRepository.findByNameContainingIgnoreCaseAndIsActiveTrue(keyword, pageable)
+                : productRepository.findSliceByNameContainingIgnoreCaseAndIsActiveTrue(keyword, pageable);
+        return PageResponse.of(products.map(this::mapToListItem));
+    }
+
+    @Override
+    @Timed(value = "products.read", histogram = true)
+    @Transactional(readOnly = true)
+    public PageResponse<Map<String, Object>> getAllActiveProductFields(Pageable pageable, boolean withTotal, String fields) {
+        return PageResponse.of(productRepository.findActiveProductFields(fields, null, null, pageable, withTotal));
+    }
+
+    @Override
+    @Timed(value = "products.read", histogram = true)
+    @Transactional(readOnly = true)
+    public PageResponse<Map<String, Object>> getProductFieldsByCategory(Long categoryId, Pageable pageable,
+                                                                       boolean withTotal, String fields) {
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException(
+                    "Category not found with id: " + categoryId);
+        }
+        return PageResponse.of(productRepository.findActiveProductFields(fields, categoryId, null, pageable, withTotal));
     }
 
     @Override
+    @Timed(value = "products.read", histogram = true)
     @Transactional(readOnly = true)
-    public Page<ProductResponse> searchProducts(String keyword, Pageable pageable) {
-        return productRepository
-                .findByNameContainingIgnoreCaseAndIsActiveTrue(keyword, pageable)
-                .map(this::mapToResponse);
+    public PageResponse<Map<String, Object>> searchProductFields(String keyword, Pageable pageable,
+                                                                boolean withTotal, String fields) {
+        return PageResponse.of(productRepository.findActiveProductFields(fields, null, keyword, pageable, withTotal));
     }
 
     @Override
@@ -137,11 +178,25 @@ public class ProductServiceImpl implements ProductService {
         productRepository.save(product);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getProductsAfter(Long afterId, int limit) {
+        return productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit)).stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
     private ProductResponse mapToResponse(Product product) {
+        ProductResponse response = mapToListItem(product);
+        response.setDescription(product.getDescription());
+        return response;
+    }
+
+    // Everything but the description, which list views don't show and list queries don't load
+    private ProductResponse mapToListItem(Product product) {
         return ProductResponse.builder()
                 .id(product.getId())
                 .name(product.getName())
-                .description(product.getDescription())
                 .price(product.getPrice())
                 .stockQuantity(product.getStockQuantity())
                 .imageUrl(product.getImageUrl())
@@ -0,0 +1,96 @@
+package com.codewithluci.ecommerce.sharding;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One page of a query run on every shard.
+ *
+ * Page p of size s is somewhere in the first (p + 1) * s rows of the merged
+ * order, so each shard is asked for that many (window()), sorted the same
+ * way, and merge() sorts them together and cuts the page out. Sorting ends
+ * on id, so rows that tie on the requested sort still come back in one
+ * order on every shard and every request. An unsorted request is sorted by
+ * id.
+ *
+ * Deep pages cost every shard (p + 1) * s rows, so windows are capped at
+ * maxRows.
+ */
+public final class MergedPage {
+
+    private MergedPage() {
+    }
+
+    public static Pageable window(Pageable pageable, int maxRows) {
+        long rows = (long) (pageable.getPageNumber() + 1) * pageable.getPageSize();
+        if (rows > maxRows) {
+            throw new IllegalStateException("Page " + pageable.getPageNumber() + " of size " + pageable.getPageSize()
+                    + " is too deep for a query across shards (at most " + maxRows + " rows)");
+        }
+        return PageRequest.of(0, (int) rows, withTiebreak(pageable.getSort()));
+    }
+
+    /**
+     * Page of pageable out of every shard's answer to the window query. A
+     * Page (with a total) when every shard counted, a Slice otherwise.
+     */
+    public static <T> Slice<T> merge(Collection<? extends Slice<T>> shards, Pageable pageable) {
+        List<T> rows = new ArrayList<>();
+        boolean more = false;
+        boolean counted = true;
+        long total = 0;
+        for (Slice<T> shard : shards) {
+            rows.addAll(shard.getContent());
+            more |= shard.hasNext();
+            if (shard instanceof Page<T> page) {
+                total += page.getTotalElements();
+            } else {
+                counted = false;
+            }
+        }
+        rows.sort(comparator(withTiebreak(pageable.getSort())));
+
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        int to = Math.min(from + pageable.getPageSize(), rows.size());
+        List<T> content = new ArrayList<>(rows.subList(from, to));
+        if (counted) {
+            return new PageImpl<>(content, pageable, total);
+        }
+        return new SliceImpl<>(content, pageable, more || rows.size() > to);
+    }
+
+    private static Sort withTiebreak(Sort sort) {
+        if (sort.getOrderFor("id") != null) {
+            return sort;
+        }
+        Sort.Direction direction = sort.stream().findFirst().map(Sort.Order::getDirection).orElse(Sort.Direction.ASC);
+        return sort.and(Sort.by(direction, "id"));
+    }
+
+    // Nulls first ascending and last descending, as MySQL sorts them
+    private static <T> Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Comparable<Object>> values = Comparator.nullsFirst(Comparator.naturalOrder());
+            Comparator<T> byProperty = Comparator.comparing(row -> property(row, order.getProperty()), values);
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> property(Object row, String name) {
+        return (Comparable<Object>) new BeanWrapperImpl(row).getPropertyValue(name);
+    }
+}
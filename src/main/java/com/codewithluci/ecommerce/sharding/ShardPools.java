@@ -0,0 +1,27 @@
+package com.codewithluci.ecommerce.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.List;
+
+/**
+ * Connection pools of shards 1..n, in shard order, migrated and ready
+ * (see ShardingConfig). Closed with the application context.
+ */
+public class ShardPools implements AutoCloseable {
+
+    private final List<HikariDataSource> pools;
+
+    public ShardPools(List<HikariDataSource> pools) {
+        this.pools = List.copyOf(pools);
+    }
+
+    public List<HikariDataSource> getPools() {
+        return pools;
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
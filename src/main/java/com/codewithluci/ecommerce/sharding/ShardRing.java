@@ -0,0 +1,43 @@
+package com.codewithluci.ecommerce.sharding;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hashing of user ids onto shards 0..shards-1.
+ *
+ * Each shard owns virtualNodes points on a 64-bit ring; a user belongs to
+ * the first point at or after the hash of their id. A shard's points depend
+ * only on its index, so adding shard N moves about 1/(N+1) of the users,
+ * all of them onto the new shard, and leaves everyone else where they were.
+ */
+public final class ShardRing {
+
+    private final TreeMap<Long, Integer> ring = new TreeMap<>();
+
+    public ShardRing(int shards, int virtualNodes) {
+        if (shards < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("Need at least one shard and one virtual node per shard");
+        }
+        for (int shard = 0; shard < shards; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring.put(mix(((long) shard << 32) | node), shard);
+            }
+        }
+    }
+
+    public int shardFor(long key) {
+        Map.Entry<Long, Integer> point = ring.ceilingEntry(mix(key));
+        return (point != null ? point : ring.firstEntry()).getValue();
+    }
+
+    // MurmurHash3's 64-bit finalizer: spreads consecutive ids over the whole ring
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
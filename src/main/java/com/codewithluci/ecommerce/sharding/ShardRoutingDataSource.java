@@ -0,0 +1,50 @@
+package com.codewithluci.ecommerce.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections to the shard the current thread works on (set by
+ * Shards.inShard), and to the main database, shard 0, otherwise.
+ *
+ * Shard 0 is the application's own DataSource, which also holds users,
+ * the catalog and everything else that isn't sharded. Shards 1..n only
+ * hold orders, order items, payments and their outbox events.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    public ShardRoutingDataSource(DataSource main, List<? extends DataSource> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Shards.MAIN, main);
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i + 1, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(main);
+        setLenientFallback(false);
+    }
+
+    static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : Shards.MAIN;
+    }
+
+    static void bind(int shard) {
+        if (shard == Shards.MAIN) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return current();
+    }
+}
@@ -0,0 +1,211 @@
+package com.codewithluci.ecommerce.sharding;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Where a user's orders, order items and payments live, and transactions on
+ * that shard.
+ *
+ * Users are placed by consistent hashing of their id (ShardRing). Rows get
+ * ids from their shard's range, shard << SHARD_ID_SHIFT upwards (ShardingConfig
+ * sets the ranges up), so an order or payment id alone tells its shard.
+ *
+ * With sharding.enabled=false there is one shard, the main database, and
+ * inShard is a plain transaction.
+ */
+@Component
+@Slf4j
+public class Shards {
+
+    public static final int MAIN = 0;
+    // 2^40 ids per shard
+    public static final int SHARD_ID_SHIFT = 40;
+
+    private final int count;
+    private final ShardRing ring;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate joinOrBegin;
+    private final TransactionTemplate joinOrBeginReadOnly;
+    private final TransactionTemplate begin;
+    private final TransactionTemplate beginReadOnly;
+    private final ExecutorService scatterExecutor;
+    private final long scatterTimeoutMillis;
+    private final Timer scatterTimer;
+
+    public Shards(
+            PlatformTransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory,
+            MeterRegistry registry,
+            @Value("${sharding.enabled:false}") boolean enabled,
+            @Value("${sharding.shard-urls:}") List<String> shardUrls,
+            @Value("${sharding.virtual-nodes:128}") int virtualNodes,
+            @Value("${sharding.scatter-threads:8}") int scatterThreads,
+            @Value("${sharding.scatter-timeout-ms:5000}") long scatterTimeoutMillis) {
+        this.count = enabled ? 1 + (int) shardUrls.stream().filter(StringUtils::hasText).count() : 1;
+        this.ring = new ShardRing(count, virtualNodes);
+        this.entityManagerFactory = entityManagerFactory;
+        this.joinOrBegin = template(transactionManager, TransactionDefinition.PROPAGATION_REQUIRED, false);
+        this.joinOrBeginReadOnly = template(transactionManager, TransactionDefinition.PROPAGATION_REQUIRED, true);
+        this.begin = template(transactionManager, TransactionDefinition.PROPAGATION_REQUIRES_NEW, false);
+        this.beginReadOnly = template(transactionManager, TransactionDefinition.PROPAGATION_REQUIRES_NEW, true);
+        this.scatterTimeoutMillis = scatterTimeoutMillis;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.scatterExecutor = Executors.newFixedThreadPool(Math.max(1, scatterThreads), runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scatterTimer = Timer.builder("sharding.scatter")
+                .description("Cross-shard queries, from fan-out to the last shard's answer")
+                .register(registry);
+        if (count > 1) {
+            log.info("Orders and payments sharded over {} databases", count);
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int forUser(Long userId) {
+        return count == 1 ? MAIN : ring.shardFor(userId);
+    }
+
+    /**
+     * Shard an order, order item or payment id was created on; -1 for an id
+     * outside every shard's range, which can't exist.
+     */
+    public int forId(Long id) {
+        long shard = id >>> SHARD_ID_SHIFT;
+        return shard < count ? (int) shard : -1;
+    }
+
+    /**
+     * Runs work in a transaction on the shard: joins the caller's
+     * transaction if it is on the same shard, otherwise starts a new one
+     * there (suspending the caller's).
+     */
+    public <T> T inShard(int shard, Supplier<T> work) {
+        return run(shard, false, work);
+    }
+
+    public void runInShard(int shard, Runnable work) {
+        run(shard, false, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T readOnlyInShard(int shard, Supplier<T> work) {
+        return run(shard, true, work);
+    }
+
+    /**
+     * Runs work on every shard in parallel, each in its own read-only
+     * transaction. Results by shard.
+     */
+    public <T> Map<Integer, T> onEveryShard(IntFunction<T> work) {
+        List<Integer> all = new ArrayList<>();
+        for (int shard = 0; shard < count; shard++) {
+            all.add(shard);
+        }
+        return onShards(all, work);
+    }
+
+    public <T> Map<Integer, T> onShards(Collection<Integer> shards, IntFunction<T> work) {
+        Map<Integer, T> results = new TreeMap<>();
+        if (shards.size() == 1) {
+            int shard = shards.iterator().next();
+            results.put(shard, readOnlyInShard(shard, () -> work.apply(shard)));
+            return results;
+        }
+
+        long start = System.nanoTime();
+        Map<Integer, CompletableFuture<T>> futures = new TreeMap<>();
+        for (int shard : shards) {
+            futures.put(shard, CompletableFuture.supplyAsync(
+                    () -> readOnlyInShard(shard, () -> work.apply(shard)), scatterExecutor));
+        }
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(scatterTimeoutMillis);
+        try {
+            for (Map.Entry<Integer, CompletableFuture<T>> future : futures.entrySet()) {
+                results.put(future.getKey(), future.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Shards did not answer within " + scatterTimeoutMillis + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for shards", e);
+        } finally {
+            futures.values().forEach(future -> future.cancel(true));
+            scatterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return results;
+    }
+
+    private <T> T run(int shard, boolean readOnly, Supplier<T> work) {
+        int previous = ShardRoutingDataSource.current();
+        if (previous == shard) {
+            return (readOnly ? joinOrBeginReadOnly : joinOrBegin).execute(status -> work.get());
+        }
+
+        // A transaction on another shard needs its own EntityManager. An active
+        // transaction's is suspended by REQUIRES_NEW; the request's open-in-view
+        // one is set aside here, so entities of the two databases never share
+        // a persistence context (nor get flushed to the wrong one).
+        Object requestEntityManager = TransactionSynchronizationManager.isActualTransactionActive()
+                ? null
+                : TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+        ShardRoutingDataSource.bind(shard);
+        try {
+            return (readOnly ? beginReadOnly : begin).execute(status -> work.get());
+        } finally {
+            ShardRoutingDataSource.bind(previous);
+            if (requestEntityManager != null) {
+                TransactionSynchronizationManager.bindResource(entityManagerFactory, requestEntityManager);
+            }
+        }
+    }
+
+    private static TransactionTemplate template(PlatformTransactionManager transactionManager,
+                                                int propagation, boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(propagation);
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scatterExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,34 @@
+package com.codewithluci.ecommerce.startup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * "warmUp" health contributor: OUT_OF_SERVICE until WarmUpRunner has finished
+ * or timed out. Included in the readiness group
+ * (management.endpoint.health.group.readiness.include), so load balancers
+ * hold traffic back while liveness is unaffected.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    private final WarmUpRunner warmUpRunner;
+
+    @Override
+    public Health health() {
+        WarmUpRunner.Result result = warmUpRunner.getResult();
+        if (result == null) {
+            return Health.outOfService()
+                    .withDetail("coverage", warmUpRunner.getCoverage())
+                    .build();
+        }
+        return Health.up()
+                .withDetail("durationMs", result.durationMillis())
+                .withDetail("timedOut", result.timedOut())
+                .withDetail("coverage", warmUpRunner.getCoverage())
+                .build();
+    }
+}
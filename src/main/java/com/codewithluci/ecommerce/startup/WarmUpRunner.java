@@ -0,0 +1,290 @@
+package com.codewithluci.ecommerce.startup;
+
+import com.codewithluci.ecommerce.controller.CategoryController;
+import com.codewithluci.ecommerce.controller.ProductController;
+import com.codewithluci.ecommerce.dto.respone.ApiResponse;
+import com.codewithluci.ecommerce.dto.respone.PageResponse;
+import com.codewithluci.ecommerce.exception.ResourceNotFoundException;
+import com.codewithluci.ecommerce.repository.OrderItemRepository;
+import com.codewithluci.ecommerce.security.JwtUtil;
+import com.codewithluci.ecommerce.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Warms the application after startup so the first real requests don't pay
+ * for cold caches, lazy Hibernate/Jackson metadata and interpreted code.
+ *
+ * Steps, in order: the active category list, the first product list pages,
+ * the best-selling products of the last few days (through the controllers,
+ * so the read and response caches end up with the keys real requests use),
+ * then repeated JWT issue/verify and JSON serialization to get those paths
+ * JIT-compiled.
+ *
+ * Runs on its own thread once the application is ready. WarmUpHealthIndicator
+ * keeps the readiness group OUT_OF_SERVICE until every step has run or
+ * warmup.timeout-ms has passed, whichever comes first; on timeout the
+ * remaining work is abandoned.
+ */
+@Component
+@Slf4j
+public class WarmUpRunner {
+
+    private final CategoryController categoryController;
+    private final ProductController productController;
+    private final OrderItemRepository orderItemRepository;
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final long timeoutMillis;
+    private final int productPages;
+    private final int topProducts;
+    private final int salesWindowDays;
+    private final int jitIterations;
+
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+    private volatile long deadline;
+    // Set once per run, by whichever of run() and the timeout gets there first
+    private final AtomicReference<Result> result = new AtomicReference<>();
+
+    public WarmUpRunner(
+            CategoryController categoryController,
+            ProductController productController,
+            OrderItemRepository orderItemRepository,
+            JwtUtil jwtUtil,
+            TokenRevocationService tokenRevocationService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${warmup.enabled:true}") boolean enabled,
+            @Value("${warmup.timeout-ms:60000}") long timeoutMillis,
+            @Value("${warmup.product-pages:3}") int productPages,
+            @Value("${warmup.top-products:50}") int topProducts,
+            @Value("${warmup.sales-window-days:7}") int salesWindowDays,
+            @Value("${warmup.jit-iterations:5000}") int jitIterations) {
+        this.categoryController = categoryController;
+        this.productController = productController;
+        this.orderItemRepository = orderItemRepository;
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.timeoutMillis = timeoutMillis;
+        this.productPages = productPages;
+        this.topProducts = topProducts;
+        this.salesWindowDays = salesWindowDays;
+        this.jitIterations = jitIterations;
+
+        for (String name : List.of("categories", "productPages", "topProducts", "jwt", "json")) {
+            Step step = new Step();
+            steps.put(name, step);
+            Gauge.builder("warmup.coverage", step, Step::coverage)
+                    .description("Share of the planned warm-up work that completed")
+                    .tag("step", name)
+                    .register(meterRegistry);
+        }
+        if (!enabled) {
+            result.set(new Result(0, false));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Warm-up started, readiness held for up to {} ms", timeoutMillis);
+        long start = System.nanoTime();
+        CompletableFuture.runAsync(this::run, runnable -> {
+                    Thread thread = new Thread(runnable, "warm-up");
+                    thread.setDaemon(true);
+                    thread.start();
+                })
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, error) -> {
+                    // A step stuck on the database still can't hold readiness past the timeout
+                    if (error != null) {
+                        finish(start, true);
+                    }
+                });
+    }
+
+    /**
+     * Runs every step and records the outcome. Steps stop early once the
+     * deadline has passed; failures are logged and don't stop later steps.
+     */
+    public Result run() {
+        long start = System.nanoTime();
+        deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        result.set(null);
+        steps.values().forEach(Step::reset);
+        List<Object> jsonSamples = new ArrayList<>();
+
+        step("categories", this::warmCategories);
+        step("productPages", () -> warmProductPages(jsonSamples));
+        step("topProducts", this::warmTopProducts);
+        step("jwt", this::warmJwt);
+        step("json", () -> warmJson(jsonSamples));
+
+        return finish(start, System.nanoTime() - deadline >= 0);
+    }
+
+    /**
+     * Outcome of the last run, null while it is still going
+     */
+    public Result getResult() {
+        return result.get();
+    }
+
+    /**
+     * Planned and completed units per step, in run order
+     */
+    public Map<String, String> getCoverage() {
+        Map<String, String> coverage = new LinkedHashMap<>();
+        steps.forEach((name, step) -> coverage.put(name,
+                step.started ? step.warmed.get() + "/" + step.planned : "not reached"));
+        return coverage;
+    }
+
+    private void warmCategories() {
+        // Already serialized bytes, nothing to add to the JSON samples
+        steps.get("categories").planned = 1;
+        categoryController.getAllCategories();
+        steps.get("categories").warmed.incrementAndGet();
+    }
+
+    private void warmProductPages(List<Object> jsonSamples) {
+        Step step = steps.get("productPages");
+        step.planned = productPages;
+        for (int page = 0; page < productPages && !expired(); page++) {
+            // Same arguments as a plain GET /api/products?page=N
+            ApiResponse<PageResponse<?>> body =
+                    productController.getAllProducts(page, 10, "createdAt", "desc", false, null).getBody();
+            jsonSamples.add(body);
+            step.warmed.incrementAndGet();
+            if (body == null || !body.getData().isHasNext()) {
+                step.planned = page + 1;
+                break;
+            }
+        }
+    }
+
+    private void warmTopProducts() {
+        Step step = steps.get("topProducts");
+        List<Long> productIds = orderItemRepository.findTopSellingProductIds(
+                LocalDateTime.now().minusDays(salesWindowDays), PageRequest.of(0, topProducts));
+        step.planned = productIds.size();
+        for (Long productId : productIds) {
+            if (expired()) {
+                return;
+            }
+            try {
+                productController.getProductById(productId);
+                step.warmed.incrementAndGet();
+            } catch (ResourceNotFoundException e) {
+                // Sold recently, deleted since
+                step.planned--;
+            }
+        }
+    }
+
+    private void warmJwt() {
+        Step step = steps.get("jwt");
+        step.planned = jitIterations;
+        Map<String, Object> claims = Map.of(JwtUtil.CLAIM_USER_ID, 0L, JwtUtil.CLAIM_ROLE, "USER");
+        for (int i = 0; i < jitIterations && !expired(); i++) {
+            // Login issues, JwtAuthenticationFilter parses and checks revocation
+            Claims parsed = jwtUtil.parseToken(jwtUtil.generateToken("warm-up", claims));
+            tokenRevocationService.isRevoked(parsed.getId());
+            step.warmed.incrementAndGet();
+        }
+    }
+
+    private void warmJson(List<Object> jsonSamples) {
+        Step step = steps.get("json");
+        step.planned = jsonSamples.isEmpty() ? 0 : jitIterations;
+        for (int i = 0; i < step.planned && !expired(); i++) {
+            objectMapper.writeValueAsBytes(jsonSamples.get(i % jsonSamples.size()));
+            step.warmed.incrementAndGet();
+        }
+    }
+
+    private void step(String name, Runnable work) {
+        if (expired()) {
+            return;
+        }
+        steps.get(name).started = true;
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            log.warn("Warm-up step {} failed: {}", name, e.toString());
+        }
+    }
+
+    private boolean expired() {
+        return System.nanoTime() - deadline >= 0;
+    }
+
+    private Result finish(long start, boolean timedOut) {
+        long elapsed = System.nanoTime() - start;
+        Result finished = new Result(TimeUnit.NANOSECONDS.toMillis(elapsed), timedOut);
+        if (!result.compareAndSet(null, finished)) {
+            return result.get();
+        }
+
+        Timer.builder("warmup.duration")
+                .description("Time from application ready until warm-up finished or timed out")
+                .tag("outcome", timedOut ? "timed_out" : "completed")
+                .register(meterRegistry)
+                .record(Duration.ofNanos(elapsed));
+        log.info("Warm-up {} in {} ms: {}", timedOut ? "timed out" : "completed",
+                finished.durationMillis(), getCoverage());
+        return finished;
+    }
+
+    public record Result(long durationMillis, boolean timedOut) {
+    }
+
+    private static final class Step {
+        private volatile boolean started;
+        private volatile int planned;
+        private final AtomicInteger warmed = new AtomicInteger();
+
+        private void reset() {
+            started = false;
+            planned = 0;
+            warmed.set(0);
+        }
+
+        // Nothing to do counts as fully covered, a step never reached as not at all
+        private double coverage() {
+            if (!started) {
+                return 0;
+            }
+            return planned == 0 ? 1 : Math.min(1.0, (double) warmed.get() / planned);
+        }
+    }
+}
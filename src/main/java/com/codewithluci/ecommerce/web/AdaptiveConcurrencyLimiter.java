@@ -0,0 +1,142 @@
+package com.codewithluci.ecommerce.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * In-flight request limit that follows latency (gradient algorithm, as in
+ * Netflix concurrency-limits' Gradient2).
+ *
+ * Latencies are averaged per window. A long-term average of those windows is
+ * the no-load baseline; each window the limit is scaled by
+ * gradient = tolerance * baseline / windowAverage (between 0.5 and 1), plus
+ * sqrt(limit) of headroom to probe for more. While latency stays near the
+ * baseline the limit grows; once requests start queueing it shrinks, and
+ * excess requests are turned away instead of waiting in Tomcat.
+ *
+ * A caller may be admitted against only a share of the limit, which keeps
+ * the remainder free for higher-priority requests.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // Long-term baseline follows about the last 50 windows, slow enough that
+    // sustained queueing keeps pushing the limit down
+    private static final double BASELINE_ALPHA = 2.0 / (50 + 1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Window and baseline state, guarded by this
+    private long windowStart;
+    private long windowSum;
+    private int windowCount;
+    private int windowMaxInFlight;
+    private double baselineRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double smoothing, long windowMillis, int minWindowSamples) {
+        this(initialLimit, minLimit, maxLimit, tolerance, smoothing, windowMillis, minWindowSamples, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                               long windowMillis, int minWindowSamples, LongSupplier clock) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Need 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.windowNanos = windowMillis * 1_000_000L;
+        this.minWindowSamples = minWindowSamples;
+        this.clock = clock;
+        this.limit = initialLimit;
+        this.windowStart = clock.getAsLong();
+    }
+
+    /**
+     * Admit a request if fewer than share * limit requests are in flight.
+     *
+     * @return start time to pass to release, or -1 if rejected
+     */
+    public long tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return clock.getAsLong();
+            }
+        }
+    }
+
+    /**
+     * Release an admitted request. Only requests that completed normally
+     * should pass sample=true; failures say nothing about queueing.
+     */
+    public void release(long startNanos, boolean sample) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (sample) {
+            onSample(clock.getAsLong() - startNanos, inFlightBefore);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtCompletion) {
+        windowSum += rttNanos;
+        windowCount++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+
+        long now = clock.getAsLong();
+        if (now - windowStart < windowNanos || windowCount < minWindowSamples) {
+            return;
+        }
+        double windowRtt = (double) windowSum / windowCount;
+        int maxInFlight = windowMaxInFlight;
+        windowStart = now;
+        windowSum = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+
+        update(windowRtt, maxInFlight);
+    }
+
+    private void update(double windowRtt, int maxInFlight) {
+        if (baselineRtt == 0) {
+            baselineRtt = windowRtt;
+        } else {
+            baselineRtt += (windowRtt - baselineRtt) * BASELINE_ALPHA;
+        }
+        // After a long overload the baseline has crept up; let it fall back
+        if (baselineRtt > 2 * windowRtt) {
+            baselineRtt *= 0.95;
+        }
+
+        // Traffic isn't using the limit, so latency says nothing about it
+        if (maxInFlight < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineRtt / windowRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        double next = limit * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,119 @@
+package com.codewithluci.ecommerce.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sheds load before it queues: requests beyond the adaptive in-flight limit
+ * (AdaptiveConcurrencyLimiter) get an immediate 503 with Retry-After.
+ *
+ * Routes are classed by RouteClass. Checkout and payment routes may use the
+ * whole limit; browse routes (catalog reads and pages) only browse-share of
+ * it and everything else default-share, so under overload browsing is shed
+ * first and orders keep going through.
+ *
+ * Runs right after the HTTP metrics filter, so rejections show up in
+ * http.server.requests, and before security and everything else.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    // Share of the limit each may use; admin, auth and other routes get the default share
+    enum Priority { CHECKOUT, DEFAULT, BROWSE }
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final boolean enabled;
+    private final Map<Priority, Double> shares = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> rejections = new EnumMap<>(Priority.class);
+
+    public ConcurrencyLimitFilter(
+            MeterRegistry registry,
+            @Value("${concurrency.limit.enabled:true}") boolean enabled,
+            @Value("${concurrency.limit.initial:50}") int initialLimit,
+            @Value("${concurrency.limit.min:10}") int minLimit,
+            @Value("${concurrency.limit.max:200}") int maxLimit,
+            @Value("${concurrency.limit.rtt-tolerance:1.5}") double tolerance,
+            @Value("${concurrency.limit.smoothing:0.2}") double smoothing,
+            @Value("${concurrency.limit.window-ms:1000}") long windowMillis,
+            @Value("${concurrency.limit.min-window-samples:10}") int minWindowSamples,
+            @Value("${concurrency.limit.default-share:0.9}") double defaultShare,
+            @Value("${concurrency.limit.browse-share:0.7}") double browseShare) {
+
+        this.enabled = enabled;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                tolerance, smoothing, windowMillis, minWindowSamples);
+        shares.put(Priority.CHECKOUT, 1.0);
+        shares.put(Priority.DEFAULT, defaultShare);
+        shares.put(Priority.BROWSE, browseShare);
+
+        for (Priority priority : Priority.values()) {
+            rejections.put(priority, Counter.builder("concurrency.limit.rejections")
+                    .description("Requests shed by the concurrency limiter")
+                    .tag("class", priority.name().toLowerCase())
+                    .register(registry));
+        }
+        Gauge.builder("concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive in-flight request limit")
+                .register(registry);
+        Gauge.builder("concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests in flight under the concurrency limiter")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || RouteClass.of(request) == RouteClass.ACTUATOR;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        Priority priority = classify(request);
+        long start = limiter.tryAcquire(shares.get(priority));
+        if (start < 0) {
+            rejections.get(priority).increment();
+            log.debug("Shed {} {} ({} in flight, limit {})", request.getMethod(), request.getRequestURI(),
+                    limiter.getInFlight(), limiter.getLimit());
+            ErrorResponses.write(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Server is busy, try again shortly", 1);
+            return;
+        }
+
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = response.getStatus() < 500;
+        } finally {
+            limiter.release(start, completed);
+        }
+    }
+
+    static Priority classify(HttpServletRequest request) {
+        return switch (RouteClass.of(request)) {
+            case CHECKOUT -> Priority.CHECKOUT;
+            case BROWSE -> Priority.BROWSE;
+            default -> Priority.DEFAULT;
+        };
+    }
+}
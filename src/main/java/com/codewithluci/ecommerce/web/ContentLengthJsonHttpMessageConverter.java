@@ -0,0 +1,50 @@
+package com.codewithluci.ecommerce.web;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * The Jackson converter Spring Boot would configure, except the body is
+ * serialized into a buffer first so the response carries a Content-Length.
+ *
+ * Tomcat only applies server.compression.min-response-size to responses of
+ * known length; a streamed (chunked) JSON body is gzipped however small it is.
+ * Response bodies here are single pages, so buffering them costs little.
+ *
+ * Installed in place of Boot's JSON converter by CompressionConfig.
+ */
+public class ContentLengthJsonHttpMessageConverter extends JacksonJsonHttpMessageConverter {
+
+    public ContentLengthJsonHttpMessageConverter(JsonMapper jsonMapper) {
+        super(jsonMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, ResolvableType resolvableType, HttpOutputMessage outputMessage,
+                                 Map<String, Object> hints) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        super.writeInternal(object, resolvableType, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return buffer;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return outputMessage.getHeaders();
+            }
+        }, hints);
+
+        // Headers are sent when the body is first requested
+        outputMessage.getHeaders().setContentLength(buffer.size());
+        buffer.writeTo(outputMessage.getBody());
+    }
+}
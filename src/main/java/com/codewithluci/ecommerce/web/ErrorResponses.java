@@ -0,0 +1,40 @@
+package com.codewithluci.ecommerce.web;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * The JSON error body filters answer with when they stop a request before it
+ * reaches a controller, in the same shape as GlobalExceptionHandler's.
+ */
+public final class ErrorResponses {
+
+    private ErrorResponses() {
+    }
+
+    public static void write(HttpServletResponse response, int status, String message) throws IOException {
+        write(response, status, message, 0);
+    }
+
+    /**
+     * With retryAfterSeconds > 0, also tells the client when to try again.
+     */
+    public static void write(HttpServletResponse response, int status, String message, long retryAfterSeconds)
+            throws IOException {
+        response.setStatus(status);
+        if (retryAfterSeconds > 0) {
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        }
+        response.setContentType("application/json");
+        response.getWriter().write(
+                "{\"success\":false,\"message\":\"" + escape(message) + "\",\"timestamp\":\"" +
+                        LocalDateTime.now() + "\"}"
+        );
+    }
+
+    private static String escape(String message) {
+        return message == null ? "" : message.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,117 @@
+package com.codewithluci.ecommerce.web;
+
+import com.codewithluci.ecommerce.cache.CatalogReadCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.dialect.AbstractProcessorDialect;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.inline.NoOpInliner;
+import org.thymeleaf.model.IModel;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.IProcessor;
+import org.thymeleaf.processor.element.AbstractAttributeModelProcessor;
+import org.thymeleaf.processor.element.IElementModelStructureHandler;
+import org.thymeleaf.standard.expression.StandardExpressions;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Set;
+
+/**
+ * cache:fragment="key expression" renders an element once and reuses the
+ * output, for template parts built from catalog data that look the same for
+ * every user, such as category navigation or a product grid:
+ *
+ *   nav cache:fragment="'categories'"
+ *   div cache:fragment="|grid:${selectedCategory}:${currentPage}:${searchQuery}|"
+ *
+ * Entries are keyed by template and evaluated key, at the current catalog
+ * data version (CatalogReadCache.version()). The key must cover everything
+ * inside the element that varies, and is evaluated before the element's
+ * other attributes (th:each, th:if) run.
+ *
+ * On a miss the element, its attributes and body are rendered on their own
+ * with the current context. Cached output is written out verbatim, never
+ * inlined again, so [[...]] in product data stays text.
+ */
+@Component
+public class FragmentCacheDialect extends AbstractProcessorDialect {
+
+    // Ahead of the Standard dialect (1000), so the other attributes run inside the cached render
+    private static final int PRECEDENCE = 100;
+
+    private final CatalogReadCache catalogReadCache;
+    private final RenderCache<String> cache;
+    private final boolean enabled;
+
+    public FragmentCacheDialect(
+            CatalogReadCache catalogReadCache,
+            MeterRegistry registry,
+            @Value("${view.cache.fragments.enabled:true}") boolean enabled,
+            @Value("${view.cache.fragments.max-entries:1000}") int maxEntries) {
+        super("Fragment cache", "cache", PRECEDENCE);
+        this.catalogReadCache = catalogReadCache;
+        this.cache = new RenderCache<>("fragments", maxEntries, registry);
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Set<IProcessor> getProcessors(String dialectPrefix) {
+        return Set.of(new FragmentProcessor(dialectPrefix));
+    }
+
+    private final class FragmentProcessor extends AbstractAttributeModelProcessor {
+
+        private FragmentProcessor(String dialectPrefix) {
+            super(TemplateMode.HTML, dialectPrefix, null, false, "fragment", true, PRECEDENCE, false);
+        }
+
+        @Override
+        protected void doProcess(ITemplateContext context, IModel model, AttributeName attributeName,
+                                 String attributeValue, IElementModelStructureHandler structureHandler) {
+            if (!enabled) {
+                return;
+            }
+            Object key = StandardExpressions.getExpressionParser(context.getConfiguration())
+                    .parseExpression(context, attributeValue)
+                    .execute(context);
+            String cacheKey = context.getTemplateData().getTemplate() + "#" + key;
+            long version = catalogReadCache.version();
+
+            String html = cache.get(cacheKey, version);
+            if (html == null) {
+                html = render(context, model, attributeName);
+                cache.put(cacheKey, version, html);
+            }
+
+            model.reset();
+            model.add(context.getModelFactory().createText(html));
+            structureHandler.setInliner(NoOpInliner.INSTANCE);
+        }
+
+        private String render(ITemplateContext context, IModel model, AttributeName attributeName) {
+            IProcessableElementTag first = (IProcessableElementTag) model.get(0);
+            // Without the attribute, or this processor would run again on the copy
+            model.replace(0, context.getModelFactory().removeAttribute(first, attributeName));
+            StringWriter markup = new StringWriter();
+            try {
+                model.write(markup);
+            } catch (IOException e) {
+                throw new TemplateProcessingException("Could not copy a cached fragment's markup", e);
+            }
+
+            TemplateManager templateManager = context.getConfiguration().getTemplateManager();
+            TemplateModel parsed = templateManager.parseString(context.getTemplateData(), markup.toString(),
+                    first.getLine(), first.getCol(), getTemplateMode(), false);
+            StringWriter html = new StringWriter();
+            templateManager.process(parsed, context, html);
+            return html.toString();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.codewithluci.ecommerce.web;
+
+import com.codewithluci.ecommerce.cache.CatalogReadCache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-page cache for the anonymous storefront: GET / and GET /products
+ * (ViewController.home and productsPage). A hit skips the controller's
+ * queries and the template rendering.
+ *
+ * Only anonymous requests are answered from or stored in the cache, since
+ * signed-in pages show the user; those still reuse cached fragments
+ * (FragmentCacheDialect). Entries are keyed by path and the parameters
+ * productsPage reads, at the current catalog data version. Only 200
+ * text/html responses that set no cookies are stored.
+ *
+ * Every request for these pages records view.render (time) and
+ * view.render.allocated (bytes allocated by the request thread), tagged
+ * with the cache outcome, so hits can be compared with full renders.
+ *
+ * Registered after Spring Security's filter chain, which has set the
+ * authentication by then.
+ */
+@Component
+public class PageCacheFilter extends OncePerRequestFilter {
+
+    private static final Map<String, String> PAGES = Map.of("/", "home", "/products", "products");
+
+    private final CatalogReadCache catalogReadCache;
+    private final RenderCache<Page> cache;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+
+    public PageCacheFilter(
+            CatalogReadCache catalogReadCache,
+            MeterRegistry registry,
+            @Value("${view.cache.pages.enabled:true}") boolean enabled,
+            @Value("${view.cache.pages.max-entries:500}") int maxEntries) {
+        this.catalogReadCache = catalogReadCache;
+        this.cache = new RenderCache<>("pages", maxEntries, registry);
+        this.registry = registry;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || !PAGES.containsKey(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        long allocatedBefore = allocatedBytes();
+        String outcome = serve(request, response, chain);
+        long allocated = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+        record(PAGES.get(path(request)), outcome, System.nanoTime() - start, allocated);
+    }
+
+    private String serve(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return "off";
+        }
+        if (!isAnonymous()) {
+            chain.doFilter(request, response);
+            return "bypass";
+        }
+
+        String key = key(request);
+        long version = catalogReadCache.version();
+        Page cached = cache.get(key, version);
+        if (cached != null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(cached.contentType());
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+            return "hit";
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+            if (isCacheable(wrapper)) {
+                cache.put(key, version, new Page(wrapper.getContentType(), wrapper.getContentAsByteArray()));
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+        return "miss";
+    }
+
+    // home takes no parameters; productsPage's are page, size, categoryId, search
+    private static String key(HttpServletRequest request) {
+        if (path(request).equals("/")) {
+            return "/";
+        }
+        return "/products?page=" + request.getParameter("page")
+                + "&size=" + request.getParameter("size")
+                + "&categoryId=" + request.getParameter("categoryId")
+                + "&search=" + request.getParameter("search");
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static boolean isAnonymous() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken;
+    }
+
+    private static boolean isCacheable(ContentCachingResponseWrapper response) {
+        String contentType = response.getContentType();
+        return response.getStatus() == HttpServletResponse.SC_OK
+                && contentType != null
+                && MediaType.TEXT_HTML.isCompatibleWith(MediaType.parseMediaType(contentType))
+                && !response.containsHeader(HttpHeaders.SET_COOKIE);
+    }
+
+    private void record(String page, String outcome, long nanos, long allocated) {
+        Timer.builder("view.render")
+                .description("Time to answer a storefront page request")
+                .tag("page", page)
+                .tag("cache", outcome)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (allocated >= 0) {
+            DistributionSummary.builder("view.render.allocated")
+                    .description("Bytes allocated by the request thread for a storefront page")
+                    .baseUnit("bytes")
+                    .tag("page", page)
+                    .tag("cache", outcome)
+                    .register(registry)
+                    .record(allocated);
+        }
+    }
+
+    // -1 when the JVM can't tell, which skips the allocation metric
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean hotspot && hotspot.isThreadAllocatedMemoryEnabled()) {
+            return hotspot.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    private record Page(String contentType, byte[] body) {
+    }
+}
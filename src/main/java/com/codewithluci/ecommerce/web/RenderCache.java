@@ -0,0 +1,86 @@
+package com.codewithluci.ecommerce.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rendered view output for PageCacheFilter and FragmentCacheDialect.
+ *
+ * Each entry remembers the catalog data version (CatalogReadCache.version())
+ * it was rendered at and is only returned for that version; the next render
+ * of the key replaces it. Nothing is invalidated explicitly.
+ *
+ * At maxEntries, entries from an older version or not hit since the previous
+ * sweep are dropped, as in SerializedResponseCache.
+ */
+final class RenderCache<V> {
+
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    RenderCache(String name, int maxEntries, MeterRegistry registry) {
+        this.maxEntries = maxEntries;
+        this.hits = result(registry, name, "hit");
+        this.misses = result(registry, name, "miss");
+        Gauge.builder("view.cache.size", entries, Map::size)
+                .description("Rendered pages or fragments held in memory")
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    V get(String key, long version) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.version != version) {
+            misses.increment();
+            return null;
+        }
+        entry.used = true;
+        hits.increment();
+        return entry.value;
+    }
+
+    void put(String key, long version, V value) {
+        if (entries.containsKey(key) || makeRoom(version)) {
+            entries.put(key, new Entry<>(version, value));
+        }
+    }
+
+    private boolean makeRoom(long version) {
+        if (entries.size() < maxEntries) {
+            return true;
+        }
+        entries.values().removeIf(entry -> {
+            boolean cold = !entry.used || entry.version != version;
+            entry.used = false;
+            return cold;
+        });
+        return entries.size() < maxEntries;
+    }
+
+    private static Counter result(MeterRegistry registry, String name, String result) {
+        return Counter.builder("view.cache.requests")
+                .description("Rendered page and fragment cache lookups")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static final class Entry<V> {
+        private final long version;
+        private final V value;
+        // Set on hit, cleared by makeRoom
+        private volatile boolean used;
+
+        private Entry(long version, V value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
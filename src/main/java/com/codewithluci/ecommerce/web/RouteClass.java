@@ -0,0 +1,83 @@
+package com.codewithluci.ecommerce.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What a request is for, by path (and method, for the catalog API). The
+ * load-shedding filters (ConcurrencyLimitFilter, BulkheadFilter) both class
+ * requests here, so they can't disagree about a route.
+ */
+public enum RouteClass {
+    // The admin pages, every .../admin/... API route, and writes to the catalog API
+    ADMIN,
+    // OrderController, PaymentController and the checkout page
+    CHECKOUT,
+    // Catalog reads (ProductController, CategoryController), the catalog pages and static assets
+    BROWSE,
+    // AuthController and the login/register pages
+    AUTH,
+    // Probes and metrics, which must answer even when the application is saturated
+    ACTUATOR,
+    // Cart, account pages and anything else
+    OTHER;
+
+    private static final List<PathPattern> ADMIN_ROUTES = patterns(
+            "/admin/**", "/api/admin/**", "/api/*/admin/**");
+    // Product and category writes are admin-only, reads are browse
+    private static final List<PathPattern> CATALOG_ROUTES = patterns(
+            "/api/products/**", "/api/categories/**");
+    private static final List<PathPattern> CHECKOUT_ROUTES = patterns(
+            "/api/orders/**", "/api/payments/**", "/checkout");
+    private static final List<PathPattern> BROWSE_ROUTES = patterns(
+            "/", "/products/**", "/css/**", "/js/**", "/images/**");
+    private static final List<PathPattern> AUTH_ROUTES = patterns(
+            "/api/auth/**", "/login", "/register");
+    private static final List<PathPattern> ACTUATOR_ROUTES = patterns("/actuator/**");
+
+    public static RouteClass of(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        // Admin first, as /api/orders/admin/** is under checkout's paths
+        if (matches(ADMIN_ROUTES, path)) {
+            return ADMIN;
+        }
+        if (matches(CATALOG_ROUTES, path)) {
+            boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+            return read ? BROWSE : ADMIN;
+        }
+        if (matches(CHECKOUT_ROUTES, path)) {
+            return CHECKOUT;
+        }
+        if (matches(BROWSE_ROUTES, path)) {
+            return BROWSE;
+        }
+        if (matches(AUTH_ROUTES, path)) {
+            return AUTH;
+        }
+        if (matches(ACTUATOR_ROUTES, path)) {
+            return ACTUATOR;
+        }
+        return OTHER;
+    }
+
+    private static boolean matches(List<PathPattern> patterns, PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<PathPattern> patterns(String... paths) {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        return Arrays.stream(paths).map(parser::parse).toList();
+    }
+}
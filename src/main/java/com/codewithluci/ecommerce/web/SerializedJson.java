@@ -0,0 +1,14 @@
+package com.codewithluci.ecommerce.web;
+
+/**
+ * A response body that is already JSON. Written as-is by
+ * SerializedJsonHttpMessageConverter, with the current time patched into the
+ * 19 bytes at timestampOffset ("yyyy-MM-dd HH:mm:ss"), or nothing patched
+ * when timestampOffset is -1.
+ *
+ * The bytes are shared between requests and must not be modified.
+ */
+public record SerializedJson(byte[] bytes, int timestampOffset) {
+
+    public static final int TIMESTAMP_LENGTH = 19;
+}
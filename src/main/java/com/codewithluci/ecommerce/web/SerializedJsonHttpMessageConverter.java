@@ -0,0 +1,67 @@
+package com.codewithluci.ecommerce.web;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes SerializedJson bodies straight to the response stream: the cached
+ * bytes around the timestamp, and the timestamp itself. No Jackson involved.
+ *
+ * Spring Boot adds HttpMessageConverter beans ahead of its defaults, so this
+ * is picked before the Jackson converter.
+ */
+@Component
+public class SerializedJsonHttpMessageConverter extends AbstractHttpMessageConverter<SerializedJson> {
+
+    // Same pattern as ApiResponse.timestamp
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public SerializedJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SerializedJson.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected SerializedJson readInternal(Class<? extends SerializedJson> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("SerializedJson is write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(SerializedJson body, MediaType contentType) {
+        return (long) body.bytes().length;
+    }
+
+    @Override
+    protected void writeInternal(SerializedJson body, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = body.bytes();
+        int offset = body.timestampOffset();
+        OutputStream out = outputMessage.getBody();
+        if (offset < 0) {
+            out.write(bytes);
+            return;
+        }
+        int end = offset + SerializedJson.TIMESTAMP_LENGTH;
+        out.write(bytes, 0, offset);
+        out.write(TIMESTAMP.format(LocalDateTime.now()).getBytes(StandardCharsets.US_ASCII));
+        out.write(bytes, end, bytes.length - end);
+    }
+}
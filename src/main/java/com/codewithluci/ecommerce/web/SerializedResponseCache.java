@@ -0,0 +1,157 @@
+package com.codewithluci.ecommerce.web;
+
+import com.codewithluci.ecommerce.dto.respone.ApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serialized ApiResponse.success(...) bodies for hot read endpoints.
+ *
+ * An entry holds the message and data it was rendered from. It is reused only
+ * while the caller's freshly built DTO is still equal to that data, so the
+ * DTO acts as the entity version: any change, whichever instance or bulk
+ * update made it, produces a miss and a re-render. No invalidation hooks.
+ *
+ * Bodies are rendered with a placeholder timestamp whose position is recorded;
+ * the converter writes the real time there on every response.
+ *
+ * At maxEntries, entries not hit since the previous sweep are dropped, so
+ * hot keys stay and cold ones make room.
+ */
+@Component
+public class SerializedResponseCache {
+
+    // Fixed-width placeholder, replaced on write
+    private static final LocalDateTime PLACEHOLDER = LocalDateTime.of(2000, 1, 1, 0, 0, 0);
+    private static final byte[] PLACEHOLDER_JSON = "\"2000-01-01 00:00:00\"".getBytes(StandardCharsets.US_ASCII);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxEntries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public SerializedResponseCache(
+            ObjectMapper objectMapper,
+            MeterRegistry registry,
+            @Value("${response.cache.enabled:true}") boolean enabled,
+            @Value("${response.cache.max-entries:2000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+
+        this.hits = result(registry, "hit");
+        this.misses = result(registry, "miss");
+        Gauge.builder("response.cache.size", entries, Map::size)
+                .description("Serialized responses held in memory")
+                .register(registry);
+    }
+
+    /**
+     * Body for ApiResponse.success(message, data), from cache when the entry
+     * under key was rendered from an equal message and data.
+     */
+    public SerializedJson success(String key, String message, Object data) {
+        if (!enabled) {
+            return render(message, data);
+        }
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.matches(message, data)) {
+            entry.used = true;
+            hits.increment();
+            return entry.json;
+        }
+
+        misses.increment();
+        SerializedJson json = render(message, data);
+        if (json.timestampOffset() >= 0 && (entries.containsKey(key) || makeRoom())) {
+            entries.put(key, new Entry(message, data, json));
+        }
+        return json;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private SerializedJson render(String message, Object data) {
+        ApiResponse<Object> response = ApiResponse.success(message, data);
+        if (!enabled) {
+            return new SerializedJson(objectMapper.writeValueAsBytes(response), -1);
+        }
+
+        response.setTimestamp(PLACEHOLDER);
+        byte[] bytes = objectMapper.writeValueAsBytes(response);
+        // timestamp is the last property, so search from the end
+        int quote = lastIndexOf(bytes, PLACEHOLDER_JSON);
+        if (quote < 0) {
+            // Serialized some other way (custom mapper config); don't patch, don't cache
+            response.setTimestamp(LocalDateTime.now());
+            return new SerializedJson(objectMapper.writeValueAsBytes(response), -1);
+        }
+        return new SerializedJson(bytes, quote + 1);
+    }
+
+    private boolean makeRoom() {
+        if (entries.size() < maxEntries) {
+            return true;
+        }
+        entries.values().removeIf(entry -> {
+            boolean cold = !entry.used;
+            entry.used = false;
+            return cold;
+        });
+        return entries.size() < maxEntries;
+    }
+
+    private static int lastIndexOf(byte[] bytes, byte[] target) {
+        outer:
+        for (int i = bytes.length - target.length; i >= 0; i--) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static Counter result(MeterRegistry registry, String result) {
+        return Counter.builder("response.cache.requests")
+                .description("Serialized response cache lookups")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static final class Entry {
+        private final String message;
+        private final Object data;
+        private final SerializedJson json;
+        // Set on hit, cleared by makeRoom
+        private volatile boolean used;
+
+        private Entry(String message, Object data, SerializedJson json) {
+            this.message = message;
+            this.data = data;
+            this.json = json;
+        }
+
+        private boolean matches(String message, Object data) {
+            return this.message.equals(message) && Objects.equals(this.data, data);
+        }
+    }
+}
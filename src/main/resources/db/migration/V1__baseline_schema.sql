@@ -0,0 +1,131 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update.
+-- Databases created that way are baselined at version 1 and skip this script
+-- (spring.flyway.baseline-on-migrate), so constraint names are kept identical
+-- to the ones Hibernate generated.
+
+create table users (
+    id bigint not null auto_increment,
+    username varchar(50) not null,
+    email varchar(100) not null,
+    password varchar(255) not null,
+    full_name varchar(100),
+    phone_number varchar(15),
+    role enum ('ADMIN','USER') not null,
+    is_active bit not null,
+    is_email_verified bit not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table categories (
+    id bigint not null auto_increment,
+    name varchar(100) not null,
+    description varchar(500),
+    slug varchar(150) not null,
+    is_active bit not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table products (
+    id bigint not null auto_increment,
+    name varchar(200) not null,
+    description TEXT,
+    price decimal(12,2) not null,
+    stock_quantity integer not null,
+    image_url varchar(500),
+    sku varchar(100),
+    is_active bit not null,
+    category_id bigint not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id),
+    check ((stock_quantity>=0))
+) engine=InnoDB;
+
+create table orders (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    status enum ('CANCELLED','CONFIRMED','DELIVERED','PENDING','PROCESSING','SHIPPED') not null,
+    total_amount decimal(12,2) not null,
+    shipping_address varchar(500),
+    notes varchar(1000),
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table order_items (
+    id bigint not null auto_increment,
+    order_id bigint not null,
+    product_id bigint not null,
+    product_name varchar(200) not null,
+    price decimal(12,2) not null,
+    quantity integer not null,
+    subtotal decimal(12,2) not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id),
+    check ((quantity>=1))
+) engine=InnoDB;
+
+create table payments (
+    id bigint not null auto_increment,
+    order_id bigint not null,
+    amount decimal(12,2) not null,
+    status enum ('FAILED','PENDING','PROCESSING','REFUNDED','SUCCESS') not null,
+    method enum ('CASH_ON_DELIVERY','CREDIT_CARD','DEBIT_CARD','NET_BANKING','UPI','WALLET') not null,
+    transaction_id varchar(100),
+    gateway_reference varchar(100),
+    failure_reason varchar(500),
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table refresh_tokens (
+    id bigint not null auto_increment,
+    token_hash varchar(64) not null,
+    user_id bigint not null,
+    family_id varchar(36) not null,
+    expires_at datetime(6) not null,
+    used_at datetime(6),
+    revoked bit not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table revoked_tokens (
+    id bigint not null auto_increment,
+    token_id varchar(36) not null,
+    username varchar(50) not null,
+    expires_at datetime(6) not null,
+    revoked_by varchar(50),
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+alter table categories add constraint UKt8o6pivur7nn124jehx7cygw5 unique (name);
+alter table categories add constraint UKoul14ho7bctbefv8jywp5v3i2 unique (slug);
+alter table products add constraint UKfhmd06dsmj6k0n90swsh8ie9g unique (sku);
+alter table payments add constraint UK8vo36cen604as7etdfwmyjsxt unique (order_id);
+alter table payments add constraint UKlryndveuwa4k5qthti0pkmtlx unique (transaction_id);
+alter table refresh_tokens add constraint UKo2mlirhldriil2y7krapq4frt unique (token_hash);
+alter table revoked_tokens add constraint UK2lgd8f0pk901tgbbyx8xsambx unique (token_id);
+
+create index idx_refresh_tokens_family_id on refresh_tokens (family_id);
+create index idx_refresh_tokens_expires_at on refresh_tokens (expires_at);
+create index idx_revoked_tokens_expires_at on revoked_tokens (expires_at);
+
+alter table products add constraint FKog2rp4qthbtt2lfyhfo32lsw9 foreign key (category_id) references categories (id);
+alter table orders add constraint FK32ql8ubntj5uh44ph9659tiih foreign key (user_id) references users (id);
+alter table order_items add constraint FKbioxgbv59vetrxe0ejfubep1w foreign key (order_id) references orders (id);
+alter table order_items add constraint FKocimc7dtr037rh4ls4l95nlfi foreign key (product_id) references products (id);
+alter table payments add constraint FK81gagumt0r8y3rmudcgpbk42l foreign key (order_id) references orders (id);
+alter table refresh_tokens add constraint FK1lih5y2npsf8u5o3vhdb9y0os foreign key (user_id) references users (id);
@@ -0,0 +1,20 @@
+-- Composite indexes for the list queries. Each one matches the filter columns
+-- followed by the sort column, so a page is read in index order without a sort.
+
+-- OrderRepository.findByUserId (my orders, newest first)
+create index idx_orders_user_created on orders (user_id, created_at);
+
+-- OrderRepository.findByStatus, findByStatusAndCreatedAtBefore
+create index idx_orders_status_created on orders (status, created_at);
+
+-- OrderRepository.findAll (admin list, newest first)
+create index idx_orders_created on orders (created_at);
+
+-- ProductRepository.findByCategoryIdAndIsActiveTrue
+create index idx_products_category_active_created on products (category_id, is_active, created_at);
+
+-- ProductRepository.findByIsActiveTrue (catalog, newest first)
+create index idx_products_active_created on products (is_active, created_at);
+
+-- PaymentRepository.findByStatus
+create index idx_payments_status on payments (status);
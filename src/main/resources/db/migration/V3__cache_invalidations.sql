@@ -0,0 +1,15 @@
+-- Cross-instance cache invalidations (DatabaseInvalidationTransport). Instances
+-- read new rows by id and purge rows older than cache.invalidation.retention-ms.
+create table cache_invalidations (
+    id bigint not null auto_increment,
+    entity_type enum ('CATEGORY','PRODUCT','USER') not null,
+    -- null: every cached row of that type
+    entity_id bigint,
+    origin varchar(36) not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+-- CacheInvalidationRepository.deleteCreatedBefore (purge)
+create index idx_cache_invalidations_created on cache_invalidations (created_at);
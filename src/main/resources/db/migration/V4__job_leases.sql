@@ -0,0 +1,11 @@
+-- Leases for work that must run on one instance at a time (LeaderElection).
+-- The holder renews expires_at by heartbeat; every takeover increments
+-- fencing_token so writes made under an older lease can be rejected.
+create table job_leases (
+    name varchar(64) not null,
+    owner varchar(36),
+    fencing_token bigint not null,
+    expires_at datetime(6) not null,
+    heartbeat_at datetime(6),
+    primary key (name)
+) engine=InnoDB;
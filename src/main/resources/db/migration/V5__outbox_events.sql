@@ -0,0 +1,12 @@
+-- Transactional outbox for order and payment events (OutboxPublisher). Rows are
+-- written with the state change and deleted by OutboxRelay once delivered.
+create table outbox_events (
+    id bigint not null auto_increment,
+    event_type enum ('ORDER_CREATED','ORDER_STATUS_CHANGED','ORDER_CONFIRMED','ORDER_CANCELLED',
+        'PAYMENT_SUCCEEDED','PAYMENT_FAILED') not null,
+    aggregate_id bigint not null,
+    payload TEXT not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,2 @@
+-- ProductRepository.findIdsUpdatedSince: catching a product snapshot up at startup
+create index idx_products_updated on products (updated_at);
@@ -0,0 +1,224 @@
+package com.codewithluci.ecommerce.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadTests {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void fullAdminBulkheadLeavesOtherRoutesAlone() throws Exception {
+        BulkheadFilter filter = filter(new MockEnvironment()
+                .withProperty("bulkhead.admin.max-concurrent", "1")
+                .withProperty("bulkhead.admin.max-queued", "0"));
+
+        List<MockHttpServletResponse> inner = new ArrayList<>();
+        MockFilterChain holdsASlot = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                try {
+                    inner.add(send(filter, "GET", "/api/categories/admin/all"));
+                    inner.add(send(filter, "POST", "/api/orders"));
+                    inner.add(send(filter, "GET", "/api/products/1"));
+                    inner.add(send(filter, "POST", "/api/auth/login"));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/orders/admin/all"), outer, holdsASlot);
+
+        assertThat(outer.getStatus()).isEqualTo(200);
+        assertThat(inner).extracting(MockHttpServletResponse::getStatus).containsExactly(503, 200, 200, 200);
+        assertThat(inner.get(0).getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejections("admin", "queue-full")).isEqualTo(1);
+        assertThat(filter.bulkhead(BulkheadFilter.Route.ADMIN).getActive()).isZero();
+    }
+
+    @Test
+    void queuedRequestsWaitForASlotUntilTheQueueIsFull() throws Exception {
+        BulkheadFilter filter = filter(new MockEnvironment()
+                .withProperty("bulkhead.admin.max-concurrent", "1")
+                .withProperty("bulkhead.admin.max-queued", "1")
+                .withProperty("bulkhead.admin.max-wait-ms", "5000"));
+        Bulkhead admin = filter.bulkhead(BulkheadFilter.Route.ADMIN);
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() ->
+                send(filter, "/admin/orders", () -> {
+                    running.countDown();
+                    await(finish);
+                }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<MockHttpServletResponse> second = CompletableFuture.supplyAsync(() ->
+                send(filter, "/admin/orders", () -> { }));
+        while (admin.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        MockHttpServletResponse third = send(filter, "GET", "/admin/products");
+        finish.countDown();
+
+        assertThat(third.getStatus()).isEqualTo(503);
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        assertThat(second.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        assertThat(registry.get("bulkhead.wait").tag("bulkhead", "admin").timer().count()).isEqualTo(1);
+        assertThat(rejections("admin", "queue-full")).isEqualTo(1);
+        assertThat(admin.getActive()).isZero();
+        assertThat(admin.getQueued()).isZero();
+    }
+
+    @Test
+    void queuedRequestIsRejectedAfterMaxWait() throws Exception {
+        BulkheadFilter filter = filter(new MockEnvironment()
+                .withProperty("bulkhead.auth.max-concurrent", "1")
+                .withProperty("bulkhead.auth.max-wait-ms", "20"));
+
+        List<MockHttpServletResponse> inner = new ArrayList<>();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/auth/login"), new MockHttpServletResponse(),
+                new MockFilterChain() {
+                    @Override
+                    public void doFilter(ServletRequest request, ServletResponse response) {
+                        try {
+                            inner.add(send(filter, "POST", "/api/auth/register"));
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+
+        assertThat(inner).extracting(MockHttpServletResponse::getStatus).containsExactly(503);
+        assertThat(rejections("auth", "timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void bulkheadCapsTheConnectionsItsRequestsHold() throws Exception {
+        BulkheadFilter filter = filter(new MockEnvironment()
+                .withProperty("bulkhead.admin.max-connections", "1")
+                .withProperty("bulkhead.connection-wait-ms", "20"));
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:bulkhead;DB_CLOSE_DELAY=-1");
+        BulkheadDataSource dataSource = new BulkheadDataSource(h2);
+
+        List<Object> outcomes = new ArrayList<>();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/orders/admin/all"), new MockHttpServletResponse(),
+                new MockFilterChain() {
+                    @Override
+                    public void doFilter(ServletRequest request, ServletResponse response) {
+                        try (Connection first = dataSource.getConnection()) {
+                            assertThatThrownBy(dataSource::getConnection)
+                                    .isInstanceOf(SQLTransientConnectionException.class);
+                            outcomes.add(first.isValid(1));
+                            first.close();
+                            // Closing twice gives back one permit, not two
+                            first.close();
+                            try (Connection second = dataSource.getConnection()) {
+                                outcomes.add(second.isValid(1));
+                            }
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+
+        assertThat(outcomes).containsExactly(true, true);
+        assertThat(filter.bulkhead(BulkheadFilter.Route.ADMIN).getActiveConnections()).isZero();
+        assertThat(registry.get("bulkhead.connections.rejections").tag("bulkhead", "admin").counter().count())
+                .isEqualTo(1);
+
+        // Outside a bulkhead nothing is capped
+        try (Connection a = dataSource.getConnection(); Connection b = dataSource.getConnection()) {
+            assertThat(a.isValid(1) && b.isValid(1)).isTrue();
+        }
+    }
+
+    @Test
+    void defaultsLeaveCheckoutItsShareOfTheWorkerThreads() {
+        assertThat(filter(new MockEnvironment()).checkoutThreads()).isEqualTo(60);
+        // Fewer worker threads than the other bulkheads can hold: checkout has none of its own
+        assertThat(filter(new MockEnvironment().withProperty("server.tomcat.threads.max", "100"))
+                .checkoutThreads()).isNegative();
+    }
+
+    @Test
+    void routesAreClassedByController() {
+        assertThat(classify("GET", "/api/orders/admin/all")).isEqualTo(BulkheadFilter.Route.ADMIN);
+        assertThat(classify("PUT", "/api/orders/admin/7/status")).isEqualTo(BulkheadFilter.Route.ADMIN);
+        assertThat(classify("GET", "/admin/dashboard")).isEqualTo(BulkheadFilter.Route.ADMIN);
+        assertThat(classify("POST", "/api/products")).isEqualTo(BulkheadFilter.Route.ADMIN);
+        assertThat(classify("DELETE", "/api/categories/3")).isEqualTo(BulkheadFilter.Route.ADMIN);
+        assertThat(classify("POST", "/api/orders")).isEqualTo(BulkheadFilter.Route.CHECKOUT);
+        assertThat(classify("POST", "/api/payments/webhook/simulate")).isEqualTo(BulkheadFilter.Route.CHECKOUT);
+        assertThat(classify("GET", "/checkout")).isEqualTo(BulkheadFilter.Route.CHECKOUT);
+        assertThat(classify("GET", "/api/products/search")).isEqualTo(BulkheadFilter.Route.BROWSE);
+        assertThat(classify("GET", "/products/7")).isEqualTo(BulkheadFilter.Route.BROWSE);
+        assertThat(classify("POST", "/api/auth/login")).isEqualTo(BulkheadFilter.Route.AUTH);
+        assertThat(classify("GET", "/login")).isEqualTo(BulkheadFilter.Route.AUTH);
+        assertThat(classify("GET", "/actuator/health")).isNull();
+        assertThat(classify("GET", "/my-orders")).isNull();
+    }
+
+    private BulkheadFilter filter(MockEnvironment environment) {
+        return new BulkheadFilter(registry, environment, true,
+                environment.getProperty("bulkhead.connection-wait-ms", Long.class, 1000L));
+    }
+
+    private double rejections(String bulkhead, String reason) {
+        return registry.get("bulkhead.rejections").tag("bulkhead", bulkhead).tag("reason", reason).counter().count();
+    }
+
+    private static BulkheadFilter.Route classify(String method, String path) {
+        return BulkheadFilter.classify(new MockHttpServletRequest(method, path));
+    }
+
+    private static MockHttpServletResponse send(BulkheadFilter filter, String method, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, path), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletResponse send(BulkheadFilter filter, String path, Runnable handler) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(new MockHttpServletRequest("GET", path), response, new MockFilterChain() {
+                @Override
+                public void doFilter(ServletRequest request, ServletResponse response) {
+                    handler.run();
+                }
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
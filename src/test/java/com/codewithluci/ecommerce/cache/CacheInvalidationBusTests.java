@@ -0,0 +1,91 @@
+package com.codewithluci.ecommerce.cache;
+
+import com.codewithluci.ecommerce.EcommerceApplication;
+import com.codewithluci.ecommerce.dto.request.ProductRequest;
+import com.codewithluci.ecommerce.entity.Category;
+import com.codewithluci.ecommerce.entity.Product;
+import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import com.codewithluci.ecommerce.service.ProductService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A write on one instance reaches another instance's caches through the
+ * database transport. The second instance runs in this JVM on the same H2
+ * database, with its own read cache.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CacheInvalidationBusTests {
+
+    private static ConfigurableApplicationContext other;
+
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductService productService;
+
+    @BeforeAll
+    static void startOtherInstance() {
+        other = new SpringApplicationBuilder(EcommerceApplication.class)
+                .properties("server.port=0",
+                        // Would share the JCache manager with this instance
+                        "cache.l2.enabled=false",
+                        "spring.jmx.enabled=false")
+                .run();
+    }
+
+    @AfterAll
+    static void stopOtherInstance() {
+        if (other != null) {
+            other.close();
+        }
+    }
+
+    @Test
+    void productUpdateReachesTheOtherInstance() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Category category = categoryRepository.save(Category.builder()
+                .name("Bus " + run)
+                .slug("bus-" + run)
+                .isActive(true)
+                .build());
+        Product product = productRepository.save(Product.builder()
+                .name("Bus product " + run)
+                .price(new BigDecimal("10.00"))
+                .stockQuantity(10)
+                .sku("BUS-" + run)
+                .isActive(true)
+                .category(category)
+                .build());
+
+        CatalogReadCache otherCache = other.getBean(CatalogReadCache.class);
+        assertThat(otherCache.getProduct(product.getId()).getPrice()).isEqualByComparingTo("10.00");
+
+        ProductRequest request = new ProductRequest();
+        request.setName(product.getName());
+        request.setPrice(new BigDecimal("25.00"));
+        request.setStockQuantity(10);
+        request.setCategoryId(category.getId());
+        productService.updateProduct(product.getId(), request);
+
+        // Well inside the read cache TTL, so only an invalidation explains the new price
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (otherCache.getProduct(product.getId()).getPrice().compareTo(new BigDecimal("25.00")) != 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(otherCache.getProduct(product.getId()).getPrice()).isEqualByComparingTo("25.00");
+    }
+}
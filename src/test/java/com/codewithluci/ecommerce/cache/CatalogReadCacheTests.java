@@ -0,0 +1,108 @@
+package com.codewithluci.ecommerce.cache;
+
+import com.codewithluci.ecommerce.dto.request.ProductRequest;
+import com.codewithluci.ecommerce.entity.Category;
+import com.codewithluci.ecommerce.entity.Product;
+import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import com.codewithluci.ecommerce.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Writes through any path are visible on the next read once committed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogReadCacheTests {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductService productService;
+
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        category = categoryRepository.save(Category.builder()
+                .name("Coalesce " + run)
+                .slug("coalesce-" + run)
+                .isActive(true)
+                .build());
+        product = productRepository.save(product("Coalesce product " + run, "COAL-" + run));
+    }
+
+    @Test
+    void productIsServedFromCacheUntilAnUpdateCommits() throws Exception {
+        String path = "/api/products/" + product.getId();
+        getData(path);
+
+        double hitsBefore = productHits();
+        getData(path);
+        assertThat(productHits()).isEqualTo(hitsBefore + 1);
+
+        ProductRequest request = new ProductRequest();
+        request.setName(product.getName());
+        request.setPrice(new BigDecimal("20.00"));
+        request.setStockQuantity(3);
+        request.setCategoryId(category.getId());
+        productService.updateProduct(product.getId(), request);
+
+        JsonNode data = getData(path);
+        assertThat(data.get("price").decimalValue()).isEqualByComparingTo("20.00");
+        assertThat(data.get("stockQuantity").asInt()).isEqualTo(3);
+    }
+
+    @Test
+    void newProductUpdatesItsCategoryCount() throws Exception {
+        String path = "/api/categories/" + category.getId();
+        assertThat(getData(path).get("productCount").asInt()).isEqualTo(1);
+
+        productRepository.save(product("Coalesce second " + category.getSlug(), "COAL2-" + category.getSlug()));
+
+        assertThat(getData(path).get("productCount").asInt()).isEqualTo(2);
+    }
+
+    private Product product(String name, String sku) {
+        return Product.builder()
+                .name(name)
+                .description("Cached in front of the service")
+                .price(new BigDecimal("10.00"))
+                .stockQuantity(10)
+                .sku(sku)
+                .isActive(true)
+                .category(category)
+                .build();
+    }
+
+    private JsonNode getData(String path) throws Exception {
+        String body = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("data");
+    }
+
+    private double productHits() {
+        return meterRegistry.get("read.cache.requests")
+                .tag("cache", "products").tag("result", "hit").counter().count();
+    }
+}
@@ -0,0 +1,150 @@
+package com.codewithluci.ecommerce.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalescingCacheTests {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final Deque<Runnable> refreshes = new ArrayDeque<>();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CoalescingCache<Long, String> cache = new CoalescingCache<>("test", 1000, 1000, 1.0, 100,
+                refreshes::add, registry);
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> cache.get(1L, key -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "product " + key;
+                })));
+            }
+            while (requests("coalesced") < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("product 1");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(registry.get("read.cache.coalesced.wait").timer().count()).isEqualTo(callers - 1);
+    }
+
+    @Test
+    void expiredEntryIsServedStaleWhileOneRefreshRuns() {
+        CoalescingCache<Long, String> cache = cache();
+        assertThat(cache.get(1L, this::load)).isEqualTo("v1");
+
+        clock.addAndGet(millis(1500));
+        assertThat(cache.get(1L, this::load)).isEqualTo("v1");
+        assertThat(cache.get(1L, this::load)).isEqualTo("v1");
+        assertThat(refreshes).hasSize(1);
+
+        refreshes.poll().run();
+        assertThat(cache.get(1L, this::load)).isEqualTo("v2");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void entryPastTheStaleWindowIsReloadedInline() {
+        CoalescingCache<Long, String> cache = cache();
+        cache.get(1L, this::load);
+
+        clock.addAndGet(millis(2500));
+        assertThat(cache.get(1L, this::load)).isEqualTo("v2");
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    void hitsCloseToExpiryRefreshEarly() {
+        // Huge beta: any hit after a non-zero load time is "close to expiry"
+        CoalescingCache<Long, String> cache = new CoalescingCache<>("test", 1000, 1000, 1e9, 100,
+                refreshes::add, registry, clock::get);
+        cache.get(1L, key -> {
+            clock.addAndGet(millis(5));
+            return load(key);
+        });
+
+        assertThat(cache.get(1L, this::load)).isEqualTo("v1");
+        assertThat(refreshes).hasSize(1);
+        assertThat(registry.get("read.cache.refreshes").tag("reason", "early").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void loadInvalidatedMidwayIsNotStored() {
+        CoalescingCache<Long, String> cache = cache();
+
+        // A write commits while the old row is being read
+        String value = cache.get(1L, key -> {
+            String loaded = load(key);
+            cache.invalidate(key);
+            return loaded;
+        });
+        assertThat(value).isEqualTo("v1");
+
+        assertThat(cache.get(1L, this::load)).isEqualTo("v2");
+    }
+
+    @Test
+    void failedLoadsAreNotCached() {
+        CoalescingCache<Long, String> cache = cache();
+
+        assertThatThrownBy(() -> cache.get(1L, key -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get(1L, this::load)).isEqualTo("v1");
+    }
+
+    private CoalescingCache<Long, String> cache() {
+        return new CoalescingCache<>("test", 1000, 1000, 1.0, 100, refreshes::add, registry, clock::get);
+    }
+
+    private String load(Long key) {
+        return "v" + loads.incrementAndGet();
+    }
+
+    private double requests(String result) {
+        return registry.get("read.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.codewithluci.ecommerce.cache;
+
+import com.codewithluci.ecommerce.entity.Category;
+import com.codewithluci.ecommerce.entity.Product;
+import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import com.codewithluci.ecommerce.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A snapshot written by one store is picked up by the next one, as after a
+ * restart, minus whatever changed in between.
+ */
+@SpringBootTest
+class ProductSnapshotStoreTests {
+
+    @Autowired private ProductService productService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path dir;
+
+    private Category category;
+    private Product unchanged;
+    private Product changed;
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        category = categoryRepository.save(Category.builder()
+                .name("Snapshot " + run)
+                .slug("snapshot-" + run)
+                .isActive(true)
+                .build());
+        unchanged = productRepository.save(product("Snapshot kept " + run, "SNAPK-" + run));
+        changed = productRepository.save(product("Snapshot changed " + run, "SNAPC-" + run));
+    }
+
+    @Test
+    void restartServesUnchangedProductsFromTheSnapshot() throws Exception {
+        store().write();
+        Thread.sleep(5);
+        // A bulk update, which bypasses auditing
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> productRepository.reduceStock(changed.getId(), 1));
+
+        ProductSnapshotStore restarted = store();
+        restarted.load();
+
+        assertThat(restarted.find(unchanged.getId())).isEqualTo(productService.getProductById(unchanged.getId()));
+        assertThat(restarted.find(changed.getId())).isNull();
+
+        restarted.productChanged(unchanged.getId());
+        assertThat(restarted.find(unchanged.getId())).isNull();
+    }
+
+    @Test
+    void changedCategoryDiscardsTheSnapshot() throws Exception {
+        store().write();
+        Thread.sleep(5);
+        category.setName(category.getName() + " renamed");
+        categoryRepository.save(category);
+
+        ProductSnapshotStore restarted = store();
+        restarted.load();
+
+        assertThat(restarted.find(unchanged.getId())).isNull();
+    }
+
+    private ProductSnapshotStore store() {
+        return new ProductSnapshotStore(productService, productRepository, categoryRepository,
+                new SimpleMeterRegistry(), true, dir.resolve("products.bin").toString(), 100, 0);
+    }
+
+    private Product product(String name, String sku) {
+        return Product.builder()
+                .name(name)
+                .description("Kept across restarts")
+                .price(new BigDecimal("12.50"))
+                .stockQuantity(10)
+                .sku(sku)
+                .isActive(true)
+                .category(category)
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.codewithluci.ecommerce.cache;
+
+import com.codewithluci.ecommerce.dto.respone.ProductResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductSnapshotTests {
+
+    private static final LocalDateTime WATERMARK = LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123_456_000);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsReadBackAsWritten() throws Exception {
+        List<ProductResponse> products = new ArrayList<>();
+        for (long id = 1; id <= 25; id += 2) {
+            products.add(product(id));
+        }
+        ProductResponse sparse = ProductResponse.builder()
+                .id(101L)
+                .name("Café – 東京")
+                .price(new BigDecimal("0.99"))
+                .stockQuantity(0)
+                .isActive(false)
+                .inStock(false)
+                .categoryId(7L)
+                .categoryName("Drinks")
+                .build();
+        products.add(sparse);
+
+        Path file = dir.resolve("products.bin");
+        assertThat(ProductSnapshot.write(file, WATERMARK, pages(products, 4))).isEqualTo(products.size());
+
+        ProductSnapshot snapshot = ProductSnapshot.open(file);
+        assertThat(snapshot.count()).isEqualTo(products.size());
+        assertThat(snapshot.watermark()).isEqualTo(WATERMARK);
+        for (ProductResponse product : products) {
+            assertThat(snapshot.find(product.getId())).isEqualTo(product);
+        }
+        assertThat(snapshot.find(2L)).isNull();
+        assertThat(snapshot.find(0L)).isNull();
+        assertThat(snapshot.find(1_000L)).isNull();
+    }
+
+    @Test
+    void rewriteLeavesOpenSnapshotReadable() throws Exception {
+        Path file = dir.resolve("products.bin");
+        ProductSnapshot.write(file, WATERMARK, pages(List.of(product(1)), 10));
+        ProductSnapshot old = ProductSnapshot.open(file);
+
+        ProductResponse changed = product(1);
+        changed.setName("Renamed");
+        ProductSnapshot.write(file, WATERMARK.plusMinutes(15), pages(List.of(changed, product(2)), 10));
+
+        assertThat(old.find(1L).getName()).isEqualTo("Product 1");
+        ProductSnapshot fresh = ProductSnapshot.open(file);
+        assertThat(fresh.find(1L).getName()).isEqualTo("Renamed");
+        assertThat(fresh.count()).isEqualTo(2);
+    }
+
+    @Test
+    void emptyCatalogGivesEmptySnapshot() throws Exception {
+        Path file = dir.resolve("products.bin");
+        assertThat(ProductSnapshot.write(file, WATERMARK, afterId -> List.of())).isZero();
+        assertThat(ProductSnapshot.open(file).find(1L)).isNull();
+    }
+
+    @Test
+    void outOfOrderPagesAreRejected() {
+        Path file = dir.resolve("products.bin");
+        assertThatThrownBy(() -> ProductSnapshot.write(file, WATERMARK, pages(List.of(product(2), product(1)), 10)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(file).doesNotExist();
+    }
+
+    private static ProductResponse product(long id) {
+        return ProductResponse.builder()
+                .id(id)
+                .name("Product " + id)
+                .description("Description of product " + id)
+                .price(new BigDecimal("19.95").add(BigDecimal.valueOf(id)))
+                .stockQuantity((int) id * 3)
+                .imageUrl("https://cdn.example.com/products/" + id + ".jpg")
+                .sku("SNAP-" + id)
+                .isActive(true)
+                .inStock(true)
+                .categoryId(id % 3)
+                .categoryName("Category " + id % 3)
+                .createdAt(LocalDateTime.of(2025, 12, 31, 23, 59, 59, (int) id * 1000))
+                .build();
+    }
+
+    // Keyset pages over an id-ordered list, like ProductService.getProductsAfter
+    private static java.util.function.LongFunction<List<ProductResponse>> pages(List<ProductResponse> products,
+                                                                                int size) {
+        return afterId -> {
+            int from = 0;
+            while (from < products.size() && products.get(from).getId() <= afterId) {
+                from++;
+            }
+            return products.subList(from, Math.min(products.size(), from + size));
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.codewithluci.ecommerce.config;
+
+import com.codewithluci.ecommerce.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MetricsEndpointTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void prometheusEndpointExposesHotPathMetrics() throws Exception {
+        // Exercise a timed service read and the JWT filter
+        mockMvc.perform(get("/api/products")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("products_read_seconds_bucket")
+                .contains("auth_jwt_filter_seconds")
+                .contains("hikaricp_connections")
+                .contains("hibernate_")
+                .contains("jvm_gc_")
+                .contains("jvm_threads_live_threads")
+                .contains("auth_ratelimit_rejections_total");
+    }
+
+    @Test
+    void prometheusEndpointIsAdminOnly() throws Exception {
+        MockHttpServletResponse anonymous = mockMvc.perform(get("/actuator/prometheus"))
+                .andReturn().getResponse();
+        assertThat(anonymous.getStatus()).isNotEqualTo(200);
+        assertThat(anonymous.getContentAsString()).doesNotContain("jvm_");
+
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("USER")))
+                .andExpect(status().isForbidden());
+
+        // Health probes stay open for load balancers
+        mockMvc.perform(get("/actuator/health/liveness")).andExpect(status().isOk());
+    }
+
+    private String token(String role) {
+        return jwtUtil.generateToken("metrics-" + role.toLowerCase(),
+                Map.of(JwtUtil.CLAIM_USER_ID, 1L, JwtUtil.CLAIM_ROLE, role));
+    }
+}
@@ -0,0 +1,180 @@
+package com.codewithluci.ecommerce.config;
+
+import com.codewithluci.ecommerce.dto.request.OrderItemRequest;
+import com.codewithluci.ecommerce.dto.request.OrderRequest;
+import com.codewithluci.ecommerce.dto.respone.OrderResponse;
+import com.codewithluci.ecommerce.entity.Category;
+import com.codewithluci.ecommerce.entity.Product;
+import com.codewithluci.ecommerce.entity.Role;
+import com.codewithluci.ecommerce.entity.User;
+import com.codewithluci.ecommerce.exception.insufficientStockException.InsufficientStockException;
+import com.codewithluci.ecommerce.monitoring.SqlStatementCounter;
+import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import com.codewithluci.ecommerce.repository.UserRepository;
+import com.codewithluci.ecommerce.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Repeat reads are served without SQL, writes made through this instance
+ * are never hidden by the cache, and cached stock never leaks into a write.
+ */
+@SpringBootTest
+class SecondLevelCacheTests {
+
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private OrderService orderService;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    void categoryByIdIsServedFromCache() {
+        Category category = categoryRepository.save(newCategory());
+
+        categoryRepository.findById(category.getId()).orElseThrow();
+        assertThat(statements(() -> categoryRepository.findById(category.getId()).orElseThrow())).isZero();
+    }
+
+    @Test
+    void userByUsernameIsServedFromNaturalIdCache() {
+        String run = run();
+        User user = userRepository.save(User.builder()
+                .username("l2_" + run)
+                .email("l2_" + run + "@example.com")
+                .password("not-a-real-hash")
+                .role(Role.USER)
+                .isActive(true)
+                .isEmailVerified(false)
+                .build());
+
+        userRepository.findByUsername(user.getUsername()).orElseThrow();
+        assertThat(statements(() -> userRepository.findByUsername(user.getUsername()).orElseThrow())).isZero();
+        assertThat(userRepository.findByUsername("missing_" + run)).isEmpty();
+    }
+
+    @Test
+    void activeCategoriesQueryIsCachedUntilCategoriesChange() {
+        categoryRepository.findByIsActiveTrue();
+        assertThat(statements(categoryRepository::findByIsActiveTrue)).isZero();
+
+        Category created = categoryRepository.save(newCategory());
+
+        List<String> names = categoryRepository.findByIsActiveTrue().stream().map(Category::getName).toList();
+        assertThat(names).contains(created.getName());
+    }
+
+    @Test
+    void bulkStockUpdateIsVisibleThroughTheCache() {
+        Category category = categoryRepository.save(newCategory());
+        Product product = productRepository.save(Product.builder()
+                .name("L2 product " + run())
+                .description("Cached product")
+                .price(new BigDecimal("10.00"))
+                .stockQuantity(10)
+                .sku("L2-" + run())
+                .isActive(true)
+                .category(category)
+                .build());
+
+        productRepository.findById(product.getId()).orElseThrow();
+        assertThat(statements(() -> productRepository.findById(product.getId()).orElseThrow())).isZero();
+
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> productRepository.reduceStock(product.getId(), 3));
+
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isEqualTo(7);
+    }
+
+    @Test
+    void concurrentCheckoutsNeverLoseADecrement() throws Exception {
+        String run = run();
+        Long userId = userRepository.save(User.builder()
+                .username("checkout_" + run)
+                .email("checkout_" + run + "@example.com")
+                .password("not-a-real-hash")
+                .role(Role.USER)
+                .isActive(true)
+                .isEmailVerified(false)
+                .build()).getId();
+        Product product = productRepository.save(Product.builder()
+                .name("Contended product " + run)
+                .price(new BigDecimal("5.00"))
+                .stockQuantity(10)
+                .sku("CONTENDED-" + run)
+                .isActive(true)
+                .category(categoryRepository.save(newCategory()))
+                .build());
+        // Every checkout starts from the same cached stock
+        productRepository.findById(product.getId()).orElseThrow();
+
+        int buyers = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(buyers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderResponse>> checkouts = new ArrayList<>();
+        try {
+            for (int i = 0; i < buyers; i++) {
+                checkouts.add(pool.submit(() -> {
+                    start.await();
+                    return orderService.createOrder(new OrderRequest(
+                            List.of(new OrderItemRequest(product.getId(), 1)), "1 Test Street", null), userId);
+                }));
+            }
+            start.countDown();
+
+            List<OrderResponse> placed = new ArrayList<>();
+            for (Future<OrderResponse> checkout : checkouts) {
+                try {
+                    placed.add(checkout.get(30, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(InsufficientStockException.class);
+                }
+            }
+            assertThat(placed).hasSize(10);
+            assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isZero();
+
+            orderService.cancelOrder(placed.get(0).getId(), userId);
+            assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int statements(Supplier<?> work) {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("l2-cache-test")) {
+            work.get();
+            return scope.getCount();
+        }
+    }
+
+    private Category newCategory() {
+        String run = run();
+        return Category.builder()
+                .name("L2 " + run)
+                .slug("l2-" + run)
+                .isActive(true)
+                .build();
+    }
+
+    private static String run() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,143 @@
+package com.codewithluci.ecommerce.datasource;
+
+import com.codewithluci.ecommerce.dto.request.CategoryRequest;
+import com.codewithluci.ecommerce.dto.respone.CategoryResponse;
+import com.codewithluci.ecommerce.security.AuthUser;
+import com.codewithluci.ecommerce.service.CategoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two embedded H2 databases stand in for a MySQL primary and its replica.
+ * "Replication" is an explicit copy of the primary into the replica, so each
+ * test controls exactly what the replica has seen.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadWriteRoutingTests.PRIMARY_URL,
+        "datasource.routing.enabled=true",
+        "datasource.routing.replica-urls=" + ReadWriteRoutingTests.REPLICA_URL,
+        "datasource.routing.read-your-writes-ms=60000",
+        // keep background readers off the replica between syncs
+        "jwt.revocation.poll-interval-ms=3600000",
+        // the query cache would answer reads before they reach either database
+        "cache.l2.enabled=false"
+})
+class ReadWriteRoutingTests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:rw_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:rw_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired private DataSource dataSource;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private CategoryService categoryService;
+
+    @BeforeEach
+    void replicate() throws Exception {
+        List<String> script = new ArrayList<>();
+        try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+             Statement statement = primary.createStatement();
+             ResultSet rs = statement.executeQuery("SCRIPT NOSETTINGS")) {
+            while (rs.next()) {
+                script.add(rs.getString(1));
+            }
+        }
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                if (!sql.startsWith("CREATE USER")) {
+                    statement.execute(sql);
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void clearUser() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        assertThat(databaseName(true)).isEqualToIgnoringCase("rw_replica");
+        assertThat(databaseName(false)).isEqualToIgnoringCase("rw_primary");
+    }
+
+    @Test
+    void readsSeeReplicaStateUntilReplicated() throws Exception {
+        String name = "Routing " + UUID.randomUUID().toString().substring(0, 8);
+        categoryService.createCategory(new CategoryRequest(name, null, true));
+
+        // Same request as the write: pinned to the primary
+        assertThat(activeCategoryNames()).contains(name);
+
+        newRequest();
+        assertThat(activeCategoryNames()).doesNotContain(name);
+
+        replicate();
+        assertThat(activeCategoryNames()).contains(name);
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimary() {
+        signIn(1001L, "writer");
+        String name = "Own write " + UUID.randomUUID().toString().substring(0, 8);
+        categoryService.createCategory(new CategoryRequest(name, null, true));
+
+        assertThat(activeCategoryNames()).contains(name);
+        assertThat(databaseName(true)).isEqualToIgnoringCase("rw_primary");
+
+        // Later requests by the same user are pinned too
+        newRequest();
+        assertThat(activeCategoryNames()).contains(name);
+
+        // A different user is not pinned and still reads the replica
+        signIn(1002L, "reader");
+        assertThat(activeCategoryNames()).doesNotContain(name);
+        assertThat(databaseName(true)).isEqualToIgnoringCase("rw_replica");
+    }
+
+    private String databaseName(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> new JdbcTemplate(dataSource).queryForObject("SELECT DATABASE()", String.class));
+    }
+
+    private List<String> activeCategoryNames() {
+        return categoryService.getAllActiveCategories().stream().map(CategoryResponse::getName).toList();
+    }
+
+    private void newRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    private void signIn(Long userId, String username) {
+        AuthUser user = new AuthUser(userId, username, null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
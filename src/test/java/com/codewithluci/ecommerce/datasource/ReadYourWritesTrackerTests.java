@@ -0,0 +1,61 @@
+package com.codewithluci.ecommerce.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesTrackerTests {
+
+    private static final long MILLI = 1_000_000;
+
+    private final AtomicLong clock = new AtomicLong(1_000 * MILLI);
+
+    @Test
+    void writersArePinnedForTheWindow() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(100, 10, clock::get);
+        tracker.recordWrite(1L);
+
+        clock.addAndGet(99 * MILLI);
+        assertThat(tracker.wroteRecently(1L)).isTrue();
+        assertThat(tracker.wroteRecently(2L)).isFalse();
+
+        clock.addAndGet(MILLI);
+        assertThat(tracker.wroteRecently(1L)).isFalse();
+        assertThat(tracker.size()).isZero();
+    }
+
+    @Test
+    void moreLiveWritersThanMaxEntriesForgetsTheOldest() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(60_000, 100, clock::get);
+        for (long user = 1; user <= 10_000; user++) {
+            tracker.recordWrite(user);
+            clock.incrementAndGet();
+        }
+
+        assertThat(tracker.size()).isLessThanOrEqualTo(100);
+        assertThat(tracker.wroteRecently(10_000L)).isTrue();
+        assertThat(tracker.wroteRecently(1L)).isFalse();
+    }
+
+    @Test
+    void repeatedWritesKeepTheLatestDeadline() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(100, 3, clock::get);
+        tracker.recordWrite(1L);
+        clock.addAndGet(60 * MILLI);
+        tracker.recordWrite(1L);
+
+        // The first write expiring doesn't unpin the second
+        clock.addAndGet(60 * MILLI);
+        tracker.recordWrite(2L);
+        assertThat(tracker.wroteRecently(1L)).isTrue();
+
+        // A burst from one user can push others out early, but never itself
+        for (int i = 0; i < 10; i++) {
+            tracker.recordWrite(3L);
+        }
+        assertThat(tracker.wroteRecently(3L)).isTrue();
+        assertThat(tracker.size()).isLessThanOrEqualTo(3);
+    }
+}
@@ -0,0 +1,184 @@
+package com.codewithluci.ecommerce.monitoring;
+
+import com.codewithluci.ecommerce.entity.*;
+import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.OrderRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import com.codewithluci.ecommerce.repository.UserRepository;
+import com.codewithluci.ecommerce.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets per endpoint. The seeded data has several categories,
+ * products and orders, so any N+1 regression pushes the count over budget.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryCountTests {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderService orderService;
+
+    private Long productId;
+    private Long userId;
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+
+        User user = userRepository.save(User.builder()
+                .username("qc_" + run)
+                .email("qc_" + run + "@example.com")
+                .password("not-a-real-hash")
+                .role(Role.USER)
+                .isActive(true)
+                .isEmailVerified(false)
+                .build());
+        userId = user.getId();
+
+        for (int c = 0; c < 3; c++) {
+            Category category = categoryRepository.save(Category.builder()
+                    .name("QC " + run + " " + c)
+                    .slug("qc-" + run + "-" + c)
+                    .isActive(true)
+                    .build());
+
+            for (int p = 0; p < 4; p++) {
+                Product product = productRepository.save(Product.builder()
+                        .name("Product " + run + " " + c + "-" + p)
+                        .description("Seeded for statement budget tests")
+                        .price(new BigDecimal("10.00"))
+                        .stockQuantity(100)
+                        .sku("QC-" + run + "-" + c + "-" + p)
+                        .isActive(true)
+                        .category(category)
+                        .build());
+                productId = product.getId();
+
+                Order order = Order.builder()
+                        .user(user)
+                        .status(OrderStatus.PENDING)
+                        .totalAmount(BigDecimal.ZERO)
+                        .build();
+                order.addOrderItem(OrderItem.fromProduct(product, 2));
+                order.calculateTotalAmount();
+                orderRepository.save(order);
+            }
+        }
+    }
+
+    @Test
+    void productListStaysWithinBudget() throws Exception {
+        assertMaxStatements("GET /api/products", 2, () ->
+                mockMvc.perform(get("/api/products").param("size", "20")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void productListSkipsCountUnlessTotalRequested() throws Exception {
+        assertMaxStatements("GET /api/products", 1, () ->
+                mockMvc.perform(get("/api/products").param("size", "5"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.hasNext").value(true))
+                        .andExpect(jsonPath("$.data.totalElements").doesNotExist()));
+
+        assertMaxStatements("GET /api/products?includeTotal=true", 2, () ->
+                mockMvc.perform(get("/api/products").param("size", "5").param("includeTotal", "true"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.totalElements").isNumber())
+                        .andExpect(jsonPath("$.data.pageable").doesNotExist()));
+    }
+
+    @Test
+    void productByIdStaysWithinBudget() throws Exception {
+        assertMaxStatements("GET /api/products/{id}", 2, () ->
+                mockMvc.perform(get("/api/products/" + productId)).andExpect(status().isOk()));
+    }
+
+    @Test
+    void categoryListStaysWithinBudget() throws Exception {
+        assertMaxStatements("GET /api/categories", 2, () ->
+                mockMvc.perform(get("/api/categories")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void userOrdersStayWithinBudget() throws Exception {
+        // page select (with user) + one batched order_items select, no count
+        assertMaxStatements("getUserOrders", 2, () ->
+                orderService.getUserOrders(userId, PageRequest.of(0, 20), false));
+        // + count
+        assertMaxStatements("getUserOrders with total", 3, () ->
+                orderService.getUserOrders(userId, PageRequest.of(0, 20), true));
+    }
+
+    @Test
+    void productFieldsSelectOnlyRequestedColumns() throws Exception {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("GET /api/products?fields=id,name")) {
+            mockMvc.perform(get("/api/products").param("size", "5").param("fields", "id,name"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.content[0].id").isNumber())
+                    .andExpect(jsonPath("$.data.content[0].name").isString())
+                    .andExpect(jsonPath("$.data.content[0].description").doesNotExist())
+                    .andExpect(jsonPath("$.data.hasNext").value(true));
+
+            assertThat(scope.getCount()).isEqualTo(1);
+            assertThat(scope.getFingerprints().keySet())
+                    .noneMatch(sql -> sql.contains("description") || sql.contains("categories"));
+        }
+
+        mockMvc.perform(get("/api/products").param("fields", "id,secret"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void userOrderFieldsLoadItemsOnlyWhenRequested() throws Exception {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("getUserOrderFields")) {
+            var orders = orderService.getUserOrderFields(userId, PageRequest.of(0, 20), false, "id,totalAmount");
+
+            assertThat(orders.getContent()).hasSize(12)
+                    .allSatisfy(order -> assertThat(order).containsOnlyKeys("id", "totalAmount"));
+            assertThat(scope.getCount()).isEqualTo(1);
+            assertThat(scope.getFingerprints().keySet()).noneMatch(sql -> sql.contains("order_items"));
+        }
+
+        // orders + one select for all their items
+        assertMaxStatements("getUserOrderFields with items", 2, () -> {
+            var orders = orderService.getUserOrderFields(userId, PageRequest.of(0, 20), false, "status,items");
+            assertThat(orders.getContent())
+                    .allSatisfy(order -> assertThat(order).containsOnlyKeys("status", "items"))
+                    .allSatisfy(order -> assertThat((List<?>) order.get("items")).hasSize(1));
+        });
+    }
+
+    private void assertMaxStatements(String name, int budget, ThrowingRunnable action) throws Exception {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open(name)) {
+            action.run();
+            assertThat(scope.getCount())
+                    .as("%s executed %d statements:%n%s", name, scope.getCount(), scope.topFingerprints(10))
+                    .isLessThanOrEqualTo(budget);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
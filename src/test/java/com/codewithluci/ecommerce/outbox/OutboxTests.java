@@ -0,0 +1,153 @@
+package com.codewithluci.ecommerce.outbox;
+
+import com.codewithluci.ecommerce.dto.request.OrderItemRequest;
+import com.codewithluci.ecommerce.dto.request.OrderRequest;
+import com.codewithluci.ecommerce.dto.respone.OrderResponse;
+import com.codewithluci.ecommerce.entity.*;
+import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.OutboxEventRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import com.codewithluci.ecommerce.repository.UserRepository;
+import com.codewithluci.ecommerce.service.OrderService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order events reach the file sink configured in the test properties, in
+ * order, and only when their transaction commits. Whichever test context
+ * holds the scheduler lease runs the relay; they all write the same file.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OutboxTests {
+
+    private static final Path EVENTS = Path.of("target/outbox-events.jsonl");
+
+    @Autowired private OrderService orderService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private OutboxEventRepository outboxEventRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private ObjectMapper objectMapper;
+
+    private Long userId;
+    private Long productId;
+
+    @BeforeAll
+    static void clearEvents() throws Exception {
+        // Order ids restart with every run's in-memory database
+        Files.deleteIfExists(EVENTS);
+    }
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        userId = userRepository.save(User.builder()
+                .username("outbox_" + run)
+                .email("outbox_" + run + "@example.com")
+                .password("not-a-real-hash")
+                .role(Role.USER)
+                .isActive(true)
+                .isEmailVerified(false)
+                .build()).getId();
+        Category category = categoryRepository.save(Category.builder()
+                .name("Outbox " + run)
+                .slug("outbox-" + run)
+                .isActive(true)
+                .build());
+        productId = productRepository.save(Product.builder()
+                .name("Outbox product " + run)
+                .price(new BigDecimal("12.50"))
+                .stockQuantity(10)
+                .sku("OUTBOX-" + run)
+                .isActive(true)
+                .category(category)
+                .build()).getId();
+    }
+
+    @Test
+    void orderEventsAreRelayedInOrderAndRemoved() throws Exception {
+        OrderResponse order = orderService.createOrder(request(2), userId);
+        orderService.cancelOrder(order.getId(), userId);
+
+        List<JsonNode> events = awaitOrderEvents(order.getId(), 2);
+        assertThat(events).extracting(event -> event.get("type").asString())
+                .containsExactly("ORDER_CREATED", "ORDER_CANCELLED");
+        assertThat(events.get(0).get("id").asLong()).isLessThan(events.get(1).get("id").asLong());
+
+        JsonNode created = events.get(0).get("payload");
+        assertThat(created.get("userId").asLong()).isEqualTo(userId);
+        assertThat(created.get("totalAmount").decimalValue()).isEqualByComparingTo("25.00");
+        assertThat(created.get("items").get(0).get("productId").asLong()).isEqualTo(productId);
+
+        assertThat(outboxEventRepository.findAll())
+                .noneMatch(event -> event.getAggregateId().equals(order.getId()));
+    }
+
+    @Test
+    void rolledBackOrderLeavesNoEvent() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long orderId = tx.execute(status -> {
+            Long id = orderService.createOrder(request(1), userId).getId();
+            status.setRollbackOnly();
+            return id;
+        });
+
+        // Let the relay run a few times; a committed event would be delivered by now
+        OrderResponse next = orderService.createOrder(request(1), userId);
+        awaitOrderEvents(next.getId(), 1);
+
+        assertThat(readOrderEvents(orderId)).isEmpty();
+        assertThat(outboxEventRepository.findAll())
+                .noneMatch(event -> event.getAggregateId().equals(orderId));
+    }
+
+    private OrderRequest request(int quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        OrderRequest request = new OrderRequest();
+        request.setItems(List.of(item));
+        request.setShippingAddress("1 Outbox Street, Testville");
+        return request;
+    }
+
+    private List<JsonNode> awaitOrderEvents(Long orderId, int expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<JsonNode> events = readOrderEvents(orderId);
+        while (events.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            events = readOrderEvents(orderId);
+        }
+        assertThat(events).hasSize(expected);
+        return events;
+    }
+
+    private List<JsonNode> readOrderEvents(Long orderId) throws Exception {
+        if (!Files.exists(EVENTS)) {
+            return List.of();
+        }
+        return Files.readAllLines(EVENTS).stream()
+                .map(objectMapper::readTree)
+                .filter(event -> event.get("type").asString().startsWith("ORDER_"))
+                .filter(event -> event.get("aggregateId").asLong() == orderId)
+                .toList();
+    }
+}
@@ -0,0 +1,273 @@
+package com.codewithluci.ecommerce.repository;
+
+import com.codewithluci.ecommerce.entity.OrderStatus;
+import com.codewithluci.ecommerce.entity.PaymentStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository query, EXPLAINs the SQL Hibernate generated for it
+ * and fails when a table is read with a full scan.
+ *
+ * Plans come from H2 on the schema built by the Flyway migrations, so they
+ * check that a usable index exists rather than what MySQL's optimizer will
+ * pick for production data volumes.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.codewithluci.ecommerce.repository.QueryPlanTests$SqlCapture",
+        // every call must reach the database
+        "cache.l2.enabled=false"
+})
+class QueryPlanTests {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\*\\s*(?:\\w+\\.)?(\\w+)\\.tableScan\\s*\\*/");
+
+    // Queries that read a whole table on purpose
+    private static final Map<String, String> ALLOWED_SCANS = Map.of(
+            "CategoryRepository.findByIsActiveTrue", "small lookup table, served from the query cache",
+            "CategoryRepository.existsByUpdatedAtGreaterThanEqual", "small lookup table, once per startup"
+    );
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            CategoryRepository.class, OrderItemRepository.class, OrderRepository.class,
+            PaymentRepository.class, ProductRepository.class, RefreshTokenRepository.class,
+            RevokedTokenRepository.class, UserRepository.class, UserNaturalIdRepository.class,
+            ProductFieldsRepository.class, OrderFieldsRepository.class, CacheInvalidationRepository.class,
+            JobLeaseRepository.class, OutboxEventRepository.class);
+
+    @Autowired private CacheInvalidationRepository cacheInvalidationRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private JobLeaseRepository jobLeaseRepository;
+    @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OutboxEventRepository outboxEventRepository;
+    @Autowired private PaymentRepository paymentRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private RefreshTokenRepository refreshTokenRepository;
+    @Autowired private RevokedTokenRepository revokedTokenRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private DataSource dataSource;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final Set<String> covered = new TreeSet<>();
+    private final List<String> violations = new ArrayList<>();
+
+    @Test
+    void repositoryQueriesUseIndexes() throws Exception {
+        Pageable newest = PageRequest.of(0, 10, Sort.by("createdAt").descending());
+        Pageable unsorted = PageRequest.of(0, 10);
+        LocalDateTime now = LocalDateTime.now();
+
+        check("CacheInvalidationRepository.findByIdGreaterThanOrderByIdAsc",
+                () -> cacheInvalidationRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(10)));
+        check("CacheInvalidationRepository.findMaxId", () -> cacheInvalidationRepository.findMaxId());
+        check("CacheInvalidationRepository.deleteCreatedBefore",
+                () -> cacheInvalidationRepository.deleteCreatedBefore(now));
+
+        check("CategoryRepository.findByName", () -> categoryRepository.findByName("x"));
+        check("CategoryRepository.findBySlug", () -> categoryRepository.findBySlug("x"));
+        check("CategoryRepository.findByIsActiveTrue", () -> categoryRepository.findByIsActiveTrue());
+        check("CategoryRepository.existsByName", () -> categoryRepository.existsByName("x"));
+        check("CategoryRepository.existsBySlug", () -> categoryRepository.existsBySlug("x"));
+        check("CategoryRepository.existsByUpdatedAtGreaterThanEqual",
+                () -> categoryRepository.existsByUpdatedAtGreaterThanEqual(now));
+
+        check("JobLeaseRepository.acquire", () -> jobLeaseRepository.acquire("x", "x", now, now));
+        check("JobLeaseRepository.renew", () -> jobLeaseRepository.renew("x", "x", 1L, now, now));
+        check("JobLeaseRepository.fence", () -> jobLeaseRepository.fence("x", "x", 1L, now));
+        check("JobLeaseRepository.release", () -> jobLeaseRepository.release("x", "x", 1L, now));
+        check("JobLeaseRepository.findFencingToken", () -> jobLeaseRepository.findFencingToken("scheduler"));
+
+        check("OrderItemRepository.findByOrderId", () -> orderItemRepository.findByOrderId(1L));
+        check("OrderItemRepository.findByProductId", () -> orderItemRepository.findByProductId(1L));
+        check("OrderItemRepository.findTopSellingProductIds",
+                () -> orderItemRepository.findTopSellingProductIds(now.minusDays(7), unsorted));
+
+        check("OrderRepository.findByUserId", () -> orderRepository.findByUserId(1L, newest));
+        check("OrderRepository.findSliceByUserId", () -> orderRepository.findSliceByUserId(1L, newest));
+        check("OrderRepository.findByUserIdAndStatus",
+                () -> orderRepository.findByUserIdAndStatus(1L, OrderStatus.PENDING, newest));
+        check("OrderRepository.findByIdAndUserId", () -> orderRepository.findByIdAndUserId(1L, 1L));
+        check("OrderRepository.findByStatusAndCreatedAtBefore",
+                () -> orderRepository.findByStatusAndCreatedAtBefore(OrderStatus.PENDING, now));
+        check("OrderRepository.findByIdWithItems", () -> orderRepository.findByIdWithItems(1L));
+        check("OrderRepository.findByStatus", () -> orderRepository.findByStatus(OrderStatus.PENDING, newest));
+        check("OrderRepository.findSliceByStatus",
+                () -> orderRepository.findSliceByStatus(OrderStatus.PENDING, newest));
+        check("OrderRepository.findAll", () -> orderRepository.findAll(newest));
+        check("OrderRepository.findSliceBy", () -> orderRepository.findSliceBy(newest));
+        check("OrderRepository.findShardPageByUserId", () -> orderRepository.findShardPageByUserId(1L, newest));
+        check("OrderRepository.findShardSliceByUserId", () -> orderRepository.findShardSliceByUserId(1L, newest));
+        check("OrderRepository.findShardPageByStatus",
+                () -> orderRepository.findShardPageByStatus(OrderStatus.PENDING, newest));
+        check("OrderRepository.findShardSliceByStatus",
+                () -> orderRepository.findShardSliceByStatus(OrderStatus.PENDING, newest));
+        check("OrderRepository.findShardPageBy", () -> orderRepository.findShardPageBy(newest));
+        check("OrderRepository.findShardSliceBy", () -> orderRepository.findShardSliceBy(newest));
+        check("OrderRepository.findShardByIdIn", () -> orderRepository.findShardByIdIn(List.of(1L, 2L)));
+        check("OrderFieldsRepository.findUserOrderFields",
+                () -> orderRepository.findUserOrderFields(null, 1L, newest, true));
+
+        check("OutboxEventRepository.claimBatch", () -> outboxEventRepository.claimBatch(Limit.of(10)));
+
+        check("PaymentRepository.findByOrderId", () -> paymentRepository.findByOrderId(1L));
+        check("PaymentRepository.findByTransactionId", () -> paymentRepository.findByTransactionId("x"));
+        check("PaymentRepository.findByStatus", () -> paymentRepository.findByStatus(PaymentStatus.PENDING));
+        check("PaymentRepository.existsByTransactionId", () -> paymentRepository.existsByTransactionId("x"));
+
+        check("ProductRepository.findByCategoryIdAndIsActiveTrue",
+                () -> productRepository.findByCategoryIdAndIsActiveTrue(1L, unsorted));
+        check("ProductRepository.findSliceByCategoryIdAndIsActiveTrue",
+                () -> productRepository.findSliceByCategoryIdAndIsActiveTrue(1L, unsorted));
+        check("ProductRepository.findByIsActiveTrue", () -> productRepository.findByIsActiveTrue(newest));
+        check("ProductRepository.findSliceByIsActiveTrue", () -> productRepository.findSliceByIsActiveTrue(newest));
+        check("ProductRepository.findByNameContainingIgnoreCaseAndIsActiveTrue",
+                () -> productRepository.findByNameContainingIgnoreCaseAndIsActiveTrue("x", unsorted));
+        check("ProductRepository.findSliceByNameContainingIgnoreCaseAndIsActiveTrue",
+                () -> productRepository.findSliceByNameContainingIgnoreCaseAndIsActiveTrue("x", unsorted));
+        check("ProductFieldsRepository.findActiveProductFields",
+                () -> productRepository.findActiveProductFields(null, 1L, null, newest, true));
+        check("ProductRepository.findWithDetailsById", () -> productRepository.findWithDetailsById(1L));
+        check("ProductRepository.findBySku", () -> productRepository.findBySku("x"));
+        check("ProductRepository.existsBySku", () -> productRepository.existsBySku("x"));
+        check("ProductRepository.countByCategoryId", () -> productRepository.countByCategoryId(1L));
+        check("ProductRepository.countProductsGroupedByCategory",
+                () -> productRepository.countProductsGroupedByCategory());
+        check("ProductRepository.findByStockQuantityLessThanAndIsActiveTrue",
+                () -> productRepository.findByStockQuantityLessThanAndIsActiveTrue(5));
+        check("ProductRepository.findByPriceBetweenAndIsActiveTrue",
+                () -> productRepository.findByPriceBetweenAndIsActiveTrue(BigDecimal.ONE, BigDecimal.TEN, unsorted));
+        check("ProductRepository.findByIdGreaterThanOrderByIdAsc",
+                () -> productRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(10)));
+        check("ProductRepository.findIdsUpdatedSince", () -> productRepository.findIdsUpdatedSince(now));
+        check("ProductRepository.reduceStock", () -> productRepository.reduceStock(1L, 1));
+        check("ProductRepository.restoreStock", () -> productRepository.restoreStock(1L, 1));
+
+        check("RefreshTokenRepository.findByTokenHash", () -> refreshTokenRepository.findByTokenHash("x"));
+        check("RefreshTokenRepository.markUsed", () -> refreshTokenRepository.markUsed(1L, now));
+        check("RefreshTokenRepository.revokeFamily", () -> refreshTokenRepository.revokeFamily("x"));
+        check("RefreshTokenRepository.deleteExpired", () -> refreshTokenRepository.deleteExpired(now));
+
+        check("RevokedTokenRepository.existsByTokenId", () -> revokedTokenRepository.existsByTokenId("x"));
+        check("RevokedTokenRepository.insertIfAbsent",
+                () -> revokedTokenRepository.insertIfAbsent("x", "x", now, "x", now));
+        check("RevokedTokenRepository.findByExpiresAtAfter", () -> revokedTokenRepository.findByExpiresAtAfter(now));
+        check("RevokedTokenRepository.findByIdGreaterThanOrderByIdAsc",
+                () -> revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(1L));
+        check("RevokedTokenRepository.deleteExpired", () -> revokedTokenRepository.deleteExpired(now));
+
+        check("UserRepository.findByEmail", () -> userRepository.findByEmail("x"));
+        check("UserRepository.existsByUsername", () -> userRepository.existsByUsername("x"));
+        check("UserRepository.existsByEmail", () -> userRepository.existsByEmail("x"));
+        check("UserRepository.findByUsernameAndIsActiveTrue",
+                () -> userRepository.findByUsernameAndIsActiveTrue("x"));
+        check("UserNaturalIdRepository.findByUsername", () -> userRepository.findByUsername("x"));
+
+        assertThat(covered).as("every declared repository query is checked").containsAll(declaredQueries());
+        assertThat(violations).as("queries that read a whole table").isEmpty();
+    }
+
+    /**
+     * Run one repository call (rolled back) and EXPLAIN each statement it issued
+     */
+    private void check(String query, Runnable call) throws Exception {
+        covered.add(query);
+        List<String> statements = SqlCapture.record(() -> {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.executeWithoutResult(status -> {
+                call.run();
+                status.setRollbackOnly();
+            });
+        });
+        assertThat(statements).as("%s issued no SQL", query).isNotEmpty();
+
+        for (String sql : statements) {
+            String plan = explain(sql);
+            Matcher scan = TABLE_SCAN.matcher(plan);
+            while (scan.find()) {
+                if (!ALLOWED_SCANS.containsKey(query)) {
+                    violations.add(query + " scans " + scan.group(1) + ":\n" + plan);
+                }
+            }
+        }
+    }
+
+    private String explain(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+             ResultSet rs = statement.executeQuery()) {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString();
+        }
+    }
+
+    private static Set<String> declaredQueries() {
+        Set<String> queries = new TreeSet<>();
+        for (Class<?> repository : REPOSITORIES) {
+            Arrays.stream(repository.getDeclaredMethods())
+                    .filter(method -> !method.isDefault() && !method.isSynthetic())
+                    .map(Method::getName)
+                    .forEach(name -> queries.add(repository.getSimpleName() + "." + name));
+        }
+        return queries;
+    }
+
+    /**
+     * Collects the SQL Hibernate prepares on the recording thread; scheduled
+     * jobs running meanwhile on other threads are ignored.
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+        static List<String> record(Runnable work) {
+            List<String> statements = new ArrayList<>();
+            STATEMENTS.set(statements);
+            try {
+                work.run();
+            } finally {
+                STATEMENTS.remove();
+            }
+            return statements;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = STATEMENTS.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+}
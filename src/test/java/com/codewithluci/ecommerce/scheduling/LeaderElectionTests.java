@@ -0,0 +1,123 @@
+package com.codewithluci.ecommerce.scheduling;
+
+import com.codewithluci.ecommerce.EcommerceApplication;
+import com.codewithluci.ecommerce.exception.LeaseLostException;
+import com.codewithluci.ecommerce.repository.JobLeaseRepository;
+import com.codewithluci.ecommerce.security.impl.RefreshTokenServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Instances contend for one lease in the shared H2 database: the test
+ * context, a second application context in this JVM, and standalone
+ * elections driven by hand to control timing.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class LeaderElectionTests {
+
+    private static ConfigurableApplicationContext other;
+
+    @Autowired private ApplicationContext context;
+    @Autowired private LeaderElection leaderElection;
+    @Autowired private JobLeaseRepository jobLeaseRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void startOtherInstance() {
+        other = new SpringApplicationBuilder(EcommerceApplication.class)
+                .properties("server.port=0",
+                        // Would share the JCache manager with this instance
+                        "cache.l2.enabled=false",
+                        "spring.jmx.enabled=false")
+                .run();
+    }
+
+    @AfterAll
+    static void stopOtherInstance() {
+        if (other != null) {
+            other.close();
+        }
+    }
+
+    @Test
+    void exactlyOneInstanceRunsLeaderOnlyJobs() throws Exception {
+        LeaderElection otherElection = other.getBean(LeaderElection.class);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!leaderElection.isLeader() && !otherElection.isLeader() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        for (int i = 0; i < 20; i++) {
+            assertThat(leaderElection.isLeader() && otherElection.isLeader()).as("both lead").isFalse();
+            Thread.sleep(50);
+        }
+        assertThat(leaderElection.isLeader() || otherElection.isLeader()).as("one leads").isTrue();
+
+        ApplicationContext follower = leaderElection.isLeader() ? other : context;
+        MeterRegistry registry = follower.getBean(MeterRegistry.class);
+        double skippedBefore = skipped(registry);
+        follower.getBean(RefreshTokenServiceImpl.class).purgeExpired();
+        assertThat(skipped(registry)).isEqualTo(skippedBefore + 1);
+    }
+
+    @Test
+    void deadLeaderIsReplacedAndFencedOut() throws Exception {
+        String lease = "test-" + UUID.randomUUID();
+        LeaderElection first = election(lease);
+        LeaderElection second = election(lease);
+
+        first.heartbeat();
+        second.heartbeat();
+        assertThat(first.isLeader()).isTrue();
+        assertThat(second.isLeader()).isFalse();
+        long firstToken = first.getFencingToken();
+
+        // first stops heartbeating, as if it had died or paused
+        Thread.sleep(400);
+        second.heartbeat();
+        assertThat(second.isLeader()).isTrue();
+        assertThat(second.getFencingToken()).isGreaterThan(firstToken);
+        assertThat(first.isLeader()).isFalse();
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        assertThatThrownBy(() -> tx.executeWithoutResult(status -> first.checkFence()))
+                .isInstanceOf(LeaseLostException.class);
+        tx.executeWithoutResult(status -> second.checkFence());
+
+        // Back from the pause, first doesn't take the live lease back
+        first.heartbeat();
+        assertThat(first.isLeader()).isFalse();
+
+        // A released lease is free straight away
+        second.release();
+        first.heartbeat();
+        assertThat(first.isLeader()).isTrue();
+    }
+
+    private LeaderElection election(String lease) {
+        return new LeaderElection(jobLeaseRepository, transactionManager, new SimpleMeterRegistry(), lease, 300);
+    }
+
+    private static double skipped(MeterRegistry registry) {
+        return Search.in(registry).name("scheduler.jobs")
+                .tag("job", "RefreshTokenServiceImpl.purgeExpired").tag("outcome", "skipped")
+                .counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+}
@@ -0,0 +1,153 @@
+package com.codewithluci.ecommerce.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthRateLimitFilterTests {
+
+    @Test
+    void rejectsAnIpOverItsLimitWithRetryAfter() throws Exception {
+        // 2 attempts, then one a minute
+        AuthRateLimitFilter filter = filter(2, 1, 100, 100);
+
+        assertThat(send(filter, register("10.0.0.1")).getStatus()).isEqualTo(200);
+        assertThat(send(filter, register("10.0.0.1")).getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = send(filter, register("10.0.0.1"));
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("60");
+        assertThat(send(filter, register("10.0.0.2")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void rejectsAnAccountOverItsLimitFromAnyIp() throws Exception {
+        AuthRateLimitFilter filter = filter(100, 100, 1, 1);
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(login("10.0.0.1", "Alice"), first, chain);
+        assertThat(first.getStatus()).isEqualTo(200);
+        // The controller still gets the body the filter read
+        assertThat(chain.getRequest().getInputStream().readAllBytes())
+                .asString(StandardCharsets.UTF_8).contains("Alice");
+
+        MockHttpServletResponse rejected = send(filter, login("10.0.0.2", " alice "));
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("60");
+        assertThat(send(filter, login("10.0.0.2", "bob")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void oversizedLoginBodiesAreRefusedWithoutReachingTheController() throws Exception {
+        AuthRateLimitFilter filter = filter(100, 100, 1, 1);
+        String padding = " ".repeat(20 * 1024);
+
+        MockHttpServletRequest declared = login("10.0.0.1", "alice");
+        declared.setContent(("{\"usernameOrEmail\":\"alice\",\"password\":\"x\"}" + padding)
+                .getBytes(StandardCharsets.UTF_8));
+        assertThat(send(filter, declared).getStatus()).isEqualTo(413);
+
+        MockHttpServletRequest chunked = chunked(login("10.0.0.1", "alice"));
+        chunked.setContent(("{\"usernameOrEmail\":\"alice\",\"password\":\"x\"}" + padding)
+                .getBytes(StandardCharsets.UTF_8));
+        assertThat(send(filter, chunked).getStatus()).isEqualTo(413);
+
+        // A small chunked body is still charged to its account
+        assertThat(send(filter, chunked(login("10.0.0.1", "alice"))).getStatus()).isEqualTo(200);
+        assertThat(send(filter, chunked(login("10.0.0.1", "alice"))).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void bufferedBodyCanBeReadAsynchronously() throws Exception {
+        AuthRateLimitFilter filter = filter(100, 100, 100, 100);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(login("10.0.0.1", "alice"), new MockHttpServletResponse(), chain);
+
+        ServletInputStream in = chain.getRequest().getInputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        boolean[] allRead = new boolean[1];
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                while (in.isReady() && !in.isFinished()) {
+                    body.write(in.read());
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allRead[0] = true;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+
+        assertThat(allRead[0]).isTrue();
+        assertThat(body.toString(StandardCharsets.UTF_8)).contains("alice");
+    }
+
+    private static AuthRateLimitFilter filter(long ipCapacity, long ipRefillPerMinute,
+                                              long accountCapacity, long accountRefillPerMinute) {
+        return new AuthRateLimitFilter(JsonMapper.builder().build(), new SimpleMeterRegistry(), true, false,
+                ipCapacity, ipRefillPerMinute, accountCapacity, accountRefillPerMinute, 1000);
+    }
+
+    private static MockHttpServletResponse send(AuthRateLimitFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest register(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/register");
+        request.setServletPath("/api/auth/register");
+        request.setRemoteAddr(ip);
+        return request;
+    }
+
+    private static MockHttpServletRequest login(String ip, String account) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setServletPath("/api/auth/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(("{\"usernameOrEmail\":\"" + account + "\",\"password\":\"x\"}")
+                .getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    // Transfer-Encoding: chunked, no Content-Length
+    private static MockHttpServletRequest chunked(MockHttpServletRequest request) {
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", request.getRequestURI()) {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+        };
+        chunked.setServletPath(request.getServletPath());
+        chunked.setRemoteAddr(request.getRemoteAddr());
+        chunked.setContentType(request.getContentType());
+        chunked.setContent(request.getContentAsByteArray());
+        return chunked;
+    }
+}
@@ -0,0 +1,83 @@
+package com.codewithluci.ecommerce.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+    @Test
+    void burstOfCapacityThenOneTokenPerRefillInterval() {
+        // 3 tokens, one back per second
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 60, 1000, clock::get);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isEqualTo(SECOND);
+
+        clock.addAndGet(SECOND / 2);
+        assertThat(limiter.tryAcquire("a")).isEqualTo(SECOND / 2);
+        clock.addAndGet(SECOND / 2);
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isEqualTo(SECOND);
+
+        // Idle for longer than a full refill: one burst again, not more
+        clock.addAndGet(10 * SECOND);
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("a")).isZero();
+        }
+        assertThat(limiter.tryAcquire("a")).isPositive();
+
+        // Other keys have their own bucket
+        assertThat(limiter.tryAcquire("b")).isZero();
+    }
+
+    @Test
+    void fullStripeSharesAnOverflowBucketUntilIdleBucketsAreEvicted() {
+        // 16 stripes, one key each; one token per minute
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 16, clock::get);
+        List<String> sameStripe = keysInOneStripe(3);
+
+        assertThat(limiter.tryAcquire(sameStripe.get(0))).isZero();
+        // The stripe is full of a drained bucket: newcomers share the overflow bucket
+        assertThat(limiter.tryAcquire(sameStripe.get(1))).isZero();
+        assertThat(limiter.tryAcquire(sameStripe.get(2))).isPositive();
+        assertThat(limiter.size()).isEqualTo(1);
+
+        // Once the first bucket has refilled it carries no state and is evicted
+        clock.addAndGet(60 * SECOND);
+        assertThat(limiter.tryAcquire(sameStripe.get(2))).isZero();
+        assertThat(limiter.tryAcquire(sameStripe.get(2))).isPositive();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keySprayingStaysWithinMaxEntries() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, 1, 64, clock::get);
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("10.0." + (i / 256) + "." + (i % 256));
+        }
+        assertThat(limiter.size()).isLessThanOrEqualTo(64);
+    }
+
+    private static List<String> keysInOneStripe(int count) {
+        List<String> keys = new ArrayList<>();
+        int stripe = TokenBucketRateLimiter.stripe("key-0");
+        for (int i = 0; keys.size() < count; i++) {
+            if (TokenBucketRateLimiter.stripe("key-" + i) == stripe) {
+                keys.add("key-" + i);
+            }
+        }
+        return keys;
+    }
+}
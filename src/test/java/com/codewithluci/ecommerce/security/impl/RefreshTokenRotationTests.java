@@ -0,0 +1,117 @@
+package com.codewithluci.ecommerce.security.impl;
+
+import com.codewithluci.ecommerce.dto.request.LoginRequest;
+import com.codewithluci.ecommerce.dto.request.RefreshTokenRequest;
+import com.codewithluci.ecommerce.dto.respone.JwtResponse;
+import com.codewithluci.ecommerce.entity.RefreshToken;
+import com.codewithluci.ecommerce.entity.Role;
+import com.codewithluci.ecommerce.entity.User;
+import com.codewithluci.ecommerce.exception.InvalidCredentialsException;
+import com.codewithluci.ecommerce.repository.RefreshTokenRepository;
+import com.codewithluci.ecommerce.repository.UserRepository;
+import com.codewithluci.ecommerce.security.AuthService;
+import com.codewithluci.ecommerce.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Refresh tokens rotate on every use; a replayed one ends the session.
+ */
+@SpringBootTest
+class RefreshTokenRotationTests {
+
+    @Autowired private AuthService authService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RefreshTokenRepository refreshTokenRepository;
+    @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private JwtUtil jwtUtil;
+
+    private User user;
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(User.builder()
+                .username("refresh_" + run)
+                .email("refresh_" + run + "@example.com")
+                .password(passwordEncoder.encode("secret-password"))
+                .role(Role.USER)
+                .isActive(true)
+                .isEmailVerified(false)
+                .build());
+    }
+
+    @Test
+    void refreshIssuesANewTokenInTheSameSession() {
+        JwtResponse login = login();
+        JwtResponse refreshed = refresh(login.getRefreshToken());
+
+        assertThat(refreshed.getRefreshToken()).isNotEqualTo(login.getRefreshToken());
+        assertThat(jwtUtil.extractTokenId(refreshed.getToken())).isNotEqualTo(jwtUtil.extractTokenId(login.getToken()));
+        assertThat(family()).hasSize(2)
+                .extracting(RefreshToken::getFamilyId).containsOnly(family().get(0).getFamilyId());
+
+        // The new token works once, too
+        assertThat(refresh(refreshed.getRefreshToken()).getRefreshToken()).isNotBlank();
+    }
+
+    @Test
+    void replayedTokenRevokesTheWholeSession() {
+        JwtResponse login = login();
+        JwtResponse refreshed = refresh(login.getRefreshToken());
+
+        assertThatThrownBy(() -> refresh(login.getRefreshToken()))
+                .isInstanceOf(InvalidCredentialsException.class)
+                .hasMessageContaining("reuse");
+        assertThat(family()).allMatch(RefreshToken::getRevoked);
+
+        // Whoever holds the latest token is logged out as well
+        assertThatThrownBy(() -> refresh(refreshed.getRefreshToken()))
+                .isInstanceOf(InvalidCredentialsException.class);
+        // Other sessions of the user are untouched
+        assertThat(refresh(login().getRefreshToken()).getRefreshToken()).isNotBlank();
+    }
+
+    @Test
+    void deactivatedUserCannotRefresh() {
+        JwtResponse login = login();
+        user.setIsActive(false);
+        userRepository.save(user);
+
+        assertThatThrownBy(() -> refresh(login.getRefreshToken()))
+                .isInstanceOf(InvalidCredentialsException.class)
+                .hasMessageContaining("deactivated");
+        assertThat(family()).hasSize(1).allMatch(RefreshToken::getRevoked);
+    }
+
+    @Test
+    void unknownTokenIsRefused() {
+        assertThatThrownBy(() -> refresh("not-a-token"))
+                .isInstanceOf(InvalidCredentialsException.class);
+    }
+
+    private JwtResponse login() {
+        return authService.login(new LoginRequest(user.getUsername(), "secret-password"));
+    }
+
+    private JwtResponse refresh(String refreshToken) {
+        return authService.refresh(new RefreshTokenRequest(refreshToken));
+    }
+
+    // The user's refresh tokens, oldest first
+    private List<RefreshToken> family() {
+        return refreshTokenRepository.findAll().stream()
+                .filter(token -> token.getUser().getId().equals(user.getId()))
+                .sorted((a, b) -> a.getId().compareTo(b.getId()))
+                .toList();
+    }
+}
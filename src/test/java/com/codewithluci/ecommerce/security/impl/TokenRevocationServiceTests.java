@@ -0,0 +1,141 @@
+package com.codewithluci.ecommerce.security.impl;
+
+import com.codewithluci.ecommerce.entity.RevokedToken;
+import com.codewithluci.ecommerce.monitoring.SqlStatementCounter;
+import com.codewithluci.ecommerce.repository.RevokedTokenRepository;
+import com.codewithluci.ecommerce.scheduling.LeaderElection;
+import com.codewithluci.ecommerce.security.JwtUtil;
+import com.codewithluci.ecommerce.security.TokenRevocationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Revocation lookups: answered from memory when possible, from the
+ * database when the Bloom filter can't tell. Extra instances built here
+ * stand in for other nodes sharing the database.
+ */
+@SpringBootTest
+class TokenRevocationServiceTests {
+
+    @Autowired private TokenRevocationService revocations;
+    @Autowired private RevokedTokenRepository revokedTokenRepository;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private LeaderElection leaderElection;
+
+    @Test
+    void revokedTokenIsAnsweredFromMemory() {
+        String token = jwtUtil.generateToken("revoke_" + UUID.randomUUID(), Map.of());
+        String tokenId = jwtUtil.extractTokenId(token);
+
+        revocations.revoke(token, "test");
+        // Revoking twice is harmless
+        revocations.revoke(token, "test");
+
+        assertThat(statements(() -> revocations.isRevoked(tokenId))).isZero();
+        assertThat(revocations.isRevoked(tokenId)).isTrue();
+        assertThat(revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now()))
+                .filteredOn(revoked -> revoked.getTokenId().equals(tokenId))
+                .hasSize(1);
+
+        // Tokens never revoked are almost always turned away by the Bloom filter
+        int queried = 0;
+        for (int i = 0; i < 200; i++) {
+            String other = UUID.randomUUID().toString();
+            queried += statements(() -> revocations.isRevoked(other));
+        }
+        assertThat(queried).isLessThan(20);
+    }
+
+    @Test
+    void bloomFalsePositiveIsCheckedOnceAgainstTheDatabase() {
+        // A tiny, saturated filter answers "maybe" for most ids
+        TokenRevocationServiceImpl node = node(1, 0.5);
+        for (int i = 0; i < 10; i++) {
+            revokeDirectly(UUID.randomUUID().toString(), LocalDateTime.now().plusMinutes(5));
+        }
+        node.pollRevocations();
+
+        String falsePositive = null;
+        for (int i = 0; i < 1000 && falsePositive == null; i++) {
+            String candidate = UUID.randomUUID().toString();
+            boolean[] revoked = new boolean[1];
+            if (statements(() -> revoked[0] = node.isRevoked(candidate)) == 1) {
+                assertThat(revoked[0]).isFalse();
+                falsePositive = candidate;
+            }
+        }
+        assertThat(falsePositive).as("a Bloom filter false positive").isNotNull();
+
+        String known = falsePositive;
+        assertThat(statements(() -> node.isRevoked(known))).isZero();
+        assertThat(node.isRevoked(known)).isFalse();
+    }
+
+    @Test
+    void expiredRevocationsArePrunedFromMemory() throws Exception {
+        TokenRevocationServiceImpl node = node(1000, 0.01);
+        String tokenId = UUID.randomUUID().toString();
+        revokeDirectly(tokenId, LocalDateTime.now().plusNanos(300_000_000));
+        node.pollRevocations();
+        assertThat(statements(() -> node.isRevoked(tokenId))).isZero();
+        assertThat(node.isRevoked(tokenId)).isTrue();
+
+        Thread.sleep(400);
+        node.pruneExpired();
+
+        assertThat(statements(() -> node.isRevoked(tokenId))).isZero();
+        assertThat(node.isRevoked(tokenId)).isFalse();
+    }
+
+    @Test
+    void otherNodesPickUpRevocationsByPolling() {
+        TokenRevocationServiceImpl other = node(1000, 0.01);
+        String first = jwtUtil.generateToken("poll_" + UUID.randomUUID(), Map.of());
+        String second = jwtUtil.generateToken("poll_" + UUID.randomUUID(), Map.of());
+
+        revocations.revoke(first, "test");
+        other.pollRevocations();
+        assertThat(statements(() -> other.isRevoked(jwtUtil.extractTokenId(first)))).isZero();
+        assertThat(other.isRevoked(jwtUtil.extractTokenId(first))).isTrue();
+
+        // The cursor moved past the first revocation; the next poll only brings the new one
+        revocations.revoke(second, "test");
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("poll")) {
+            other.pollRevocations();
+            assertThat(scope.getCount()).isEqualTo(1);
+        }
+        assertThat(statements(() -> other.isRevoked(jwtUtil.extractTokenId(second)))).isZero();
+        assertThat(other.isRevoked(jwtUtil.extractTokenId(second))).isTrue();
+    }
+
+    private TokenRevocationServiceImpl node(int expectedEntries, double falsePositiveRate) {
+        TokenRevocationServiceImpl node = new TokenRevocationServiceImpl(revokedTokenRepository, jwtUtil,
+                leaderElection, expectedEntries, falsePositiveRate, jwtUtil.getExpirationMillis());
+        node.loadRevocations();
+        return node;
+    }
+
+    private void revokeDirectly(String tokenId, LocalDateTime expiresAt) {
+        revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(tokenId)
+                .username("someone")
+                .expiresAt(expiresAt)
+                .revokedBy("test")
+                .build());
+    }
+
+    private static int statements(BooleanSupplier lookup) {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("lookup")) {
+            lookup.getAsBoolean();
+            return scope.getCount();
+        }
+    }
+}
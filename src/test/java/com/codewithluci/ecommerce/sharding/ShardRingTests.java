@@ -0,0 +1,123 @@
+package com.codewithluci.ecommerce.sharding;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * User placement (ShardRing) and cross-shard pages (MergedPage), without a
+ * database.
+ */
+class ShardRingTests {
+
+    private static final int USERS = 100_000;
+
+    @Test
+    void usersSpreadEvenlyOverShards() {
+        ShardRing ring = new ShardRing(4, 128);
+        int[] counts = new int[4];
+        for (long user = 1; user <= USERS; user++) {
+            counts[ring.shardFor(user)]++;
+        }
+        for (int count : counts) {
+            assertThat(count).isBetween(USERS / 4 * 8 / 10, USERS / 4 * 12 / 10);
+        }
+    }
+
+    @Test
+    void addingAShardOnlyMovesUsersOntoIt() {
+        ShardRing before = new ShardRing(4, 128);
+        ShardRing after = new ShardRing(5, 128);
+        int moved = 0;
+        for (long user = 1; user <= USERS; user++) {
+            int from = before.shardFor(user);
+            int to = after.shardFor(user);
+            if (from != to) {
+                assertThat(to).isEqualTo(4);
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(USERS / 5 * 8 / 10, USERS / 5 * 12 / 10);
+    }
+
+    @Test
+    void mergedPageMatchesOneSortedList() {
+        List<Row> all = new ArrayList<>();
+        List<List<Row>> shards = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (long id = 1; id <= 50; id++) {
+            Row row = new Row(id, (int) (id * 7 % 11));
+            all.add(row);
+            shards.get((int) (id % 3)).add(row);
+        }
+        Comparator<Row> order = Comparator.comparing(Row::getRank).thenComparing(Row::getId).reversed();
+        all.sort(order);
+
+        for (int page = 0; page < 6; page++) {
+            Pageable pageable = PageRequest.of(page, 9, Sort.by("rank").descending());
+            Pageable window = MergedPage.window(pageable, 1000);
+            List<Slice<Row>> answers = new ArrayList<>();
+            for (List<Row> shard : shards) {
+                List<Row> sorted = shard.stream().sorted(order).toList();
+                answers.add(new PageImpl<>(sorted.subList(0, Math.min(window.getPageSize(), sorted.size())),
+                        window, sorted.size()));
+            }
+
+            Slice<Row> merged = MergedPage.merge(answers, pageable);
+            int from = Math.min(page * 9, all.size());
+            assertThat(merged.getContent()).containsExactlyElementsOf(all.subList(from, Math.min(from + 9, all.size())));
+            assertThat(merged).isInstanceOf(Page.class);
+            assertThat(((Page<Row>) merged).getTotalElements()).isEqualTo(50);
+        }
+    }
+
+    @Test
+    void slicesReportMoreWithoutATotal() {
+        Pageable pageable = PageRequest.of(0, 2);
+        Row one = new Row(1L, 0);
+        Row two = new Row(2L, 0);
+        Slice<Row> merged = MergedPage.merge(List.of(
+                new SliceImpl<>(List.of(one, new Row(4L, 0)), MergedPage.window(pageable, 100), true),
+                new SliceImpl<>(List.of(two), MergedPage.window(pageable, 100), false)), pageable);
+        assertThat(merged).isNotInstanceOf(Page.class);
+        assertThat(merged.getContent()).containsExactly(one, two);
+        assertThat(merged.hasNext()).isTrue();
+    }
+
+    @Test
+    void deepPagesAreRefused() {
+        assertThatThrownBy(() -> MergedPage.window(PageRequest.of(100, 100), 10_000))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    // Sorted by bean property, like an entity
+    public static class Row {
+
+        private final Long id;
+        private final Integer rank;
+
+        Row(Long id, Integer rank) {
+            this.id = id;
+            this.rank = rank;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Integer getRank() {
+            return rank;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.codewithluci.ecommerce.sharding;
+
+import com.codewithluci.ecommerce.dto.request.OrderItemRequest;
+import com.codewithluci.ecommerce.dto.request.OrderRequest;
+import com.codewithluci.ecommerce.dto.request.PaymentRequest;
+import com.codewithluci.ecommerce.dto.respone.OrderResponse;
+import com.codewithluci.ecommerce.dto.respone.PageResponse;
+import com.codewithluci.ecommerce.dto.respone.PaymentResponse;
+import com.codewithluci.ecommerce.entity.*;
+import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import com.codewithluci.ecommerce.repository.UserRepository;
+import com.codewithluci.ecommerce.service.OrderService;
+import com.codewithluci.ecommerce.service.PaymentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Orders and payments on two extra in-memory shards next to the main
+ * database, which keeps users and products.
+ */
+@SpringBootTest(properties = {
+        "sharding.enabled=true",
+        "sharding.shard-urls=jdbc:h2:mem:shard1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:shard2;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "payment.gateway.simulated-delay-ms=0"
+})
+class ShardingTests {
+
+    @Autowired private OrderService orderService;
+    @Autowired private PaymentService paymentService;
+    @Autowired private Shards shards;
+    @Autowired private ShardPools shardPools;
+    @Autowired private DataSource dataSource;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+
+    // One user per shard, by shard
+    private final List<User> users = new ArrayList<>();
+    private Long productId;
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; users.size() < shards.count(); i++) {
+            User user = userRepository.save(User.builder()
+                    .username("shard_" + run + "_" + i)
+                    .email("shard_" + run + "_" + i + "@example.com")
+                    .password("not-a-real-hash")
+                    .role(Role.USER)
+                    .isActive(true)
+                    .isEmailVerified(false)
+                    .build());
+            if (shards.forUser(user.getId()) == users.size()) {
+                users.add(user);
+            }
+        }
+        Category category = categoryRepository.save(Category.builder()
+                .name("Sharding " + run)
+                .slug("sharding-" + run)
+                .isActive(true)
+                .build());
+        productId = productRepository.save(Product.builder()
+                .name("Sharding product " + run)
+                .price(new BigDecimal("5.00"))
+                .stockQuantity(100)
+                .sku("SHARD-" + run)
+                .isActive(true)
+                .category(category)
+                .build()).getId();
+    }
+
+    @Test
+    void ordersAreWrittenToTheirUsersShard() {
+        assertThat(shards.count()).isEqualTo(3);
+        for (int shard = 0; shard < shards.count(); shard++) {
+            User user = users.get(shard);
+            OrderResponse order = orderService.createOrder(request(2), user.getId());
+
+            assertThat(shards.forId(order.getId())).isEqualTo(shard);
+            assertThat(order.getUsername()).isEqualTo(user.getUsername());
+            for (int other = 0; other < shards.count(); other++) {
+                assertThat(jdbc(other).queryForObject("SELECT COUNT(*) FROM orders WHERE id = ?",
+                        Integer.class, order.getId())).isEqualTo(other == shard ? 1 : 0);
+            }
+
+            assertThat(orderService.getOrderById(order.getId(), user.getId()).getUsername())
+                    .isEqualTo(user.getUsername());
+            PageResponse<OrderResponse> mine = orderService.getUserOrders(user.getId(), PageRequest.of(0, 10), true);
+            assertThat(mine.getContent()).extracting(OrderResponse::getId).containsExactly(order.getId());
+            assertThat(mine.getContent().get(0).getItems()).hasSize(1);
+            assertThat(mine.getContent().get(0).getUsername()).isEqualTo(user.getUsername());
+        }
+        assertThat(stock()).isEqualTo(100 - 2 * shards.count());
+    }
+
+    @Test
+    void cancellingOnAShardRestoresStockOnMain() {
+        User user = users.get(2);
+        OrderResponse order = orderService.createOrder(request(3), user.getId());
+        assertThat(stock()).isEqualTo(97);
+
+        OrderResponse cancelled = orderService.cancelOrder(order.getId(), user.getId());
+
+        assertThat(cancelled.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(cancelled.getUsername()).isEqualTo(user.getUsername());
+        assertThat(stock()).isEqualTo(100);
+    }
+
+    @Test
+    void paymentWebhookFindsThePaymentsShard() {
+        User user = users.get(1);
+        OrderResponse order = orderService.createOrder(request(4), user.getId());
+        PaymentRequest payment = new PaymentRequest();
+        payment.setOrderId(order.getId());
+        payment.setPaymentMethod(PaymentMethod.CASH_ON_DELIVERY);
+
+        PaymentResponse paid = paymentService.processPayment(payment, user.getId());
+        assertThat(paid.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(shards.forId(paid.getId())).isEqualTo(1);
+
+        PaymentResponse failed = paymentService.simulatePaymentWebhook(paid.getTransactionId(), false);
+        assertThat(failed.getStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(orderService.getOrderById(order.getId(), user.getId()).getStatus())
+                .isEqualTo(OrderStatus.CANCELLED);
+        assertThat(stock()).isEqualTo(100);
+    }
+
+    @Test
+    void adminPagesMatchOneSortedListOfEveryShard() {
+        for (int i = 0; i < 4; i++) {
+            for (User user : users) {
+                orderService.createOrder(request(1), user.getId());
+            }
+        }
+
+        // Every order of every database, newest first
+        record Row(long id, Timestamp createdAt) {
+        }
+        List<Row> expected = new ArrayList<>();
+        for (int shard = 0; shard < shards.count(); shard++) {
+            expected.addAll(jdbc(shard).query("SELECT id, created_at FROM orders",
+                    (rs, row) -> new Row(rs.getLong("id"), rs.getTimestamp("created_at"))));
+        }
+        expected.sort(Comparator.comparing(Row::createdAt).thenComparing(Row::id).reversed());
+
+        List<Long> paged = new ArrayList<>();
+        PageResponse<OrderResponse> page;
+        int number = 0;
+        do {
+            Pageable pageable = PageRequest.of(number++, 7, Sort.by("createdAt").descending());
+            page = orderService.getAllOrders(pageable, number % 2 == 0);
+            page.getContent().forEach(order -> {
+                assertThat(order.getUsername()).isNotNull();
+                assertThat(order.getItems()).isNotEmpty();
+                paged.add(order.getId());
+            });
+            if (page.getTotalElements() != null) {
+                assertThat(page.getTotalElements()).isEqualTo(expected.size());
+            }
+        } while (page.isHasNext());
+
+        assertThat(paged).containsExactlyElementsOf(expected.stream().map(Row::id).toList());
+        assertThat(orderService.getOrdersByStatus(OrderStatus.PENDING, PageRequest.of(0, 5), true)
+                .getContent()).allMatch(order -> order.getStatus() == OrderStatus.PENDING);
+    }
+
+    private OrderRequest request(int quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        OrderRequest request = new OrderRequest();
+        request.setItems(List.of(item));
+        request.setShippingAddress("1 Shard Street, Testville");
+        return request;
+    }
+
+    private int stock() {
+        return productRepository.findById(productId).orElseThrow().getStockQuantity();
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(shard == Shards.MAIN ? dataSource : shardPools.getPools().get(shard - 1));
+    }
+}
@@ -0,0 +1,108 @@
+package com.codewithluci.ecommerce.startup;
+
+import com.codewithluci.ecommerce.entity.Category;
+import com.codewithluci.ecommerce.entity.Order;
+import com.codewithluci.ecommerce.entity.OrderItem;
+import com.codewithluci.ecommerce.entity.OrderStatus;
+import com.codewithluci.ecommerce.entity.Product;
+import com.codewithluci.ecommerce.entity.Role;
+import com.codewithluci.ecommerce.entity.User;
+import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.OrderRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import com.codewithluci.ecommerce.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class WarmUpTests {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private WarmUpRunner warmUpRunner;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private OrderRepository orderRepository;
+
+    @Test
+    void warmUpLoadsBestSellersAndReportsCoverageOnReadiness() throws Exception {
+        Product bestSeller = seedBestSeller();
+
+        WarmUpRunner.Result result = warmUpRunner.run();
+
+        assertThat(result.timedOut()).isFalse();
+        assertThat(warmUpRunner.getCoverage()).allSatisfy((step, coverage) -> {
+            String[] parts = coverage.split("/");
+            assertThat(parts[0]).as(step).isEqualTo(parts[1]);
+        });
+        assertThat(meterRegistry.get("warmup.coverage").tag("step", "topProducts").gauge().value())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("warmup.duration").tag("outcome", "completed").timer().count())
+                .isPositive();
+
+        // Best seller is already in the read cache
+        double hitsBefore = productHits();
+        mockMvc.perform(get("/api/products/" + bestSeller.getId())).andExpect(status().isOk());
+        assertThat(productHits()).isEqualTo(hitsBefore + 1);
+
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.components.warmUp.details.timedOut").value(false));
+    }
+
+    private Product seedBestSeller() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(User.builder()
+                .username("warm_" + run)
+                .email("warm_" + run + "@example.com")
+                .password("not-a-real-hash")
+                .role(Role.USER)
+                .isActive(true)
+                .isEmailVerified(false)
+                .build());
+        Category category = categoryRepository.save(Category.builder()
+                .name("Warm " + run)
+                .slug("warm-" + run)
+                .isActive(true)
+                .build());
+        Product product = productRepository.save(Product.builder()
+                .name("Warm product " + run)
+                .description("Sold more than anything else")
+                .price(new BigDecimal("5.00"))
+                .stockQuantity(10)
+                .sku("WARM-" + run)
+                .isActive(true)
+                .category(category)
+                .build());
+
+        Order order = Order.builder()
+                .user(user)
+                .status(OrderStatus.PENDING)
+                .totalAmount(BigDecimal.ZERO)
+                .build();
+        order.addOrderItem(OrderItem.fromProduct(product, 100_000));
+        order.calculateTotalAmount();
+        orderRepository.save(order);
+        return product;
+    }
+
+    private double productHits() {
+        return meterRegistry.get("read.cache.requests")
+                .tag("cache", "products").tag("result", "hit").counter().count();
+    }
+}
@@ -0,0 +1,130 @@
+package com.codewithluci.ecommerce.web;
+
+import com.codewithluci.ecommerce.entity.Category;
+import com.codewithluci.ecommerce.entity.Product;
+import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compression, h2c and static asset caching over a real connection, with the
+ * settings from application.properties.example.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.http2.enabled=true",
+        "server.compression.enabled=true",
+        "server.compression.min-response-size=1KB",
+        "server.compression.mime-types=application/json,text/html,text/css,text/javascript",
+        "spring.web.resources.chain.strategy.content.enabled=true",
+        "spring.web.resources.chain.compressed=true",
+        "spring.web.resources.cache.cachecontrol.max-age=365d",
+        "spring.web.resources.cache.cachecontrol.cache-public=true"
+})
+class CompressionTests {
+
+    @LocalServerPort private int port;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private ResourceUrlProvider resourceUrlProvider;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+
+    private final HttpClient http1 = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Category category = categoryRepository.save(Category.builder()
+                .name("Gzip " + run)
+                .slug("gzip-" + run)
+                .isActive(true)
+                .build());
+        for (int i = 0; i < 10; i++) {
+            productRepository.save(Product.builder()
+                    .name("Gzip product " + run + " " + i)
+                    .description("Enough repeated text to push the list past the compression threshold")
+                    .price(new BigDecimal("9.99"))
+                    .stockQuantity(5)
+                    .sku("GZIP-" + run + "-" + i)
+                    .isActive(true)
+                    .category(category)
+                    .build());
+        }
+    }
+
+    @Test
+    void jsonIsGzippedOnlyWhenTheClientAcceptsIt() throws Exception {
+        HttpResponse<byte[]> gzipped = get(http1, "/api/products?size=10", "gzip");
+        assertThat(gzipped.statusCode()).isEqualTo(200);
+        assertThat(gzipped.headers().firstValue("Content-Encoding")).hasValue("gzip");
+
+        byte[] json;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.body()))) {
+            json = in.readAllBytes();
+        }
+        JsonNode body = objectMapper.readTree(json);
+        assertThat(body.get("data").get("content")).hasSize(10);
+        assertThat(gzipped.body().length).isLessThan(json.length / 2);
+
+        HttpResponse<byte[]> plain = get(http1, "/api/products?size=10", null);
+        assertThat(plain.headers().firstValue("Content-Encoding")).isEmpty();
+    }
+
+    @Test
+    void smallResponsesAreNotCompressed() throws Exception {
+        HttpResponse<byte[]> response = get(http1, "/api/products?size=1&fields=id", "gzip");
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body().length).isLessThan(1024);
+        assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+    }
+
+    @Test
+    void cleartextClientsCanUseHttp2() throws Exception {
+        HttpClient http2 = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+
+        // First request upgrades the connection (h2c), the rest are multiplexed on it
+        for (int i = 0; i < 3; i++) {
+            HttpResponse<byte[]> response = get(http2, "/api/products?size=10", "gzip");
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+            assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        }
+    }
+
+    @Test
+    void staticAssetsAreFingerprintedAndCachedForAYear() throws Exception {
+        String url = resourceUrlProvider.getForLookupPath("/css/test.css");
+        assertThat(url).matches("/css/test-[0-9a-f]{32}\\.css");
+
+        HttpResponse<byte[]> response = get(http1, url, "gzip");
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Cache-Control")).hasValue("max-age=31536000, public");
+        assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+    }
+
+    private HttpResponse<byte[]> get(HttpClient client, String path, String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
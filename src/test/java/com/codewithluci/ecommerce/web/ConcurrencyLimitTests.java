@@ -0,0 +1,147 @@
+package com.codewithluci.ecommerce.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitTests {
+
+    private static final double ALL = 1.0;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void limitGrowsWhileLatencyHoldsSteady() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+
+        for (int i = 0; i < 10; i++) {
+            runWindow(limiter, limiter.getLimit(), 10);
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(20);
+    }
+
+    @Test
+    void limitShrinksWhenRequestsStartQueueing() {
+        AdaptiveConcurrencyLimiter limiter = limiter(40);
+        for (int i = 0; i < 5; i++) {
+            runWindow(limiter, limiter.getLimit(), 10);
+        }
+        int before = limiter.getLimit();
+
+        for (int i = 0; i < 5; i++) {
+            runWindow(limiter, limiter.getLimit(), 50);
+        }
+        assertThat(limiter.getLimit()).isLessThan(before * 4 / 5);
+    }
+
+    @Test
+    void lightTrafficLeavesTheLimitAlone() {
+        AdaptiveConcurrencyLimiter limiter = limiter(40);
+
+        for (int i = 0; i < 5; i++) {
+            runWindow(limiter, 5, 10);
+        }
+        for (int i = 0; i < 5; i++) {
+            runWindow(limiter, 5, 50);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(40);
+    }
+
+    @Test
+    void partialShareLeavesRoomForPriorityRequests() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        int browse = 0;
+        while (limiter.tryAcquire(0.7) >= 0) {
+            browse++;
+        }
+        int checkout = 0;
+        while (limiter.tryAcquire(ALL) >= 0) {
+            checkout++;
+        }
+        assertThat(browse).isEqualTo(7);
+        assertThat(checkout).isEqualTo(3);
+    }
+
+    @Test
+    void filterShedsBrowseFirstAndNeverProbes() throws Exception {
+        // limit 2: browse may hold 1 in flight, checkout 2
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(new SimpleMeterRegistry(),
+                true, 2, 2, 2, 1.5, 0.2, 1000, 10, 0.9, 0.5);
+
+        List<MockHttpServletResponse> inner = new ArrayList<>();
+        MockFilterChain holdsASlot = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                try {
+                    inner.add(send(filter, "/api/products/1"));
+                    inner.add(send(filter, "/actuator/health"));
+                    inner.add(send(filter, "/api/orders"));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"), outer, holdsASlot);
+
+        assertThat(outer.getStatus()).isEqualTo(200);
+        assertThat(inner).extracting(MockHttpServletResponse::getStatus).containsExactly(503, 200, 200);
+        assertThat(inner.get(0).getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    void routesAreClassedByController() {
+        assertThat(ConcurrencyLimitFilter.classify(new MockHttpServletRequest("POST", "/api/orders")))
+                .isEqualTo(ConcurrencyLimitFilter.Priority.CHECKOUT);
+        assertThat(ConcurrencyLimitFilter.classify(new MockHttpServletRequest("POST", "/api/payments/webhook/simulate")))
+                .isEqualTo(ConcurrencyLimitFilter.Priority.CHECKOUT);
+        assertThat(ConcurrencyLimitFilter.classify(new MockHttpServletRequest("GET", "/products/7")))
+                .isEqualTo(ConcurrencyLimitFilter.Priority.BROWSE);
+        assertThat(ConcurrencyLimitFilter.classify(new MockHttpServletRequest("GET", "/api/products/search")))
+                .isEqualTo(ConcurrencyLimitFilter.Priority.BROWSE);
+        assertThat(ConcurrencyLimitFilter.classify(new MockHttpServletRequest("POST", "/api/auth/login")))
+                .isEqualTo(ConcurrencyLimitFilter.Priority.DEFAULT);
+        // Same classes as the bulkheads: admin routes under checkout's paths and catalog writes aren't prioritised
+        assertThat(ConcurrencyLimitFilter.classify(new MockHttpServletRequest("GET", "/api/orders/admin/all")))
+                .isEqualTo(ConcurrencyLimitFilter.Priority.DEFAULT);
+        assertThat(ConcurrencyLimitFilter.classify(new MockHttpServletRequest("POST", "/api/products")))
+                .isEqualTo(ConcurrencyLimitFilter.Priority.DEFAULT);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initial) {
+        return new AdaptiveConcurrencyLimiter(initial, 5, 200, 1.5, 0.2, 10, 5, clock::get);
+    }
+
+    /**
+     * One window: concurrency requests start together and all take rttMillis
+     */
+    private void runWindow(AdaptiveConcurrencyLimiter limiter, int concurrency, long rttMillis) {
+        List<Long> started = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            long start = limiter.tryAcquire(ALL);
+            if (start >= 0) {
+                started.add(start);
+            }
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(rttMillis));
+        started.forEach(start -> limiter.release(start, true));
+    }
+
+    private static MockHttpServletResponse send(ConcurrencyLimitFilter filter, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", path), response, new MockFilterChain());
+        return response;
+    }
+}
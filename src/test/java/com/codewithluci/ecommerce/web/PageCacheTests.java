@@ -0,0 +1,131 @@
+package com.codewithluci.ecommerce.web;
+
+import com.codewithluci.ecommerce.dto.request.ProductRequest;
+import com.codewithluci.ecommerce.entity.Category;
+import com.codewithluci.ecommerce.entity.Product;
+import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import com.codewithluci.ecommerce.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Storefront pages come from the page cache for anonymous users and reuse
+ * cached fragments for signed-in ones, until the catalog changes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PageCacheTests {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductService productService;
+
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        category = categoryRepository.save(Category.builder()
+                .name("Pages " + run)
+                .slug("pages-" + run)
+                .isActive(true)
+                .build());
+        product = productRepository.save(Product.builder()
+                .name("Page product " + run)
+                .description("Rendered into the grid")
+                .price(new BigDecimal("9.00"))
+                .stockQuantity(5)
+                .sku("PAGE-" + run)
+                .isActive(true)
+                .category(category)
+                .build());
+    }
+
+    @Test
+    void anonymousPageIsCachedUntilTheCatalogChanges() throws Exception {
+        String first = render(page());
+        assertThat(first).contains(product.getName(), category.getName());
+
+        assertThat(servedFromCache("pages", page())).isEqualTo(first);
+
+        ProductRequest request = new ProductRequest();
+        request.setName(product.getName() + " renamed");
+        request.setPrice(product.getPrice());
+        request.setStockQuantity(product.getStockQuantity());
+        request.setCategoryId(category.getId());
+        productService.updateProduct(product.getId(), request);
+
+        assertThat(render(page())).contains(product.getName() + " renamed");
+    }
+
+    @Test
+    void signedInPagesReuseFragmentsOnly() throws Exception {
+        RequestBuilder signedIn = page().with(user("page-cache-user"));
+        String first = render(signedIn);
+
+        long bypassed = renders("bypass");
+        assertThat(servedFromCache("fragments", signedIn)).isEqualTo(first);
+        assertThat(renders("bypass")).isGreaterThan(bypassed);
+    }
+
+    @Test
+    void cachedFragmentsAreNotInlinedAgain() throws Exception {
+        product.setName("Literal [[${selectedCategory}]]");
+        productRepository.save(product);
+
+        RequestBuilder signedIn = page().with(user("page-cache-user"));
+        render(signedIn);
+        assertThat(servedFromCache("fragments", signedIn))
+                .contains("Literal [[${selectedCategory}]]")
+                .doesNotContain("Literal " + category.getId());
+    }
+
+    private MockHttpServletRequestBuilder page() {
+        return get("/products").param("categoryId", String.valueOf(category.getId()));
+    }
+
+    // Invalidations from other test contexts can land in between, so allow a few tries
+    private String servedFromCache(String cache, RequestBuilder request) throws Exception {
+        for (int attempt = 0; attempt < 5; attempt++) {
+            double hits = hits(cache);
+            String body = render(request);
+            if (hits(cache) > hits) {
+                return body;
+            }
+        }
+        throw new AssertionError("No " + cache + " cache hit for " + request);
+    }
+
+    private String render(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private double hits(String cache) {
+        return meterRegistry.get("view.cache.requests").tag("cache", cache).tag("result", "hit").counter().count();
+    }
+
+    private long renders(String outcome) {
+        return meterRegistry.get("view.render").tag("page", "products").tag("cache", outcome).timer().count();
+    }
+}
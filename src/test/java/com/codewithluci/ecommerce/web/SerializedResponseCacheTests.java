@@ -0,0 +1,121 @@
+package com.codewithluci.ecommerce.web;
+
+import com.codewithluci.ecommerce.dto.respone.ApiResponse;
+import com.codewithluci.ecommerce.entity.Category;
+import com.codewithluci.ecommerce.entity.Product;
+import com.codewithluci.ecommerce.repository.CategoryRepository;
+import com.codewithluci.ecommerce.repository.ProductRepository;
+import com.codewithluci.ecommerce.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SerializedResponseCacheTests {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductService productService;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        category = categoryRepository.save(Category.builder()
+                .name("Bytes " + run)
+                .slug("bytes-" + run)
+                .isActive(true)
+                .build());
+        product = productRepository.save(Product.builder()
+                .name("Bytes product " + run)
+                .description("Served from serialized bytes")
+                .price(new BigDecimal("12.50"))
+                .stockQuantity(10)
+                .sku("BYTES-" + run)
+                .isActive(true)
+                .category(category)
+                .build());
+    }
+
+    @Test
+    void productBodyMatchesJacksonWithCurrentTimestamp() throws Exception {
+        String body = getJson("/api/products/" + product.getId());
+
+        JsonNode actual = objectMapper.readTree(body);
+        JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsString(
+                ApiResponse.success("Product retrieved successfully", productService.getProductById(product.getId()))));
+
+        assertThat(actual.get("timestamp").asString())
+                .matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}")
+                .isNotEqualTo("2000-01-01 00:00:00");
+        ((ObjectNode) actual).remove("timestamp");
+        ((ObjectNode) expected).remove("timestamp");
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void repeatRequestsReuseBytesUntilTheProductChanges() throws Exception {
+        String path = "/api/products/" + product.getId();
+        getJson(path);
+
+        double hitsBefore = hits();
+        getJson(path);
+        assertThat(hits()).isEqualTo(hitsBefore + 1);
+
+        // Bulk update, no entity callbacks: still seen on the next request
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> productRepository.reduceStock(product.getId(), 4));
+
+        JsonNode data = objectMapper.readTree(getJson(path)).get("data");
+        assertThat(data.get("stockQuantity").asInt()).isEqualTo(6);
+    }
+
+    @Test
+    void categoryListReflectsNewCategories() throws Exception {
+        getJson("/api/categories");
+
+        Category created = categoryRepository.save(Category.builder()
+                .name("Bytes new " + category.getSlug())
+                .slug("bytes-new-" + category.getSlug())
+                .isActive(true)
+                .build());
+
+        assertThat(getJson("/api/categories")).contains(created.getName());
+    }
+
+    private String getJson(String path) throws Exception {
+        return mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private double hits() {
+        return meterRegistry.get("response.cache.requests").tag("result", "hit").counter().count();
+    }
+}